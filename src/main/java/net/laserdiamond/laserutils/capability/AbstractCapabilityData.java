@@ -2,12 +2,19 @@ package net.laserdiamond.laserutils.capability;
 
 import net.minecraft.nbt.CompoundTag;
 
+import java.util.HashMap;
+
 /**
  * Abstract class used to help create capability variables
  * @param <C> The {@linkplain AbstractCapabilityData capability data} class. It should be the subclass
  */
 public abstract class AbstractCapabilityData<C extends AbstractCapabilityData<C>> {
 
+    /**
+     * The {@link SyncVisibility} of each key saved by {@link #saveNBTData(CompoundTag)}. Keys without an entry use {@link #defaultSyncVisibility()}
+     */
+    private final HashMap<String, SyncVisibility> syncVisibilities = new HashMap<>();
+
     /**
      * Copies the capability data from another source
      * @param source The {@linkplain AbstractCapabilityData capability data} source to copy from
@@ -35,4 +42,64 @@ public abstract class AbstractCapabilityData<C extends AbstractCapabilityData<C>
         this.saveNBTData(tag);
         return tag;
     }
+
+    /**
+     * Marks a key saved by {@link #saveNBTData(CompoundTag)} with a {@link SyncVisibility}. This should be called in the constructor of the subclass
+     * @param key The key the field is saved under
+     * @param visibility The {@link SyncVisibility} of the field
+     */
+    protected final void setSyncVisibility(String key, SyncVisibility visibility)
+    {
+        this.syncVisibilities.put(key, visibility);
+    }
+
+    /**
+     * Gets the {@link SyncVisibility} of a key saved by {@link #saveNBTData(CompoundTag)}
+     * @param key The key the field is saved under
+     * @return The {@link SyncVisibility} of the key, or {@link #defaultSyncVisibility()} if the key was never marked
+     */
+    public final SyncVisibility getSyncVisibility(String key)
+    {
+        return this.syncVisibilities.getOrDefault(key, this.defaultSyncVisibility());
+    }
+
+    /**
+     * The {@link SyncVisibility} used for keys that were not marked with {@link #setSyncVisibility(String, SyncVisibility)}.
+     * Defaults to {@link SyncVisibility#TRACKERS}, which syncs the key to every client like before visibilities existed
+     * @return The default {@link SyncVisibility}
+     */
+    protected SyncVisibility defaultSyncVisibility()
+    {
+        return SyncVisibility.TRACKERS;
+    }
+
+    /**
+     * Saves only the keys that are visible to the {@link SyncVisibility.Audience}
+     * @param audience The {@link SyncVisibility.Audience} the {@linkplain CompoundTag tag} will be sent to
+     * @return The {@linkplain AbstractCapabilityData capability data} as a {@linkplain CompoundTag tag}, without any keys hidden from the {@link SyncVisibility.Audience}
+     */
+    public final CompoundTag toNBT(SyncVisibility.Audience audience)
+    {
+        CompoundTag tag = this.toNBT();
+        tag.getAllKeys().removeIf(key -> !this.getSyncVisibility(key).isVisibleTo(audience));
+        return tag;
+    }
+
+    /**
+     * Loads a {@linkplain CompoundTag tag} that was reduced by {@link #toNBT(SyncVisibility.Audience)}.
+     * Every key visible to the {@link SyncVisibility.Audience} is replaced wholesale by the payload, and removed if the payload doesn't contain it, as it was removed on the server.
+     * Keys hidden from the {@link SyncVisibility.Audience} keep their current values. Used by the client when receiving capability syncs
+     * @param nbt The {@linkplain CompoundTag tag} received
+     * @param audience The {@link SyncVisibility.Audience} the {@linkplain CompoundTag tag} was reduced for
+     */
+    public final void mergeNBTData(CompoundTag nbt, SyncVisibility.Audience audience)
+    {
+        CompoundTag merged = this.toNBT();
+        merged.getAllKeys().removeIf(key -> this.getSyncVisibility(key).isVisibleTo(audience));
+        for (String key : nbt.getAllKeys())
+        {
+            merged.put(key, nbt.get(key)); // Top level keys only, so entries removed from nested tags are removed on the client too
+        }
+        this.loadNBTData(merged);
+    }
 }
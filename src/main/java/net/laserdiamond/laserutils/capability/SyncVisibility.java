@@ -0,0 +1,55 @@
+package net.laserdiamond.laserutils.capability;
+
+/**
+ * Determines which clients are allowed to receive a field of an {@linkplain AbstractCapabilityData capability} when it is synced from the server.
+ * Fields are identified by the key they are saved under in {@link AbstractCapabilityData#saveNBTData(net.minecraft.nbt.CompoundTag)}
+ * @see AbstractCapabilityData#setSyncVisibility(String, SyncVisibility)
+ */
+public enum SyncVisibility {
+
+    /**
+     * The field is only sent to the client of the player that owns the {@linkplain AbstractCapabilityData capability}
+     */
+    OWNER_ONLY,
+
+    /**
+     * The field is sent to the owning client and to every client tracking the owner
+     */
+    TRACKERS,
+
+    /**
+     * The field is never sent to any client
+     */
+    SERVER_ONLY;
+
+    /**
+     * Determines if a field with this {@link SyncVisibility} can be sent to the {@link Audience}
+     * @param audience The {@link Audience} receiving the sync
+     * @return True if the field should be included in the payload for the {@link Audience}, false otherwise
+     */
+    public boolean isVisibleTo(Audience audience)
+    {
+        return switch (this)
+        {
+            case OWNER_ONLY -> audience == Audience.SELF;
+            case TRACKERS -> true;
+            case SERVER_ONLY -> false;
+        };
+    }
+
+    /**
+     * The receivers of a {@linkplain net.laserdiamond.laserutils.network.CapabilitySyncS2CPacket capability sync packet}
+     */
+    public enum Audience
+    {
+        /**
+         * The client that owns the {@linkplain AbstractCapabilityData capability}. Receives every field except {@linkplain #SERVER_ONLY server only} ones
+         */
+        SELF,
+
+        /**
+         * Clients tracking the owner of the {@linkplain AbstractCapabilityData capability}. Receives a reduced payload
+         */
+        TRACKERS
+    }
+}
@@ -0,0 +1,228 @@
+package net.laserdiamond.laserutils.capability.block;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.laserdiamond.laserutils.capability.AbstractCapabilityData;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@linkplain AbstractCapabilityData Capability data} attached to a {@link LevelChunk} that stores an integer value for every block of the chunk.
+ * Values are stored per 16x16x16 section in a {@link PalettedIntSection}. Sections where every block has the {@link #defaultValue()} are not stored at all,
+ * and sections where every block has the same value only store that value.
+ * Object values (ex: enums) can be stored by mapping them to integers.
+ * Example:
+ * <pre>{@code
+ *
+ * public class ChargeData extends AbstractChunkBlockData<ChargeData> {
+ *
+ *      public ChargeData(LevelChunk chunk)
+ *      {
+ *          super(chunk);
+ *      }
+ * }
+ *
+ * public class ChargeCapability extends AbstractCapability<LevelChunk, ChargeData> {
+ *
+ *      private ChargeData data;
+ *
+ *      // Create the capability, and return the same data instance from createCapabilityData()
+ *      protected ChargeData createCapabilityData()
+ *      {
+ *          if (this.data == null)
+ *          {
+ *              this.data = new ChargeData(this.obj);
+ *          }
+ *          return this.data;
+ *      }
+ * }
+ *
+ * }</pre>
+ * @param <CD> The {@linkplain AbstractChunkBlockData chunk block data} class. It should be the subclass
+ * @see net.laserdiamond.laserutils.network.BlockDataSectionSyncS2CPacket
+ */
+public abstract class AbstractChunkBlockData<CD extends AbstractChunkBlockData<CD>> extends AbstractCapabilityData<CD> {
+
+    /**
+     * The {@link LevelChunk} the data is attached to. Marked as unsaved whenever a value changes
+     */
+    @Nullable
+    protected final LevelChunk chunk;
+
+    /**
+     * The stored sections, mapped by their section Y coordinate
+     */
+    private final Int2ObjectOpenHashMap<PalettedIntSection> sections;
+
+    /**
+     * The section Y coordinates of every section that changed since the last {@linkplain #clearDirtySections() sync}
+     */
+    private final IntOpenHashSet dirtySections;
+
+    /**
+     * Creates a new {@link AbstractChunkBlockData}
+     * @param chunk The {@link LevelChunk} the data is attached to
+     */
+    protected AbstractChunkBlockData(@Nullable LevelChunk chunk)
+    {
+        this.chunk = chunk;
+        this.sections = new Int2ObjectOpenHashMap<>();
+        this.dirtySections = new IntOpenHashSet();
+    }
+
+    /**
+     * The value of every block that has not been set. This must never change for the same subclass, as blocks holding it are not saved
+     * @return The default value of a block. Returns 0 if not overridden
+     */
+    protected int defaultValue()
+    {
+        return 0;
+    }
+
+    /**
+     * Gets the value of a block
+     * @param pos The {@link BlockPos} of the block
+     * @return The value of the block, or {@link #defaultValue()} if none was set
+     */
+    public int get(BlockPos pos)
+    {
+        final PalettedIntSection section = this.sections.get(SectionPos.blockToSectionCoord(pos.getY()));
+        if (section == null)
+        {
+            return this.defaultValue();
+        }
+        return section.get(PalettedIntSection.index(pos.getX(), pos.getY(), pos.getZ()));
+    }
+
+    /**
+     * Sets the value of a block
+     * @param pos The {@link BlockPos} of the block
+     * @param value The new value of the block
+     * @return True if the value of the block changed, false otherwise
+     */
+    public boolean set(BlockPos pos, int value)
+    {
+        final int sectionY = SectionPos.blockToSectionCoord(pos.getY());
+        PalettedIntSection section = this.sections.get(sectionY);
+        if (section == null)
+        {
+            if (value == this.defaultValue())
+            {
+                return false; // Nothing to change, and no need to allocate a section
+            }
+            section = new PalettedIntSection(this.defaultValue());
+            this.sections.put(sectionY, section);
+        }
+        if (section.set(PalettedIntSection.index(pos.getX(), pos.getY(), pos.getZ()), value) == value)
+        {
+            return false;
+        }
+        this.dirtySections.add(sectionY);
+        if (this.chunk != null)
+        {
+            this.chunk.setUnsaved(true);
+        }
+        return true;
+    }
+
+    /**
+     * Gets a stored section
+     * @param sectionY The section Y coordinate
+     * @return The {@link PalettedIntSection}, or null if every block of the section has the {@link #defaultValue()}
+     */
+    @Nullable
+    public PalettedIntSection getSection(int sectionY)
+    {
+        return this.sections.get(sectionY);
+    }
+
+    /**
+     * Replaces a stored section. Used when syncing sections to the client
+     * @param sectionY The section Y coordinate
+     * @param section The new {@link PalettedIntSection}. Set to null to reset every block of the section to the {@link #defaultValue()}
+     */
+    public void setSection(int sectionY, @Nullable PalettedIntSection section)
+    {
+        if (section == null || (section.isUniform() && section.uniformValue() == this.defaultValue()))
+        {
+            this.sections.remove(sectionY);
+        } else
+        {
+            this.sections.put(sectionY, section);
+        }
+    }
+
+    /**
+     * @return The section Y coordinates of every stored section
+     */
+    public IntSet storedSections()
+    {
+        return this.sections.keySet();
+    }
+
+    /**
+     * @return The section Y coordinates of every section that changed since the last call to {@link #clearDirtySections()}
+     */
+    public IntSet dirtySections()
+    {
+        return this.dirtySections;
+    }
+
+    /**
+     * Clears the changed sections. Call this after the changed sections have been synced to the client
+     */
+    public void clearDirtySections()
+    {
+        this.dirtySections.clear();
+    }
+
+    @Override
+    public void copyFrom(CD source)
+    {
+        this.sections.clear();
+        ((AbstractChunkBlockData<CD>) source).sections.forEach((sectionY, section) -> this.sections.put((int) sectionY, section.copy()));
+    }
+
+    @Override
+    public void saveNBTData(CompoundTag nbt)
+    {
+        final ListTag sectionTags = new ListTag();
+        final ObjectIterator<Int2ObjectMap.Entry<PalettedIntSection>> iterator = this.sections.int2ObjectEntrySet().fastIterator();
+        while (iterator.hasNext())
+        {
+            final Int2ObjectMap.Entry<PalettedIntSection> entry = iterator.next();
+            final PalettedIntSection section = entry.getValue();
+            section.compact();
+            if (section.isUniform() && section.uniformValue() == this.defaultValue())
+            {
+                iterator.remove(); // Section was set back to the default value, no need to keep it
+                continue;
+            }
+            final CompoundTag sectionTag = new CompoundTag();
+            sectionTag.putInt("Y", entry.getIntKey());
+            section.save(sectionTag);
+            sectionTags.add(sectionTag);
+        }
+        nbt.put("Sections", sectionTags);
+    }
+
+    @Override
+    public void loadNBTData(CompoundTag nbt)
+    {
+        this.sections.clear();
+        final ListTag sectionTags = nbt.getList("Sections", Tag.TAG_COMPOUND);
+        for (int i = 0; i < sectionTags.size(); i++)
+        {
+            final CompoundTag sectionTag = sectionTags.getCompound(i);
+            this.setSection(sectionTag.getInt("Y"), PalettedIntSection.load(sectionTag, this.defaultValue()));
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package net.laserdiamond.laserutils.capability.block;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.util.Mth;
+import net.minecraft.util.SimpleBitStorage;
+
+import java.util.Arrays;
+
+/**
+ * Stores an integer value for every block of a 16x16x16 chunk section using a palette, similar to vanilla's {@link net.minecraft.world.level.chunk.PalettedContainer}.
+ * Each distinct value is stored once in the palette, and each block only stores the index of its value in a {@link SimpleBitStorage} using as few bits as the palette size allows.
+ * A section where every block has the same value does not allocate any storage at all.
+ * @see AbstractChunkBlockData
+ */
+public final class PalettedIntSection {
+
+    /**
+     * The amount of blocks in a section
+     */
+    public static final int SIZE = 16 * 16 * 16;
+
+    /**
+     * The values of the palette. Only the first {@link #paletteSize} entries are used
+     */
+    private int[] palette;
+
+    /**
+     * The amount of entries in the {@link #palette}
+     */
+    private int paletteSize;
+
+    /**
+     * Maps a value to its index in the {@link #palette}
+     */
+    private final Int2IntOpenHashMap paletteIndices;
+
+    /**
+     * The palette index of each block. Null if every block of the section has the same value
+     */
+    private SimpleBitStorage storage;
+
+    /**
+     * Creates a new {@link PalettedIntSection} where every block has the same value
+     * @param uniformValue The value of every block in the section
+     */
+    public PalettedIntSection(int uniformValue)
+    {
+        this.palette = new int[] {uniformValue};
+        this.paletteSize = 1;
+        this.paletteIndices = new Int2IntOpenHashMap();
+        this.paletteIndices.defaultReturnValue(-1);
+        this.paletteIndices.put(uniformValue, 0);
+        this.storage = null;
+    }
+
+    /**
+     * Gets the index of a block within a section
+     * @param x The x coordinate of the block. Only the lowest 4 bits are used
+     * @param y The y coordinate of the block. Only the lowest 4 bits are used
+     * @param z The z coordinate of the block. Only the lowest 4 bits are used
+     * @return The index of the block within the section
+     */
+    public static int index(int x, int y, int z)
+    {
+        return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    /**
+     * Gets the value of a block
+     * @param index The {@linkplain #index(int, int, int) index} of the block
+     * @return The value of the block
+     */
+    public int get(int index)
+    {
+        if (this.storage == null)
+        {
+            return this.palette[0];
+        }
+        return this.palette[this.storage.get(index)];
+    }
+
+    /**
+     * Sets the value of a block
+     * @param index The {@linkplain #index(int, int, int) index} of the block
+     * @param value The new value of the block
+     * @return The previous value of the block
+     */
+    public int set(int index, int value)
+    {
+        final int paletteIndex = this.paletteIndexOrAdd(value);
+        if (this.storage == null)
+        {
+            return this.palette[0]; // Setting the uniform value again
+        }
+        return this.palette[this.storage.getAndSet(index, paletteIndex)];
+    }
+
+    /**
+     * Determines if every block of the section has the same value
+     * @return True if the section does not allocate any storage, false otherwise
+     */
+    public boolean isUniform()
+    {
+        return this.storage == null;
+    }
+
+    /**
+     * Gets the value of every block if the section is {@linkplain #isUniform() uniform}
+     * @return The value of every block in the section
+     * @throws IllegalStateException If the section is not {@linkplain #isUniform() uniform}
+     */
+    public int uniformValue() throws IllegalStateException
+    {
+        if (this.storage != null)
+        {
+            throw new IllegalStateException("Paletted section is not uniform! Palette size: " + this.paletteSize);
+        }
+        return this.palette[0];
+    }
+
+    /**
+     * Removes palette entries that are no longer used by any block, shrinking the storage if possible.
+     * If only one value is left, the storage is dropped and the section becomes {@linkplain #isUniform() uniform}
+     */
+    public void compact()
+    {
+        if (this.storage == null)
+        {
+            return;
+        }
+        final int[] uses = new int[this.paletteSize];
+        this.storage.getAll(paletteIndex -> uses[paletteIndex]++);
+
+        final int[] remap = new int[this.paletteSize];
+        final int[] newPalette = new int[this.paletteSize];
+        int newSize = 0;
+        for (int i = 0; i < this.paletteSize; i++)
+        {
+            if (uses[i] > 0)
+            {
+                remap[i] = newSize;
+                newPalette[newSize++] = this.palette[i];
+            }
+        }
+        if (newSize == this.paletteSize)
+        {
+            return; // Every entry is in use
+        }
+
+        this.paletteIndices.clear();
+        for (int i = 0; i < newSize; i++)
+        {
+            this.paletteIndices.put(newPalette[i], i);
+        }
+        this.palette = Arrays.copyOf(newPalette, Math.max(newSize, 1));
+        this.paletteSize = newSize;
+
+        if (newSize == 1)
+        {
+            this.storage = null;
+            return;
+        }
+        final SimpleBitStorage oldStorage = this.storage;
+        this.storage = new SimpleBitStorage(bitsFor(newSize), SIZE);
+        for (int i = 0; i < SIZE; i++)
+        {
+            this.storage.set(i, remap[oldStorage.get(i)]);
+        }
+    }
+
+    /**
+     * Creates a deep copy of this {@link PalettedIntSection}
+     * @return A new {@link PalettedIntSection} with the same values
+     */
+    public PalettedIntSection copy()
+    {
+        final PalettedIntSection copy = new PalettedIntSection(this.palette[0]);
+        copy.palette = Arrays.copyOf(this.palette, this.palette.length);
+        copy.paletteSize = this.paletteSize;
+        copy.paletteIndices.putAll(this.paletteIndices);
+        copy.storage = this.storage == null ? null : new SimpleBitStorage(this.storage.getBits(), SIZE, this.storage.getRaw().clone());
+        return copy;
+    }
+
+    /**
+     * Saves the {@link PalettedIntSection} to a {@linkplain CompoundTag tag}
+     * @param tag The {@linkplain CompoundTag tag} to save to
+     */
+    public void save(CompoundTag tag)
+    {
+        this.compact();
+        tag.putIntArray("Palette", Arrays.copyOf(this.palette, this.paletteSize));
+        if (this.storage != null)
+        {
+            tag.putLongArray("Data", this.storage.getRaw().clone()); // The tag may be written to disk after this section changes
+        }
+    }
+
+    /**
+     * Reads a {@link PalettedIntSection} from a {@linkplain CompoundTag tag}
+     * @param tag The {@linkplain CompoundTag tag} to read from
+     * @param defaultValue The value to use if the tag is malformed
+     * @return A new {@link PalettedIntSection}
+     */
+    public static PalettedIntSection load(CompoundTag tag, int defaultValue)
+    {
+        final int[] palette = tag.getIntArray("Palette");
+        return create(palette, tag.contains("Data") ? tag.getLongArray("Data") : null, defaultValue);
+    }
+
+    /**
+     * Writes the {@link PalettedIntSection} to a {@linkplain FriendlyByteBuf buffer}. The section should be {@linkplain #compact() compacted} first,
+     * as a palette larger than {@link #SIZE} can't be read back
+     * @param buf The {@linkplain FriendlyByteBuf buffer} to write to
+     */
+    public void write(FriendlyByteBuf buf)
+    {
+        buf.writeVarInt(this.paletteSize);
+        for (int i = 0; i < this.paletteSize; i++)
+        {
+            buf.writeVarInt(this.palette[i]);
+        }
+        if (this.storage != null)
+        {
+            buf.writeLongArray(this.storage.getRaw());
+        }
+    }
+
+    /**
+     * Reads a {@link PalettedIntSection} from a {@linkplain FriendlyByteBuf buffer}
+     * @param buf The {@linkplain FriendlyByteBuf buffer} to read from
+     * @param defaultValue The value to use if the data is malformed
+     * @return A new {@link PalettedIntSection}
+     * @throws IllegalStateException If the palette size is negative or larger than {@link #SIZE}, as the rest of the buffer can't be read
+     */
+    public static PalettedIntSection read(FriendlyByteBuf buf, int defaultValue) throws IllegalStateException
+    {
+        final int paletteSize = buf.readVarInt();
+        if (paletteSize < 0 || paletteSize > SIZE)
+        {
+            throw new IllegalStateException("Paletted section palette size must be between 0 and " + SIZE + "! Size received: " + paletteSize);
+        }
+        final int[] palette = new int[paletteSize];
+        for (int i = 0; i < palette.length; i++)
+        {
+            palette[i] = buf.readVarInt();
+        }
+        return create(palette, palette.length > 1 ? buf.readLongArray() : null, defaultValue);
+    }
+
+    /**
+     * Creates a {@link PalettedIntSection} from a palette and its packed data
+     * @param palette The palette values
+     * @param data The packed palette indices. Can be null if the palette has only one entry
+     * @param defaultValue The value to use if the palette or data are malformed
+     * @return A new {@link PalettedIntSection}
+     */
+    private static PalettedIntSection create(int[] palette, long[] data, int defaultValue)
+    {
+        if (palette.length == 0)
+        {
+            return new PalettedIntSection(defaultValue);
+        }
+        final PalettedIntSection section = new PalettedIntSection(palette[0]);
+        if (palette.length == 1)
+        {
+            return section;
+        }
+        try
+        {
+            section.storage = new SimpleBitStorage(bitsFor(palette.length), SIZE, data);
+        } catch (SimpleBitStorage.InitializationException | NullPointerException e)
+        {
+            LaserUtils.LOGGER.warn("Discarding malformed paletted section data: {}", e.getMessage());
+            return new PalettedIntSection(defaultValue);
+        }
+        final int[] maxPaletteIndex = {0};
+        section.storage.getAll(paletteIndex -> maxPaletteIndex[0] = Math.max(maxPaletteIndex[0], paletteIndex));
+        if (maxPaletteIndex[0] >= palette.length) // The bits per block can hold indices past the end of the palette
+        {
+            LaserUtils.LOGGER.warn("Discarding malformed paletted section data: palette index {} is out of bounds for palette size {}", maxPaletteIndex[0], palette.length);
+            return new PalettedIntSection(defaultValue);
+        }
+        section.palette = palette;
+        section.paletteSize = palette.length;
+        section.paletteIndices.clear();
+        for (int i = 0; i < palette.length; i++)
+        {
+            section.paletteIndices.put(palette[i], i);
+        }
+        return section;
+    }
+
+    /**
+     * Gets the palette index of a value, adding it to the palette and growing the storage if it is not present
+     * @param value The value to get the palette index of
+     * @return The palette index of the value
+     */
+    private int paletteIndexOrAdd(int value)
+    {
+        int paletteIndex = this.paletteIndices.get(value);
+        if (paletteIndex != -1)
+        {
+            return paletteIndex;
+        }
+        if (this.paletteSize >= SIZE)
+        {
+            this.compact(); // Values that keep changing would otherwise grow the palette without bound between saves
+        }
+        if (this.paletteSize == this.palette.length)
+        {
+            this.palette = Arrays.copyOf(this.palette, this.palette.length * 2);
+        }
+        paletteIndex = this.paletteSize++;
+        this.palette[paletteIndex] = value;
+        this.paletteIndices.put(value, paletteIndex);
+
+        final int bits = bitsFor(this.paletteSize);
+        if (this.storage == null)
+        {
+            this.storage = new SimpleBitStorage(bits, SIZE); // Every block starts at index 0, the previous uniform value
+        } else if (bits > this.storage.getBits())
+        {
+            final SimpleBitStorage oldStorage = this.storage;
+            this.storage = new SimpleBitStorage(bits, SIZE);
+            for (int i = 0; i < SIZE; i++)
+            {
+                this.storage.set(i, oldStorage.get(i));
+            }
+        }
+        return paletteIndex;
+    }
+
+    /**
+     * Gets the amount of bits needed to store an index of the palette
+     * @param paletteSize The size of the palette
+     * @return The amount of bits per block. Always at least 1
+     */
+    private static int bitsFor(int paletteSize)
+    {
+        return Math.max(1, Mth.ceillog2(paletteSize));
+    }
+}
@@ -0,0 +1,101 @@
+package net.laserdiamond.laserutils.client;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.laserdiamond.laserutils.LaserUtils;
+import net.laserdiamond.laserutils.item.equipment.tools.AbilityItem;
+import net.laserdiamond.laserutils.item.equipment.tools.DurationAbilityItem;
+import net.laserdiamond.laserutils.network.ItemAbilityPacket;
+import net.laserdiamond.laserutils.network.ItemAbilityResultS2CPacket;
+import net.laserdiamond.laserutils.network.NetworkPackets;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.world.item.Item;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.client.event.InputEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Keeps track of ability activations the client has predicted, but the server has not yet confirmed.
+ * When the ability key is pressed, the item's cooldown and {@link AbilityItem#onClient(InputEvent.Key)} are applied right away, instead of after a round trip to the server.
+ * The server then answers with an {@link ItemAbilityResultS2CPacket}, and rejected predictions are rolled back.
+ * <p>Only accessed from the client thread</p>
+ */
+public final class AbilityPredictions {
+
+    /**
+     * The predicted items waiting on a result from the server, mapped by their sequence number
+     */
+    private static final Int2ObjectOpenHashMap<Item> PENDING = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * The amount of sequence numbers after which a prediction without a result is forgotten
+     */
+    private static final int MAX_PENDING = 64;
+
+    /**
+     * The last sequence number sent to the server. 0 is reserved for unpredicted requests
+     */
+    private static int lastSequence;
+
+    private AbilityPredictions() {}
+
+    /**
+     * Predicts the activation of an {@link AbilityItem}, and sends the request to the server
+     * @param localPlayer The {@link LocalPlayer} activating the ability
+     * @param abilityItem The {@link AbilityItem} being activated
+     * @param event The {@link InputEvent.Key} that activated the ability
+     */
+    static void predict(LocalPlayer localPlayer, AbilityItem abilityItem, InputEvent.Key event)
+    {
+        final Item item = localPlayer.getMainHandItem().getItem();
+        lastSequence = lastSequence == Integer.MAX_VALUE ? 1 : lastSequence + 1;
+        PENDING.put(lastSequence, item);
+        PENDING.remove(lastSequence - MAX_PENDING); // Requests the server dropped without a reply never get a result
+
+        final int cooldown = abilityItem instanceof DurationAbilityItem durationAbilityItem ? durationAbilityItem.abilityDurationTicks() + durationAbilityItem.cooldownTicks() : abilityItem.cooldownTicks();
+        localPlayer.getCooldowns().addCooldown(item, cooldown); // The server's cooldown replaces this one once it arrives
+        abilityItem.onClient(event);
+        NetworkPackets.sendToServer(NetworkPackets.INSTANCE, new ItemAbilityPacket(lastSequence));
+    }
+
+    /**
+     * Confirms or rolls back a predicted ability activation
+     * @param localPlayer The {@link LocalPlayer}
+     * @param sequence The sequence number of the prediction
+     * @param result The {@link ItemAbilityResultS2CPacket.Result} sent by the server
+     */
+    public static void reconcile(LocalPlayer localPlayer, int sequence, ItemAbilityResultS2CPacket.Result result)
+    {
+        final Item item = PENDING.remove(sequence);
+        if (item == null || result == ItemAbilityResultS2CPacket.Result.ACCEPTED)
+        {
+            return;
+        }
+        if (result != ItemAbilityResultS2CPacket.Result.ON_COOLDOWN)
+        {
+            localPlayer.getCooldowns().removeCooldown(item); // The server never started a cooldown for this activation
+        }
+        if (item instanceof AbilityItem abilityItem)
+        {
+            abilityItem.onClientRejected(localPlayer, result);
+        }
+    }
+
+    /**
+     * Prediction events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID, value = Dist.CLIENT)
+    public static class PredictionEvents
+    {
+        /**
+         * Clears every pending prediction, as their results will never arrive
+         * @param event The {@link ClientPlayerNetworkEvent.LoggingOut} event to listen for
+         */
+        @SubscribeEvent
+        public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event)
+        {
+            PENDING.clear();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package net.laserdiamond.laserutils.client;
+
+import net.laserdiamond.laserutils.LaserUtils;
+import net.laserdiamond.laserutils.entity.lu.mobs.AbstractMonster;
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RenderLivingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Lowers the rate of animation state updates of {@link AbstractMonster}s the player can't see well, for monsters that {@linkplain AbstractMonster#usesAnimationLevelOfDetail() opt in}.
+ * Monsters that were not rendered during the last tick skip their updates entirely, and monsters past the {@linkplain #setFarDistance(double) far distance}
+ * only update every {@linkplain #setFarInterval(int) far interval} ticks. A monster that was skipped catches up in one step right before it is rendered again.
+ * <p>Only accessed from the client thread</p>
+ * @see AbstractMonster#setUpAnimationStates()
+ */
+public final class AnimationLevelOfDetail {
+
+    /**
+     * The squared distance from the camera past which monsters are far
+     */
+    private static double farDistanceSqr = 48 * 48;
+
+    /**
+     * The amount of ticks between animation state updates of far monsters
+     */
+    private static int farInterval = 4;
+
+    private AnimationLevelOfDetail() {}
+
+    /**
+     * Sets the distance from the camera past which monsters update their animation states less often. Defaults to 48 blocks
+     * @param farDistance The distance in blocks
+     * @throws IllegalArgumentException If the distance is less than 0
+     */
+    public static void setFarDistance(double farDistance) throws IllegalArgumentException
+    {
+        if (farDistance < 0)
+        {
+            throw new IllegalArgumentException("Far distance cannot be less than 0! Value offered: " + farDistance);
+        }
+        farDistanceSqr = farDistance * farDistance;
+    }
+
+    /**
+     * Sets the amount of ticks between animation state updates of far monsters. Defaults to 4 ticks
+     * @param farInterval The interval in ticks. 1 updates far monsters every tick
+     * @throws IllegalArgumentException If the interval is less than 1
+     */
+    public static void setFarInterval(int farInterval) throws IllegalArgumentException
+    {
+        if (farInterval < 1)
+        {
+            throw new IllegalArgumentException("Far interval must be at least 1 tick! Value offered: " + farInterval);
+        }
+        AnimationLevelOfDetail.farInterval = farInterval;
+    }
+
+    /**
+     * Animation level of detail events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID, value = Dist.CLIENT)
+    public static class LevelOfDetailEvents
+    {
+        /**
+         * Stamps a monster as rendered, and catches up its animation states if they were skipped
+         * @param event The {@link RenderLivingEvent.Pre} event to listen for
+         */
+        @SubscribeEvent
+        public static void onRenderLiving(RenderLivingEvent.Pre<?, ?> event)
+        {
+            if (event.getEntity() instanceof AbstractMonster<?> abstractMonster)
+            {
+                final double distanceSqr = Minecraft.getInstance().gameRenderer.getMainCamera().getPosition().distanceToSqr(abstractMonster.position());
+                abstractMonster.markRendered(distanceSqr > farDistanceSqr ? farInterval : 1);
+            }
+        }
+    }
+}
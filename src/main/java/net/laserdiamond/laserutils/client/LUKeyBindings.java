@@ -5,8 +5,6 @@ import net.laserdiamond.laserutils.LaserUtils;
 import net.laserdiamond.laserutils.event.OnAbilityKeyPressEvent;
 import net.laserdiamond.laserutils.item.equipment.tools.AbilityItem;
 import net.laserdiamond.laserutils.item.equipment.tools.DurationAbilityItem;
-import net.laserdiamond.laserutils.network.ItemAbilityPacket;
-import net.laserdiamond.laserutils.network.NetworkPackets;
 import net.laserdiamond.laserutils.util.registry.LanguageRegistry;
 import net.minecraft.client.KeyMapping;
 import net.minecraft.client.Minecraft;
@@ -111,8 +109,7 @@ public class LUKeyBindings {
                     }
                     if (!localPlayer.getCooldowns().isOnCooldown(localPlayer.getMainHandItem().getItem()) && abilityItem.additionalConditions(event))
                     {
-                        abilityItem.onClient(event);
-                        NetworkPackets.sendToServer(NetworkPackets.INSTANCE, new ItemAbilityPacket());
+                        AbilityPredictions.predict(localPlayer, abilityItem, event);
                     }
                 } else if (localPlayer.getMainHandItem().getItem() instanceof AbilityItem abilityItem)
                 {
@@ -122,8 +119,7 @@ public class LUKeyBindings {
                     }
                     if (!localPlayer.getCooldowns().isOnCooldown(localPlayer.getMainHandItem().getItem()) && abilityItem.additionalConditions(event))
                     {
-                        abilityItem.onClient(event);
-                        NetworkPackets.sendToServer(NetworkPackets.INSTANCE, new ItemAbilityPacket());
+                        AbilityPredictions.predict(localPlayer, abilityItem, event);
                     }
                 }
             }
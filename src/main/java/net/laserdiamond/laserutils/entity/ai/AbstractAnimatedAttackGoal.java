@@ -68,7 +68,7 @@ public abstract class AbstractAnimatedAttackGoal<M extends Mob & AttackingEntity
      */
     protected void onAttackAnimationStart()
     {
-        this.mob.setAttacking(attackDataAccessor(), true);
+        this.setAttacking(true);
     }
 
     /**
@@ -79,7 +79,7 @@ public abstract class AbstractAnimatedAttackGoal<M extends Mob & AttackingEntity
      */
     protected void endAttack(LivingEntity target, ServerLevel serverLevel, int attackTimer)
     {
-        this.mob.setAttacking(this.attackDataAccessor(), false);
+        this.setAttacking(false);
     }
 
     /**
@@ -94,7 +94,8 @@ public abstract class AbstractAnimatedAttackGoal<M extends Mob & AttackingEntity
     }
 
     /**
-     * Runs every tick the attack goal is active
+     * Runs every tick the attack goal is active.
+     * While the mob is far from every player, the goal is only evaluated every few ticks, and the attack timers are advanced by the ticks that were skipped
      */
     @Override
     public void tick()
@@ -102,21 +103,26 @@ public abstract class AbstractAnimatedAttackGoal<M extends Mob & AttackingEntity
         final LivingEntity target = this.mob.getTarget();
         if (!this.mob.level().isClientSide)
         {
-            final ServerLevel serverLevel = this.mob.getServer().getLevel(this.mob.level().dimension());
             if (target == null)
             {
                 return; // End method, since the mob doesn't have a target
             }
+            final int goalTicks = this.evaluateLevelOfDetail();
+            if (goalTicks == 0)
+            {
+                return; // Skipped by the level of detail
+            }
+            final ServerLevel serverLevel = (ServerLevel) this.mob.level();
 
             if (this.isTargetValid(target)) // Determine if target is in range
             { // In range
-                this.ticksUntilNextAttack = Math.max(this.ticksUntilNextAttack - 1, 0); // Count down ticks until next attack
+                this.ticksUntilNextAttack = Math.max(this.ticksUntilNextAttack - goalTicks, 0); // Count down ticks until next attack
 
                 if (this.isTimeToStartAttackAnimation()) // Time to start animation?
                 {
                     this.onAttackAnimationStart(); // Start animation
 
-                    this.attackTimer++; // Increment timer
+                    this.attackTimer += goalTicks; // Increment timer
                     if (this.isTimeToStartAttack(this.attackTimer, this.attackStartTime)) // Time to perform attack?
                     {
                         if (!this.hasAttackEnded) // Check if the attack has ended
@@ -139,7 +145,7 @@ public abstract class AbstractAnimatedAttackGoal<M extends Mob & AttackingEntity
             } else // Not in range
             {
                 this.onAttackAnimationEnd(); // Animation should end
-                this.mob.setAttacking(this.attackDataAccessor(), false);
+                this.setAttacking(false);
             }
         }
     }
@@ -147,7 +153,7 @@ public abstract class AbstractAnimatedAttackGoal<M extends Mob & AttackingEntity
     @Override
     public boolean isTimeToStartAttackAnimation()
     {
-        return this.ticksUntilNextAttack <= 0;
+        return this.ticksUntilNextAttack <= 0 && (this.attackTimer > 0 || GroupCoordinator.isAttackSlotOpen(this.mob)); // Mobs in a group wait for their attack slot to start a new attack
     }
 
     public void resetAttackCooldown()
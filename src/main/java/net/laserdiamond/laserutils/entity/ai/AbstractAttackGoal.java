@@ -13,7 +13,7 @@ import net.minecraft.world.entity.player.Player;
  * @param <M> The {@link Mob} class
  * @see AbstractAnimatedAttackGoal
  */
-public abstract class AbstractAttackGoal<M extends Mob & AttackingEntity<M>> extends Goal implements DataAccessorAttack {
+public abstract class AbstractAttackGoal<M extends Mob & AttackingEntity<M>> extends Goal implements DataAccessorAttack, SpatialAttack {
 
     /**
      * The {@link M} performing the attack goal
@@ -30,6 +30,16 @@ public abstract class AbstractAttackGoal<M extends Mob & AttackingEntity<M>> ext
      */
     protected final int interval;
 
+    /**
+     * The {@link AiLevelOfDetail} of the goal, which skips goal ticks while the mob is far from every player
+     */
+    protected final AiLevelOfDetail levelOfDetail;
+
+    /**
+     * Determines if the attack interval was reached, and the attack is waiting for the mob's {@linkplain GroupCoordinator attack slot}
+     */
+    private boolean attackDue;
+
     /**
      * Creates a new {@link AbstractAttackGoal}
      * @param mob The {@link M} that will perform the attack goal
@@ -39,6 +49,7 @@ public abstract class AbstractAttackGoal<M extends Mob & AttackingEntity<M>> ext
         this.mob = mob;
         this.attackTimer = 0;
         this.interval = 0;
+        this.levelOfDetail = new AiLevelOfDetail();
     }
 
     /**
@@ -51,6 +62,7 @@ public abstract class AbstractAttackGoal<M extends Mob & AttackingEntity<M>> ext
         this.mob = mob;
         this.attackTimer = 0;
         this.interval = Math.max(0, interval);
+        this.levelOfDetail = new AiLevelOfDetail();
     }
 
     /**
@@ -88,11 +100,13 @@ public abstract class AbstractAttackGoal<M extends Mob & AttackingEntity<M>> ext
     public void start() {
         super.start();
         this.mob.setAggressive(true);
-        this.mob.setAttacking(this.attackDataAccessor(), false);
+        this.setAttacking(false);
+        this.levelOfDetail.reset();
     }
 
     /**
-     * Runs every tick the {@link AbstractAttackGoal} is active
+     * Runs every tick the {@link AbstractAttackGoal} is active.
+     * While the mob is far from every player, the goal is only evaluated every few ticks, and the attack timer is advanced by the ticks that were skipped
      */
     @Override
     public void tick()
@@ -100,21 +114,86 @@ public abstract class AbstractAttackGoal<M extends Mob & AttackingEntity<M>> ext
         final LivingEntity target = this.mob.getTarget();
         if (!this.mob.level().isClientSide)
         {
-            final ServerLevel serverLevel = this.mob.getServer().getLevel(this.mob.level().dimension());
-            if (serverLevel == null)
+            final int goalTicks = this.evaluateLevelOfDetail();
+            if (goalTicks == 0)
+            {
+                return; // Skipped by the level of detail
+            }
+            final ServerLevel serverLevel = (ServerLevel) this.mob.level();
+            this.setAttacking(target != null);
+            this.attackTimer += goalTicks;
+            if (this.isIntervalReached())
             {
-                return;
+                this.attackDue = true;
             }
-            this.mob.setAttacking(this.attackDataAccessor(), target != null);
-            this.attackTimer++;
-            if ((this.mob.tickCount % this.interval == 0) && this.isTargetValid(target))
+            if (this.attackDue && GroupCoordinator.isAttackSlotOpen(this.mob)) // Mobs in a group wait for their attack slot
             {
-                this.attack(this.mob, target, serverLevel, this.attackTimer);
-                this.attackTimer = 0;
+                this.attackDue = false;
+                if (this.isTargetValid(target))
+                {
+                    this.attack(this.mob, target, serverLevel, this.attackTimer);
+                    this.attackTimer = 0;
+                }
             }
         }
     }
 
+    /**
+     * Determines if the goal should be evaluated this tick
+     * @return The amount of goal ticks to advance the goal's timers by. 0 if the goal should not be evaluated this tick
+     */
+    protected final int evaluateLevelOfDetail()
+    {
+        return this.usesLevelOfDetail() ? this.levelOfDetail.evaluate(this.mob) : 1;
+    }
+
+    /**
+     * Determines if the goal is evaluated less often while the mob is far from every player.
+     * Should be overridden to return false by goals whose timing must stay exact, such as goals of bosses that players can observe from far away
+     * @return True if the goal uses the {@link AiLevelOfDetail}, false otherwise. Defaults to true
+     */
+    protected boolean usesLevelOfDetail()
+    {
+        return true;
+    }
+
+    /**
+     * Determines if the mob's tick count passed a multiple of the interval since the last evaluation. Always true if the interval is 0
+     * @return True if the attack interval was reached, false otherwise
+     */
+    private boolean isIntervalReached()
+    {
+        if (this.interval <= 0)
+        {
+            return true;
+        }
+        final int tick = this.mob.tickCount;
+        final int previousTick = tick - this.levelOfDetail.elapsedGameTicks();
+        return Math.floorDiv(tick, this.interval) != Math.floorDiv(previousTick, this.interval);
+    }
+
+    /**
+     * Sets the attacking state of the mob for this goal's attack, through the goal's {@link #attack()} if it has one, or its {@link #attackDataAccessor()} otherwise
+     * @param attacking The state of attacking. Set to true if the mob is attacking, false otherwise
+     */
+    protected final void setAttacking(boolean attacking)
+    {
+        final AttackSetUp attack = this.attack();
+        if (attack != null)
+        {
+            this.mob.setAttacking(attack, attacking);
+        } else
+        {
+            this.mob.setAttacking(this.attackDataAccessor(), attacking);
+        }
+    }
+
+    @Override
+    public Mob attackingMob()
+    {
+        return this.mob;
+    }
+
     /**
      * Called when the goal has stopped
      */
@@ -122,7 +201,7 @@ public abstract class AbstractAttackGoal<M extends Mob & AttackingEntity<M>> ext
     public void stop() {
         super.stop();
         this.mob.setAggressive(false);
-        this.mob.setAttacking(this.attackDataAccessor(), false);
+        this.setAttacking(false);
     }
 
     /**
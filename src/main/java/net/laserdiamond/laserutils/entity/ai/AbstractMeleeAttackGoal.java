@@ -1,17 +1,21 @@
 package net.laserdiamond.laserutils.entity.ai;
 
 import net.laserdiamond.laserutils.entity.lu.mobs.AttackingEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
 import net.minecraft.world.entity.PathfinderMob;
 import net.minecraft.world.entity.ai.goal.MeleeAttackGoal;
+import net.minecraft.world.entity.ai.navigation.GroundPathNavigation;
 
 /**
  * Used as a base for mobs that require melee attack goals.
  * Allows the subclass to define how, when, and why a melee attack should happen
  * @param <PM> The {@link PathfinderMob} and {@link AttackingEntity} class
  */
-public abstract class AbstractMeleeAttackGoal<PM extends PathfinderMob & AttackingEntity<PM>> extends MeleeAttackGoal implements DelayedAnimatedAttack {
+public abstract class AbstractMeleeAttackGoal<PM extends PathfinderMob & AttackingEntity<PM>> extends MeleeAttackGoal implements DelayedAnimatedAttack, SpatialAttack {
 
     /**
      * The {@link PM} performing the attack goal
@@ -33,6 +37,32 @@ public abstract class AbstractMeleeAttackGoal<PM extends PathfinderMob & Attacki
      */
     protected boolean shouldCountTillNextAttack = false;
 
+    /**
+     * Determines if the {@link PM} was given its group's attack slot for the next attack. Latched once the countdown reaches the start of the attack animation and the slot is open,
+     * and cleared when the attack cooldown resets
+     */
+    private boolean attackSlotGranted;
+
+    /**
+     * The speed modifier of the {@link PM} when the goal is active
+     */
+    protected final double speedModifier;
+
+    /**
+     * Determines if the {@link PM} should continue chasing its target if it is not in direct sight
+     */
+    protected final boolean followingTargetEvenIfNotSeen;
+
+    /**
+     * Determines if the {@link PM} steered with a {@link FlowField} last tick
+     */
+    private boolean steeringWithFlowField;
+
+    /**
+     * The next position to step to, reused every tick
+     */
+    private final BlockPos.MutableBlockPos nextStep = new BlockPos.MutableBlockPos();
+
     /**
      * Creates a new {@link AbstractMeleeAttackGoal}
      * @param pMob The {@link PM} that will perform the attack goal
@@ -42,6 +72,9 @@ public abstract class AbstractMeleeAttackGoal<PM extends PathfinderMob & Attacki
     public AbstractMeleeAttackGoal(PM pMob, double pSpeedModifier, boolean pFollowingTargetEvenIfNotSeen) {
         super(pMob, pSpeedModifier, pFollowingTargetEvenIfNotSeen);
         this.mob = pMob;
+        this.speedModifier = pSpeedModifier;
+        this.followingTargetEvenIfNotSeen = pFollowingTargetEvenIfNotSeen;
+        this.steeringWithFlowField = false;
     }
 
     /**
@@ -52,26 +85,119 @@ public abstract class AbstractMeleeAttackGoal<PM extends PathfinderMob & Attacki
         super.start();
         this.attackDelay = this.attackDelay(); // Set the attack delay
         this.ticksUntilNextAttack = this.ticksUntilNextAttack(); // Set the ticks until the next attack
+        this.attackSlotGranted = false;
     }
 
     /**
-     * Runs every tick the {@link AbstractMeleeAttackGoal} is active
+     * Runs every tick the {@link AbstractMeleeAttackGoal} is active.
+     * The {@link PM} steers with the {@link FlowField} shared by every mob chasing the same target, and falls back to its own path if it is outside the field or can't reach the target through it
      */
     @Override
     public void tick() {
-        super.tick();
+        final LivingEntity target = this.mob.getTarget();
+        if (target != null && this.steerWithFlowField(target))
+        {
+            this.mob.getLookControl().setLookAt(target, 30.0F, 30.0F);
+            this.checkAndPerformAttack(target);
+        } else
+        {
+            if (this.steeringWithFlowField)
+            {
+                this.steeringWithFlowField = false;
+                this.mob.getNavigation().stop(); // Let the vanilla goal compute a fresh path
+            }
+            super.tick();
+        }
         if (this.shouldCountTillNextAttack)
         {
-            this.ticksUntilNextAttack = Math.max(this.ticksUntilNextAttack - 1, 0);
+            if (!this.attackSlotGranted && this.ticksUntilNextAttack <= this.attackDelay + 1)
+            {
+                this.attackSlotGranted = GroupCoordinator.isAttackSlotOpen(this.mob); // Mobs in a group wait for their attack slot to start the attack animation
+            }
+            if (this.attackSlotGranted || this.ticksUntilNextAttack > this.attackDelay + 1)
+            {
+                this.ticksUntilNextAttack = Math.max(this.ticksUntilNextAttack - 1, 0);
+            }
         }
     }
 
+    /**
+     * Sets the attacking state of the mob for this goal's attack, through the goal's {@link #attack()} if it has one, or its {@link #attackDataAccessor()} otherwise
+     * @param attacking The state of attacking. Set to true if the mob is attacking, false otherwise
+     */
+    protected final void setAttacking(boolean attacking)
+    {
+        final AttackSetUp attack = this.attack();
+        if (attack != null)
+        {
+            this.mob.setAttacking(attack, attacking);
+        } else
+        {
+            this.mob.setAttacking(this.attackDataAccessor(), attacking);
+        }
+    }
+
+    @Override
+    public Mob attackingMob()
+    {
+        return this.mob;
+    }
+
+    /**
+     * Determines if the goal steers with the {@link FlowFieldCache} instead of computing its own path, while enough mobs chase the same target for the cache to compute a field.
+     * Only mobs using ground navigation that follow their target even if it is not seen can steer with a flow field,
+     * as the vanilla goal stops once the navigation is done otherwise
+     * @return True if the goal uses flow fields, false otherwise. Defaults to true
+     */
+    protected boolean usesFlowField()
+    {
+        return true;
+    }
+
+    /**
+     * Steers the {@link PM} one step along the {@link FlowField} toward its target
+     * @param target The {@link LivingEntity} target of the {@link PM}
+     * @return True if the {@link PM} was steered, false if it should use its own path
+     */
+    private boolean steerWithFlowField(LivingEntity target)
+    {
+        if (!this.usesFlowField() || !this.followingTargetEvenIfNotSeen || !(this.mob.level() instanceof ServerLevel serverLevel) || !(this.mob.getNavigation() instanceof GroundPathNavigation))
+        {
+            return false; // Without following the target, stopping the navigation would stop the goal
+        }
+        final FlowField flowField = FlowFieldCache.of(serverLevel).get(target);
+        if (flowField == null)
+        {
+            return false;
+        }
+        final BlockPos standingPos = FlowField.findStandable(serverLevel, this.mob.blockPosition());
+        if (standingPos == null || flowField.distance(standingPos) < 0)
+        {
+            return false; // Outside the field, or can't reach the target through it
+        }
+
+        if (!this.steeringWithFlowField)
+        {
+            this.steeringWithFlowField = true;
+            this.mob.getNavigation().stop(); // Don't let the mob's own path fight the flow field
+        }
+        if (flowField.nextStep(standingPos, this.nextStep))
+        {
+            this.mob.getMoveControl().setWantedPosition(this.nextStep.getX() + 0.5, this.nextStep.getY(), this.nextStep.getZ() + 0.5, this.speedModifier);
+        } else
+        {
+            this.mob.getMoveControl().setWantedPosition(target.getX(), target.getY(), target.getZ(), this.speedModifier); // Reached the target's position in the field
+        }
+        return true;
+    }
+
     /**
      * Called when the {@link AbstractMeleeAttackGoal} stops
      */
     @Override
     public void stop() {
-        this.mob.setAttacking(this.attackDataAccessor(), false);
+        this.steeringWithFlowField = false;
+        this.setAttacking(false);
         super.stop();
     }
 
@@ -88,7 +214,7 @@ public abstract class AbstractMeleeAttackGoal<PM extends PathfinderMob & Attacki
 
             if (this.isTimeToStartAttackAnimation())
             {
-                this.mob.setAttacking(this.attackDataAccessor(), true);
+                this.setAttacking(true);
             }
 
             if (this.isTimeToAttack())
@@ -100,7 +226,7 @@ public abstract class AbstractMeleeAttackGoal<PM extends PathfinderMob & Attacki
         {
             this.resetAttackCooldown();
             this.shouldCountTillNextAttack = false;
-            this.mob.setAttacking(this.attackDataAccessor(), false);
+            this.setAttacking(false);
             this.resetAttackAnimationTimeOut();
         }
     }
@@ -113,21 +239,26 @@ public abstract class AbstractMeleeAttackGoal<PM extends PathfinderMob & Attacki
     @Override
     protected void resetAttackCooldown() {
         this.ticksUntilNextAttack = this.adjustedTickDelay(this.attackDelay * 2);
+        this.attackSlotGranted = false;
     }
 
     /**
      * Determines if it is time to perform the attack
-     * @return True if the ticks remaining until the next attack is equal to or less than 0, false otherwise.
+     * @return True if the ticks remaining until the next attack is equal to or less than 0 and the {@link PM} was given its attack slot, false otherwise.
      */
     @Override
     public boolean isTimeToAttack() {
-        return this.ticksUntilNextAttack <= 0;
+        return this.attackSlotGranted && this.ticksUntilNextAttack <= 0;
     }
 
+    /**
+     * Determines if it is time to start the attack animation
+     * @return True if the ticks remaining until the next attack is equal to or less than the attack delay and the {@link PM} was given its attack slot, false otherwise
+     */
     @Override
     public boolean isTimeToStartAttackAnimation()
     {
-        return this.ticksUntilNextAttack <= this.attackDelay;
+        return this.attackSlotGranted && this.ticksUntilNextAttack <= this.attackDelay;
     }
 
     /**
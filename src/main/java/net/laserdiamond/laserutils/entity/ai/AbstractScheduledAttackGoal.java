@@ -0,0 +1,142 @@
+package net.laserdiamond.laserutils.entity.ai;
+
+import net.laserdiamond.laserutils.entity.lu.mobs.AttackingEntity;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+
+/**
+ * Abstract class used to create attack goals whose timing is defined by an {@link AttackPhaseSchedule}.
+ * Unlike {@link AbstractAnimatedAttackGoal}, which checks every timing condition every tick, the goal sleeps until the next phase event of its schedule,
+ * so long wind-ups and cooldowns cost nothing per tick. The target is only checked for validity when the goal wakes up.
+ * <p>The attack is performed at the start of the {@linkplain AttackPhaseSchedule.Phase#HIT_WINDOW hit window},
+ * or on every tick of it if the schedule {@linkplain AttackPhaseSchedule#hitEveryTick() hits every tick}</p>
+ * @param <M> The {@link Mob} class. Said class must also be an inheritor of the {@link AttackingEntity} interface.
+ */
+public abstract class AbstractScheduledAttackGoal<M extends Mob & AttackingEntity<M>> extends AbstractAttackGoal<M> {
+
+    /**
+     * The {@link AttackPhaseSchedule} of the current run of the goal
+     */
+    protected AttackPhaseSchedule schedule;
+
+    /**
+     * The current phase of the attack. Null before the first phase of the cycle
+     */
+    protected AttackPhaseSchedule.Phase currentPhase;
+
+    /**
+     * The time in the attack cycle the goal wakes up on
+     */
+    private int nextWakeTime;
+
+    /**
+     * Creates a new {@link AbstractScheduledAttackGoal}
+     * @param mob The {@link M} to make the attack goal for
+     */
+    public AbstractScheduledAttackGoal(M mob)
+    {
+        super(mob);
+        this.currentPhase = null;
+        this.nextWakeTime = 0;
+    }
+
+    /**
+     * The {@link AttackPhaseSchedule} of the attack. Called every time the goal starts, so the schedule can be reloaded from data
+     * @return The {@link AttackPhaseSchedule} of the attack
+     */
+    protected abstract AttackPhaseSchedule schedule();
+
+    /**
+     * Called when the {@link AbstractScheduledAttackGoal} starts
+     */
+    @Override
+    public void start()
+    {
+        super.start();
+        this.schedule = this.schedule();
+        this.resetCycle();
+    }
+
+    /**
+     * Runs every tick the attack goal is active. Only does work on the ticks a phase event is due
+     */
+    @Override
+    public void tick()
+    {
+        final LivingEntity target = this.mob.getTarget();
+        if (this.mob.level().isClientSide || target == null)
+        {
+            return;
+        }
+        final int goalTicks = this.evaluateLevelOfDetail();
+        if (goalTicks == 0)
+        {
+            return; // Skipped by the level of detail
+        }
+        this.attackTimer += goalTicks;
+        if (this.attackTimer < this.nextWakeTime)
+        {
+            return; // Sleeping until the next phase event
+        }
+
+        if (!this.isTargetValid(target))
+        {
+            this.resetCycle(); // Target out of range, start over once it is back
+            this.setAttacking(false);
+            return;
+        }
+
+        final ServerLevel serverLevel = (ServerLevel) this.mob.level();
+        while (this.attackTimer >= this.nextWakeTime) // Run every event that was due, in case ticks were skipped
+        {
+            final int eventTime = this.nextWakeTime;
+            if (eventTime >= this.schedule.length()) // End of the cycle
+            {
+                this.attackTimer -= this.schedule.length();
+                this.currentPhase = null;
+                this.nextWakeTime = this.schedule.firstEventTick();
+                continue;
+            }
+
+            if (this.currentPhase == null && !GroupCoordinator.isAttackSlotOpen(this.mob))
+            {
+                this.attackTimer = eventTime; // Mobs in a group wait for their attack slot to start a new cycle
+                return;
+            }
+
+            final AttackPhaseSchedule.Phase phase = this.schedule.phaseAt(eventTime);
+            if (phase != this.currentPhase)
+            {
+                this.currentPhase = phase;
+                this.onPhaseStart(phase, target, serverLevel);
+            }
+            if (phase == AttackPhaseSchedule.Phase.HIT_WINDOW)
+            {
+                this.attack(this.mob, target, serverLevel, eventTime);
+            }
+            this.nextWakeTime = phase == AttackPhaseSchedule.Phase.HIT_WINDOW && this.schedule.hitEveryTick() ? eventTime + 1 : this.schedule.nextEventTick(eventTime);
+        }
+    }
+
+    /**
+     * Called when a phase of the attack starts. By default, the mob is attacking in every phase except the {@linkplain AttackPhaseSchedule.Phase#COOLDOWN cooldown}
+     * @param phase The {@link AttackPhaseSchedule.Phase} that started
+     * @param target The {@link LivingEntity} target of the mob
+     * @param serverLevel The {@link ServerLevel} of the mob
+     */
+    protected void onPhaseStart(AttackPhaseSchedule.Phase phase, LivingEntity target, ServerLevel serverLevel)
+    {
+        this.setAttacking(phase != AttackPhaseSchedule.Phase.COOLDOWN);
+    }
+
+    /**
+     * Restarts the attack cycle from its beginning
+     */
+    protected void resetCycle()
+    {
+        this.attackTimer = 0;
+        this.currentPhase = null;
+        this.nextWakeTime = this.schedule.firstEventTick();
+    }
+}
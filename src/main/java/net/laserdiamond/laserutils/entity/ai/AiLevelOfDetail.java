@@ -0,0 +1,162 @@
+package net.laserdiamond.laserutils.entity.ai;
+
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * Decides how often a {@link Mob}'s goal is evaluated, based on the distance to the nearest player.
+ * Mobs near a player are evaluated at full rate, while mobs further away are evaluated every few goal ticks, with their timers advanced by the ticks that were skipped.
+ * <p>Each goal has its own {@link AiLevelOfDetail}. The distance to the nearest player is only looked up once every {@value #DISTANCE_CHECK_INTERVAL} ticks</p>
+ */
+public final class AiLevelOfDetail {
+
+    /**
+     * The amount of ticks between each lookup of the nearest player
+     */
+    private static final int DISTANCE_CHECK_INTERVAL = 20;
+
+    /**
+     * Mobs within this distance of a player are evaluated at full rate
+     */
+    private static double nearDistance = 32;
+
+    /**
+     * Mobs within this distance of a player, but not within the {@link #nearDistance}, are evaluated every {@link #midInterval} goal ticks
+     */
+    private static double midDistance = 64;
+
+    /**
+     * The interval of mobs between the near and mid distance
+     */
+    private static int midInterval = 2;
+
+    /**
+     * The interval of mobs further than the mid distance from every player
+     */
+    private static int farInterval = 4;
+
+    /**
+     * The current interval, in goal ticks
+     */
+    private int interval;
+
+    /**
+     * The tick of the mob to look up the nearest player again
+     */
+    private int nextDistanceCheck;
+
+    /**
+     * The amount of goal ticks since the last evaluation
+     */
+    private int pendingGoalTicks;
+
+    /**
+     * The mob's tick count at the last evaluation. -1 if never evaluated
+     */
+    private int lastEvaluatedTick;
+
+    /**
+     * The amount of game ticks between the last two evaluations
+     */
+    private int elapsedGameTicks;
+
+    /**
+     * Creates a new {@link AiLevelOfDetail}
+     */
+    public AiLevelOfDetail()
+    {
+        this.interval = 1;
+        this.nextDistanceCheck = 0;
+        this.pendingGoalTicks = 0;
+        this.lastEvaluatedTick = -1;
+        this.elapsedGameTicks = 1;
+    }
+
+    /**
+     * Sets the distances at which mobs are evaluated less often
+     * @param nearDistance Mobs within this distance of a player are evaluated every goal tick
+     * @param midDistance Mobs within this distance of a player are evaluated every mid interval. Mobs further away are evaluated every far interval
+     * @throws IllegalArgumentException If the near distance is less than 0, or greater than the mid distance
+     */
+    public static void setDistances(double nearDistance, double midDistance) throws IllegalArgumentException
+    {
+        if (nearDistance < 0 || midDistance < nearDistance)
+        {
+            throw new IllegalArgumentException("AI level of detail distances must be at least 0, and the near distance cannot be greater than the mid distance! Values offered: " + nearDistance + ", " + midDistance);
+        }
+        AiLevelOfDetail.nearDistance = nearDistance;
+        AiLevelOfDetail.midDistance = midDistance;
+    }
+
+    /**
+     * Sets how often mobs away from players are evaluated
+     * @param midInterval The interval in goal ticks of mobs between the near and mid distance
+     * @param farInterval The interval in goal ticks of mobs further than the mid distance
+     * @throws IllegalArgumentException If either interval is less than 1
+     */
+    public static void setIntervals(int midInterval, int farInterval) throws IllegalArgumentException
+    {
+        if (midInterval < 1 || farInterval < 1)
+        {
+            throw new IllegalArgumentException("AI level of detail intervals must be at least 1! Values offered: " + midInterval + ", " + farInterval);
+        }
+        AiLevelOfDetail.midInterval = midInterval;
+        AiLevelOfDetail.farInterval = farInterval;
+    }
+
+    /**
+     * Called every goal tick to determine if the goal should be evaluated
+     * @param mob The {@link Mob} running the goal. Must be on the logical server
+     * @return The amount of goal ticks to advance the goal's timers by, including the ticks that were skipped. 0 if the goal should not be evaluated this tick
+     */
+    public int evaluate(Mob mob)
+    {
+        if (mob.tickCount >= this.nextDistanceCheck)
+        {
+            this.nextDistanceCheck = mob.tickCount + DISTANCE_CHECK_INTERVAL;
+            this.interval = intervalFor(mob);
+        }
+        this.pendingGoalTicks++;
+        if (this.pendingGoalTicks < this.interval)
+        {
+            return 0;
+        }
+        final int goalTicks = this.pendingGoalTicks;
+        this.pendingGoalTicks = 0;
+        this.elapsedGameTicks = this.lastEvaluatedTick < 0 ? 1 : Math.max(1, mob.tickCount - this.lastEvaluatedTick);
+        this.lastEvaluatedTick = mob.tickCount;
+        return goalTicks;
+    }
+
+    /**
+     * @return The amount of game ticks between the last evaluation and the one before it
+     */
+    public int elapsedGameTicks()
+    {
+        return this.elapsedGameTicks;
+    }
+
+    /**
+     * Resets the pending ticks, so the next goal tick is always evaluated. Should be called when the goal starts
+     */
+    public void reset()
+    {
+        this.pendingGoalTicks = Math.max(0, this.interval - 1); // evaluate() counts the next goal tick before comparing
+        this.lastEvaluatedTick = -1;
+    }
+
+    /**
+     * Gets the interval of a {@link Mob} from its distance to the nearest player
+     * @param mob The {@link Mob}
+     * @return The interval in goal ticks
+     */
+    private static int intervalFor(Mob mob)
+    {
+        final Player player = mob.level().getNearestPlayer(mob, midDistance);
+        if (player == null)
+        {
+            return farInterval;
+        }
+        return mob.distanceToSqr(player) <= nearDistance * nearDistance ? 1 : midInterval;
+    }
+}
@@ -0,0 +1,294 @@
+package net.laserdiamond.laserutils.entity.ai;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.util.ExtraCodecs;
+import net.minecraft.util.StringRepresentable;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A precompiled timeline of the phases of an attack, used by {@link AbstractScheduledAttackGoal} to only wake up on the ticks a phase starts.
+ * Each phase event is packed into one int as its tick and phase, and the events are stored sorted in a single array.
+ * <p>Schedules can be created with a {@link Builder}, or loaded from JSON with the {@link #CODEC}:</p>
+ * <pre>{@code
+ *
+ * {
+ *     "length": 40,
+ *     "phases": {
+ *         "wind_up": 0,
+ *         "hit_window": 12,
+ *         "recovery": 16,
+ *         "cooldown": 24
+ *     },
+ *     "hit_every_tick": false
+ * }
+ *
+ * }</pre>
+ */
+public final class AttackPhaseSchedule {
+
+    /**
+     * The amount of bits used to store the phase of an event
+     */
+    private static final int PHASE_BITS = 2;
+
+    /**
+     * The mask of the phase of an event
+     */
+    private static final int PHASE_MASK = (1 << PHASE_BITS) - 1;
+
+    /**
+     * The {@link Codec} of an {@link AttackPhaseSchedule}
+     */
+    public static final Codec<AttackPhaseSchedule> CODEC = RecordCodecBuilder.<AttackPhaseSchedule>create(instance -> instance.group(
+            ExtraCodecs.POSITIVE_INT.fieldOf("length").forGetter(AttackPhaseSchedule::length),
+            Codec.unboundedMap(Phase.CODEC, ExtraCodecs.NON_NEGATIVE_INT).fieldOf("phases").forGetter(AttackPhaseSchedule::phaseStarts),
+            Codec.BOOL.optionalFieldOf("hit_every_tick", false).forGetter(AttackPhaseSchedule::hitEveryTick)
+    ).apply(instance, AttackPhaseSchedule::new)).validate(AttackPhaseSchedule::validate);
+
+    /**
+     * The phase events, each packed as the tick shifted left by {@link #PHASE_BITS} with the phase's ordinal in the low bits, in ascending order
+     */
+    private final int[] events;
+
+    /**
+     * The length of one attack cycle in ticks
+     */
+    private final int length;
+
+    /**
+     * Determines if the goal should wake up on every tick of the hit window, instead of only at its start
+     */
+    private final boolean hitEveryTick;
+
+    /**
+     * Creates a new {@link AttackPhaseSchedule}. Does not validate the schedule
+     * @param length The length of one attack cycle in ticks
+     * @param phaseStarts The start tick of each phase in the schedule
+     * @param hitEveryTick Determines if the hit window wakes up the goal every tick
+     */
+    private AttackPhaseSchedule(int length, Map<Phase, Integer> phaseStarts, boolean hitEveryTick)
+    {
+        this.length = length;
+        this.hitEveryTick = hitEveryTick;
+        this.events = new int[phaseStarts.size()];
+        int i = 0;
+        for (Map.Entry<Phase, Integer> entry : phaseStarts.entrySet())
+        {
+            this.events[i++] = (entry.getValue() << PHASE_BITS) | entry.getKey().ordinal();
+        }
+        Arrays.sort(this.events);
+    }
+
+    /**
+     * Creates a new {@link Builder}
+     * @param length The length of one attack cycle in ticks
+     * @return A new {@link Builder}
+     */
+    public static Builder builder(int length)
+    {
+        return new Builder(length);
+    }
+
+    /**
+     * Validates an {@link AttackPhaseSchedule}
+     * @param schedule The {@link AttackPhaseSchedule} to validate
+     * @return A successful {@link DataResult} of the schedule, or an error if the schedule has no phases, or a phase starts outside the attack cycle
+     */
+    private static DataResult<AttackPhaseSchedule> validate(AttackPhaseSchedule schedule)
+    {
+        if (schedule.length <= 0)
+        {
+            return DataResult.error(() -> "Attack phase schedule length must be greater than 0! Value offered: " + schedule.length);
+        }
+        if (schedule.events.length == 0)
+        {
+            return DataResult.error(() -> "Attack phase schedule must have at least one phase!");
+        }
+        final int lastTick = schedule.events[schedule.events.length - 1] >> PHASE_BITS;
+        if (lastTick >= schedule.length)
+        {
+            return DataResult.error(() -> "Attack phases must start before the end of the attack cycle! Phase start offered: " + lastTick + ", cycle length: " + schedule.length);
+        }
+        return DataResult.success(schedule);
+    }
+
+    /**
+     * @return The length of one attack cycle in ticks
+     */
+    public int length()
+    {
+        return this.length;
+    }
+
+    /**
+     * @return True if the goal wakes up every tick of the hit window, false if it only wakes up at its start
+     */
+    public boolean hitEveryTick()
+    {
+        return this.hitEveryTick;
+    }
+
+    /**
+     * @return The tick of the first phase event of the cycle
+     */
+    public int firstEventTick()
+    {
+        return this.events[0] >> PHASE_BITS;
+    }
+
+    /**
+     * Gets the tick of the first phase event after a tick
+     * @param tick The tick in the attack cycle
+     * @return The tick of the next phase event, or the {@link #length()} of the cycle if there is none
+     */
+    public int nextEventTick(int tick)
+    {
+        final int index = this.indexAfter(tick);
+        return index < this.events.length ? this.events[index] >> PHASE_BITS : this.length;
+    }
+
+    /**
+     * Gets the phase the attack is in at a tick
+     * @param tick The tick in the attack cycle
+     * @return The {@link Phase} at the tick, or null if the tick is before the first phase
+     */
+    public Phase phaseAt(int tick)
+    {
+        final int index = this.indexAfter(tick) - 1;
+        return index < 0 ? null : Phase.VALUES[this.events[index] & PHASE_MASK];
+    }
+
+    /**
+     * Gets the start tick of each phase of the schedule
+     * @return A {@link Map} of the start tick of each {@link Phase} in the schedule
+     */
+    public Map<Phase, Integer> phaseStarts()
+    {
+        final Map<Phase, Integer> phaseStarts = new EnumMap<>(Phase.class);
+        for (int event : this.events)
+        {
+            phaseStarts.put(Phase.VALUES[event & PHASE_MASK], event >> PHASE_BITS);
+        }
+        return phaseStarts;
+    }
+
+    /**
+     * Gets the index of the first event after a tick
+     * @param tick The tick in the attack cycle
+     * @return The index of the first event whose tick is greater than the tick
+     */
+    private int indexAfter(int tick)
+    {
+        final int index = Arrays.binarySearch(this.events, (tick << PHASE_BITS) | PHASE_MASK);
+        return index >= 0 ? index + 1 : -(index + 1);
+    }
+
+    /**
+     * The phases of an attack
+     */
+    public enum Phase implements StringRepresentable
+    {
+        /**
+         * The attack is being prepared. The attack animation starts here
+         */
+        WIND_UP ("wind_up"),
+        /**
+         * The attack can hit its target
+         */
+        HIT_WINDOW ("hit_window"),
+        /**
+         * The attack has hit, and the attack animation is finishing
+         */
+        RECOVERY ("recovery"),
+        /**
+         * The attack is over, and the mob waits for the next cycle
+         */
+        COOLDOWN ("cooldown");
+
+        /**
+         * The {@link Codec} of a {@link Phase}
+         */
+        public static final Codec<Phase> CODEC = StringRepresentable.fromEnum(Phase::values);
+
+        /**
+         * Every {@link Phase}, indexed by ordinal
+         */
+        private static final Phase[] VALUES = values();
+
+        private final String name;
+
+        Phase(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public String getSerializedName()
+        {
+            return this.name;
+        }
+    }
+
+    /**
+     * Builder class for an {@link AttackPhaseSchedule}
+     */
+    public static final class Builder
+    {
+        private final int length;
+        private final Map<Phase, Integer> phaseStarts;
+        private boolean hitEveryTick;
+
+        /**
+         * Creates a new {@link Builder}
+         * @param length The length of one attack cycle in ticks
+         */
+        private Builder(int length)
+        {
+            this.length = length;
+            this.phaseStarts = new EnumMap<>(Phase.class);
+            this.hitEveryTick = false;
+        }
+
+        /**
+         * Sets the start tick of a phase
+         * @param phase The {@link Phase}
+         * @param startTick The tick the phase starts on
+         * @return {@link Builder} instance
+         * @throws IllegalArgumentException If the start tick is less than 0
+         */
+        public Builder phase(Phase phase, int startTick) throws IllegalArgumentException
+        {
+            if (startTick < 0)
+            {
+                throw new IllegalArgumentException("Phase start tick cannot be less than 0! Value offered: " + startTick);
+            }
+            this.phaseStarts.put(phase, startTick);
+            return this;
+        }
+
+        /**
+         * Wakes up the goal on every tick of the hit window, for attacks that hit every tick
+         * @return {@link Builder} instance
+         */
+        public Builder hitEveryTick()
+        {
+            this.hitEveryTick = true;
+            return this;
+        }
+
+        /**
+         * Builds the {@link AttackPhaseSchedule}
+         * @return The {@link AttackPhaseSchedule}
+         * @throws IllegalArgumentException If the length is not greater than 0, there are no phases, or a phase starts outside the attack cycle
+         */
+        public AttackPhaseSchedule build() throws IllegalArgumentException
+        {
+            return validate(new AttackPhaseSchedule(this.length, this.phaseStarts, this.hitEveryTick)).getOrThrow(IllegalArgumentException::new);
+        }
+    }
+}
@@ -10,7 +10,7 @@ public interface AttackSetUp {
 
     /**
      * The {@link AnimationState} for the attack to be performed
-     * @return The {@link AnimationState} for the attack
+     * @return The {@link AnimationState} for the attack. May return null if the entity has an {@linkplain net.laserdiamond.laserutils.entity.lu.mobs.MultiAttackingEntity#animationTimeline() animation timeline}
      */
     AnimationState getAnimationState();
 
@@ -22,9 +22,29 @@ public interface AttackSetUp {
 
     /**
      * The {@link EntityDataAccessor} for the attack that helps determine what attack for the entity to perform.
-     * @return The {@link EntityDataAccessor} for the entity's attack
+     * @return The {@link EntityDataAccessor} for the entity's attack. May return null if the entity uses an {@linkplain net.laserdiamond.laserutils.entity.lu.mobs.MultiAttackingEntity#attackMaskAccessor() attack mask}
      */
     EntityDataAccessor<Boolean> getEntityDataAccessor();
 
+    /**
+     * The index of the attack. Implemented by the {@link Enum} of the attacks
+     * @return The ordinal of the attack
+     */
+    int ordinal();
+
+    /**
+     * The bit of the attack in an {@linkplain net.laserdiamond.laserutils.entity.lu.mobs.MultiAttackingEntity#attackMaskAccessor() attack mask}.
+     * An attack mask can hold at most {@value Integer#SIZE} attacks
+     * @return The bit flag of the attack
+     * @throws IllegalStateException If the ordinal of the attack is too large for an attack mask, as its bit would be shared with another attack
+     */
+    default int attackBit() throws IllegalStateException
+    {
+        if (this.ordinal() >= Integer.SIZE)
+        {
+            throw new IllegalStateException("An attack mask can hold at most " + Integer.SIZE + " attacks! Ordinal of attack: " + this.ordinal());
+        }
+        return 1 << this.ordinal();
+    }
 
 }
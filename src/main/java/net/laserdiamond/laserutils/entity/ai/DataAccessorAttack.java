@@ -9,7 +9,17 @@ public interface DataAccessorAttack {
 
     /**
      * The {@link EntityDataAccessor} for is the entity is performing said attack
-     * @return The {@link EntityDataAccessor} that determines if the entity is performing said attack
+     * @return The {@link EntityDataAccessor} that determines if the entity is performing said attack. May return null if the goal returns an {@link #attack()}
      */
     EntityDataAccessor<Boolean> attackDataAccessor();
+
+    /**
+     * The attack of a {@link net.laserdiamond.laserutils.entity.lu.mobs.MultiAttackingEntity} performed by the goal.
+     * When not null, the attacking state is set through the attack instead of the {@link #attackDataAccessor()}, which allows the entity to store it in an attack mask
+     * @return The {@link AttackSetUp} performed by the goal. Defaults to null
+     */
+    default AttackSetUp attack()
+    {
+        return null;
+    }
 }
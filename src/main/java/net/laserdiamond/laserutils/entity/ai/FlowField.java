@@ -0,0 +1,274 @@
+package net.laserdiamond.laserutils.entity.ai;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.tags.FluidTags;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.Arrays;
+
+/**
+ * A distance field toward one target over a bounded box of blocks, computed by a breadth first search from the target's position.
+ * Every mob chasing the target can steer by stepping to the neighbouring cell with the smallest distance, instead of computing its own path.
+ * <p>A cell is standable if it and the block above it have no collision, and the block below it has collision.
+ * Mobs can step up 1 block or drop down up to {@value #MAX_DROP} blocks between neighbouring cells. Mobs taller than 2 blocks are not accounted for</p>
+ * @see FlowFieldCache
+ */
+public final class FlowField {
+
+    /**
+     * The distance of a cell that can't reach the target
+     */
+    private static final short UNREACHABLE = Short.MAX_VALUE;
+
+    /**
+     * The maximum amount of blocks a mob can drop down between neighbouring cells
+     */
+    private static final int MAX_DROP = 3;
+
+    /**
+     * The horizontal offsets of the neighbours of a cell
+     */
+    private static final int[][] HORIZONTAL_NEIGHBOURS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /**
+     * The position the field was computed toward
+     */
+    private final BlockPos origin;
+
+    /**
+     * The horizontal radius of the field
+     */
+    private final int radius;
+
+    /**
+     * The vertical radius of the field
+     */
+    private final int verticalRadius;
+
+    /**
+     * The width of the field along the x and z axes
+     */
+    private final int width;
+
+    /**
+     * The height of the field
+     */
+    private final int height;
+
+    /**
+     * The distance of each cell to the origin, in steps
+     */
+    private final short[] distances;
+
+    /**
+     * The game time the field was computed on
+     */
+    private final long computedGameTime;
+
+    /**
+     * Computes a new {@link FlowField}
+     * @param level The {@link ServerLevel} to compute the field in
+     * @param origin The standable position to compute the field toward
+     * @param radius The horizontal radius of the field
+     * @param verticalRadius The vertical radius of the field
+     */
+    FlowField(ServerLevel level, BlockPos origin, int radius, int verticalRadius)
+    {
+        this.origin = origin.immutable();
+        this.radius = radius;
+        this.verticalRadius = verticalRadius;
+        this.width = radius * 2 + 1;
+        this.height = verticalRadius * 2 + 1;
+        this.distances = new short[this.width * this.width * this.height];
+        this.computedGameTime = level.getGameTime();
+        Arrays.fill(this.distances, UNREACHABLE);
+        this.compute(level);
+    }
+
+    /**
+     * Finds a standable position at or just below a position, such as below a jumping or falling entity
+     * @param level The {@link ServerLevel}
+     * @param pos The position
+     * @return The standable position, or null if there is none within {@value #MAX_DROP} blocks below
+     */
+    static BlockPos findStandable(ServerLevel level, BlockPos pos)
+    {
+        final BlockPos.MutableBlockPos mutablePos = pos.mutable();
+        for (int i = 0; i <= MAX_DROP; i++)
+        {
+            if (isStandable(level, mutablePos))
+            {
+                return mutablePos.immutable();
+            }
+            mutablePos.move(0, -1, 0);
+        }
+        return null;
+    }
+
+    /**
+     * Determines if a mob can stand at a position. Positions in unloaded chunks are never standable, so computing a field never loads chunks
+     * @param level The {@link ServerLevel}
+     * @param pos The position
+     * @return True if a mob can stand at the position, false otherwise
+     */
+    private static boolean isStandable(ServerLevel level, BlockPos pos)
+    {
+        if (!level.isLoaded(pos))
+        {
+            return false;
+        }
+        final BlockPos below = pos.below();
+        final BlockPos above = pos.above();
+        return isPassable(level, pos, level.getBlockState(pos)) && isPassable(level, above, level.getBlockState(above)) && !level.getBlockState(below).getCollisionShape(level, below).isEmpty();
+    }
+
+    /**
+     * Determines if a mob can walk through a block
+     * @param level The {@link ServerLevel}
+     * @param pos The position of the block
+     * @param blockState The {@link BlockState} of the block
+     * @return True if the block has no collision and does not hurt, false otherwise
+     */
+    private static boolean isPassable(ServerLevel level, BlockPos pos, BlockState blockState)
+    {
+        return blockState.getCollisionShape(level, pos).isEmpty() && !blockState.is(BlockTags.FIRE) && !blockState.getFluidState().is(FluidTags.LAVA);
+    }
+
+    /**
+     * Runs the breadth first search from the origin
+     * @param level The {@link ServerLevel}
+     */
+    private void compute(ServerLevel level)
+    {
+        final byte[] standable = new byte[this.distances.length]; // 0 = unknown, 1 = standable, 2 = not standable
+        final int[] queue = new int[this.distances.length];
+        int head = 0;
+        int tail = 0;
+        final int originIndex = this.index(this.origin.getX(), this.origin.getY(), this.origin.getZ());
+        this.distances[originIndex] = 0;
+        queue[tail++] = originIndex;
+
+        final BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+        while (head < tail)
+        {
+            final int index = queue[head++];
+            final int y = index % this.height;
+            final int z = (index / this.height) % this.width;
+            final int x = index / (this.height * this.width);
+            final short nextDistance = (short) (this.distances[index] + 1);
+            for (int[] neighbour : HORIZONTAL_NEIGHBOURS)
+            {
+                final int nx = x + neighbour[0];
+                final int nz = z + neighbour[1];
+                if (nx < 0 || nz < 0 || nx >= this.width || nz >= this.width)
+                {
+                    continue;
+                }
+                // A mob at the neighbour reaches this cell by stepping up 1 block, walking, or dropping down
+                for (int dy = -1; dy <= MAX_DROP; dy++)
+                {
+                    final int ny = y + dy;
+                    if (ny < 0 || ny >= this.height)
+                    {
+                        continue;
+                    }
+                    final int neighbourIndex = (nx * this.width + nz) * this.height + ny;
+                    if (this.distances[neighbourIndex] != UNREACHABLE)
+                    {
+                        continue;
+                    }
+                    if (standable[neighbourIndex] == 0)
+                    {
+                        mutablePos.set(this.origin.getX() - this.radius + nx, this.origin.getY() - this.verticalRadius + ny, this.origin.getZ() - this.radius + nz);
+                        standable[neighbourIndex] = (byte) (isStandable(level, mutablePos) ? 1 : 2);
+                    }
+                    if (standable[neighbourIndex] == 1)
+                    {
+                        this.distances[neighbourIndex] = nextDistance;
+                        queue[tail++] = neighbourIndex;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the index of a position in the field
+     * @param blockX The x position
+     * @param blockY The y position
+     * @param blockZ The z position
+     * @return The index of the position, or -1 if the position is outside the field
+     */
+    private int index(int blockX, int blockY, int blockZ)
+    {
+        final int x = blockX - this.origin.getX() + this.radius;
+        final int y = blockY - this.origin.getY() + this.verticalRadius;
+        final int z = blockZ - this.origin.getZ() + this.radius;
+        if (x < 0 || z < 0 || y < 0 || x >= this.width || z >= this.width || y >= this.height)
+        {
+            return -1;
+        }
+        return (x * this.width + z) * this.height + y;
+    }
+
+    /**
+     * Gets the distance of a position to the origin
+     * @param pos The position
+     * @return The distance in steps, or -1 if the position is outside the field or can't reach the origin
+     */
+    public int distance(BlockPos pos)
+    {
+        final int index = this.index(pos.getX(), pos.getY(), pos.getZ());
+        return index < 0 || this.distances[index] == UNREACHABLE ? -1 : this.distances[index];
+    }
+
+    /**
+     * Finds the next position to step to from a position
+     * @param from The standable position of the mob
+     * @param result The {@link BlockPos.MutableBlockPos} to store the next position in
+     * @return True if a next position was found, false if the position is outside the field, can't reach the origin, or is the origin
+     */
+    public boolean nextStep(BlockPos from, BlockPos.MutableBlockPos result)
+    {
+        int bestDistance = this.distance(from);
+        if (bestDistance <= 0)
+        {
+            return false;
+        }
+        boolean found = false;
+        final BlockPos.MutableBlockPos candidate = new BlockPos.MutableBlockPos();
+        for (int[] neighbour : HORIZONTAL_NEIGHBOURS)
+        {
+            for (int dy = 1; dy >= -MAX_DROP; dy--)
+            {
+                candidate.set(from.getX() + neighbour[0], from.getY() + dy, from.getZ() + neighbour[1]);
+                final int distance = this.distance(candidate);
+                if (distance >= 0 && distance < bestDistance)
+                {
+                    bestDistance = distance;
+                    result.set(candidate);
+                    found = true;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return The position the field was computed toward
+     */
+    public BlockPos origin()
+    {
+        return this.origin;
+    }
+
+    /**
+     * @return The game time the field was computed on
+     */
+    public long computedGameTime()
+    {
+        return this.computedGameTime;
+    }
+}
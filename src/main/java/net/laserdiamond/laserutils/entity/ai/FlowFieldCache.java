@@ -0,0 +1,255 @@
+package net.laserdiamond.laserutils.entity.ai;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Shares one {@link FlowField} per target between every mob of a level chasing that target, so a horde only computes one field instead of one path per mob.
+ * A target's field is recomputed when the target moves more than the {@linkplain #setRecomputeDistance(double) recompute distance} from where it was computed,
+ * or once it is older than {@value #MAX_FIELD_AGE} ticks so block changes are picked up. Fields that no mob asked for in {@value #EVICT_AFTER} ticks are dropped.
+ * <p>A field is only computed once at least {@linkplain #setMinChasers(int) min chasers} mobs ask for the same target in a tick.
+ * Computing a field costs far more than one path, so fewer mobs are better off computing their own paths</p>
+ * <p>Should only be accessed from the server thread</p>
+ */
+public final class FlowFieldCache {
+
+    /**
+     * The amount of ticks a field is used for before it is recomputed
+     */
+    private static final int MAX_FIELD_AGE = 60;
+
+    /**
+     * The amount of ticks a field can go unused before it is dropped
+     */
+    private static final int EVICT_AFTER = 100;
+
+    /**
+     * The cache of each level
+     */
+    private static final Map<ServerLevel, FlowFieldCache> CACHES = new IdentityHashMap<>();
+
+    /**
+     * The horizontal radius of computed fields
+     */
+    private static int radius = 24;
+
+    /**
+     * The vertical radius of computed fields
+     */
+    private static int verticalRadius = 8;
+
+    /**
+     * The squared distance a target can move before its field is recomputed
+     */
+    private static double recomputeDistanceSqr = 3 * 3;
+
+    /**
+     * The amount of mobs that must chase a target in the same tick before a field is computed toward it
+     */
+    private static int minChasers = 4;
+
+    /**
+     * The {@link ServerLevel} of the cache
+     */
+    private final ServerLevel level;
+
+    /**
+     * The field of each target, mapped by the target's ID
+     */
+    private final Int2ObjectOpenHashMap<Entry> fields;
+
+    /**
+     * Creates a new {@link FlowFieldCache}
+     * @param level The {@link ServerLevel} of the cache
+     */
+    private FlowFieldCache(ServerLevel level)
+    {
+        this.level = level;
+        this.fields = new Int2ObjectOpenHashMap<>();
+    }
+
+    /**
+     * Gets the {@link FlowFieldCache} of a level
+     * @param level The {@link ServerLevel}
+     * @return The {@link FlowFieldCache} of the level
+     */
+    public static FlowFieldCache of(ServerLevel level)
+    {
+        return CACHES.computeIfAbsent(level, FlowFieldCache::new);
+    }
+
+    /**
+     * Sets the size of computed fields. Larger fields let mobs further from the target use them, but cost more to compute. Defaults to 24 and 8
+     * @param radius The horizontal radius of fields in blocks
+     * @param verticalRadius The vertical radius of fields in blocks
+     * @throws IllegalArgumentException If either radius is less than 1, or the horizontal radius is greater than 64
+     */
+    public static void setFieldSize(int radius, int verticalRadius) throws IllegalArgumentException
+    {
+        if (radius < 1 || verticalRadius < 1 || radius > 64)
+        {
+            throw new IllegalArgumentException("Flow field radius must be between 1 and 64, and the vertical radius must be at least 1! Values offered: " + radius + ", " + verticalRadius);
+        }
+        FlowFieldCache.radius = radius;
+        FlowFieldCache.verticalRadius = verticalRadius;
+    }
+
+    /**
+     * Sets the distance a target can move before its field is recomputed. Defaults to 3 blocks
+     * @param recomputeDistance The distance in blocks
+     * @throws IllegalArgumentException If the distance is less than 0
+     */
+    public static void setRecomputeDistance(double recomputeDistance) throws IllegalArgumentException
+    {
+        if (recomputeDistance < 0)
+        {
+            throw new IllegalArgumentException("Recompute distance cannot be less than 0! Value offered: " + recomputeDistance);
+        }
+        recomputeDistanceSqr = recomputeDistance * recomputeDistance;
+    }
+
+    /**
+     * Sets the amount of mobs that must chase a target in the same tick before a field is computed toward it. Defaults to 4 mobs
+     * @param minChasers The amount of mobs
+     * @throws IllegalArgumentException If the amount is less than 1
+     */
+    public static void setMinChasers(int minChasers) throws IllegalArgumentException
+    {
+        if (minChasers < 1)
+        {
+            throw new IllegalArgumentException("Min chasers must be at least 1! Value offered: " + minChasers);
+        }
+        FlowFieldCache.minChasers = minChasers;
+    }
+
+    /**
+     * Gets the {@link FlowField} toward a target, computing it if it is missing or out of date.
+     * Each call counts as one mob chasing the target this tick, so it should be called at most once per tick by each mob
+     * @param target The {@link LivingEntity} being chased
+     * @return The {@link FlowField} toward the target, or null if too few mobs are chasing the target, or the target is not standing anywhere a field can be computed toward
+     */
+    public FlowField get(LivingEntity target)
+    {
+        final long gameTime = this.level.getGameTime();
+        Entry entry = this.fields.get(target.getId());
+        if (entry == null)
+        {
+            entry = new Entry(gameTime);
+            this.fields.put(target.getId(), entry);
+        }
+        entry.lastUsedGameTime = gameTime;
+        if (entry.countedGameTime != gameTime)
+        {
+            entry.lastTickChasers = entry.countedGameTime == gameTime - 1 ? entry.chasers : 0;
+            entry.chasers = 0;
+            entry.countedGameTime = gameTime;
+        }
+        entry.chasers++;
+        if (Math.max(entry.chasers, entry.lastTickChasers) < minChasers)
+        {
+            return null; // Mobs chasing on their own compute their own paths. Last tick's count is used, as not every chaser has asked yet this tick
+        }
+
+        if (entry.field != null && gameTime - entry.field.computedGameTime() < MAX_FIELD_AGE && entry.field.origin().distToCenterSqr(target.position()) <= recomputeDistanceSqr + 1)
+        {
+            return entry.field; // Still up to date
+        }
+        if (entry.field == null && entry.failedGameTime == gameTime)
+        {
+            return null; // Already failed this tick
+        }
+
+        final BlockPos origin = FlowField.findStandable(this.level, target.blockPosition());
+        if (origin == null)
+        {
+            entry.field = null;
+            entry.failedGameTime = gameTime;
+            return null;
+        }
+        entry.field = new FlowField(this.level, origin, radius, verticalRadius);
+        return entry.field;
+    }
+
+    /**
+     * Drops the fields that no mob asked for recently
+     */
+    private void evict()
+    {
+        final long gameTime = this.level.getGameTime();
+        this.fields.values().removeIf(entry -> gameTime - entry.lastUsedGameTime > EVICT_AFTER);
+    }
+
+    /**
+     * The cached field of one target
+     */
+    private static final class Entry
+    {
+        private FlowField field;
+        private long lastUsedGameTime;
+        private long failedGameTime;
+        private long countedGameTime;
+        private int chasers;
+        private int lastTickChasers;
+
+        /**
+         * Creates a new {@link Entry}
+         * @param gameTime The current game time
+         */
+        private Entry(long gameTime)
+        {
+            this.field = null;
+            this.lastUsedGameTime = gameTime;
+            this.failedGameTime = Long.MIN_VALUE;
+            this.countedGameTime = gameTime;
+            this.chasers = 0;
+            this.lastTickChasers = 0;
+        }
+    }
+
+    /**
+     * Flow field cache events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class CacheEvents
+    {
+        /**
+         * Drops unused fields of a level every {@value #EVICT_AFTER} ticks
+         * @param event The {@link TickEvent.LevelTickEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onLevelTick(TickEvent.LevelTickEvent event)
+        {
+            if (event.phase == TickEvent.Phase.END && event.level instanceof ServerLevel serverLevel && serverLevel.getGameTime() % EVICT_AFTER == 0)
+            {
+                final FlowFieldCache cache = CACHES.get(serverLevel);
+                if (cache != null)
+                {
+                    cache.evict();
+                }
+            }
+        }
+
+        /**
+         * Removes the cache of a level once it unloads
+         * @param event The {@link LevelEvent.Unload} event to listen for
+         */
+        @SubscribeEvent
+        public static void onLevelUnload(LevelEvent.Unload event)
+        {
+            if (event.getLevel() instanceof ServerLevel serverLevel)
+            {
+                CACHES.remove(serverLevel);
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package net.laserdiamond.laserutils.entity.ai;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.laserdiamond.laserutils.util.EntitySpatialIndex;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.player.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coordinates a group of {@link GroupMember}s, usually the minions of an {@link net.laserdiamond.laserutils.entity.lu.mobs.AbstractBossMob}.
+ * Perception runs once for the whole group, every {@linkplain #setPerceptionInterval(int) perception interval}, and assigns each member a target,
+ * spreading the members evenly across the players around the owner.
+ * <p>Attacks are staggered by giving each member an attack slot: a window of {@value #SLOT_LENGTH} ticks in a cycle of {@linkplain #setStaggerTicks(int) stagger ticks}.
+ * Members only start attacks while their slot is open, so a large group never starts all of its attacks on the same tick</p>
+ * <p>The coordinator is not saved. Should only be accessed from the server thread</p>
+ */
+public final class GroupCoordinator {
+
+    /**
+     * The length of each attack slot in ticks. Long enough that goals evaluated every other tick always see their slot open
+     */
+    private static final int SLOT_LENGTH = 4;
+
+    /**
+     * The {@link Mob} that owns the group
+     */
+    private final Mob owner;
+
+    /**
+     * The assignments of the members, in the order they joined
+     */
+    private final List<Assignment> assignments;
+
+    /**
+     * The assignment of each member
+     */
+    private final Reference2ObjectOpenHashMap<Mob, Assignment> assignmentsByMember;
+
+    /**
+     * The radius around the owner to look for targets in
+     */
+    private double perceptionRadius;
+
+    /**
+     * The amount of ticks between each perception
+     */
+    private int perceptionInterval;
+
+    /**
+     * The amount of ticks attacks are spread over
+     */
+    private int staggerTicks;
+
+    /**
+     * Determines if the assignments should be updated on the next tick, regardless of the perception interval
+     */
+    private boolean dirty;
+
+    /**
+     * Creates a new {@link GroupCoordinator}
+     * @param owner The {@link Mob} that owns the group
+     */
+    public GroupCoordinator(Mob owner)
+    {
+        this.owner = owner;
+        this.assignments = new ArrayList<>();
+        this.assignmentsByMember = new Reference2ObjectOpenHashMap<>();
+        this.perceptionRadius = 32;
+        this.perceptionInterval = 10;
+        this.staggerTicks = 20;
+        this.dirty = false;
+    }
+
+    /**
+     * Determines if a mob may start an attack this tick
+     * @param mob The {@link Mob}
+     * @return True if the mob is not in a group, or if its attack slot is open. False otherwise
+     */
+    public static boolean isAttackSlotOpen(Mob mob)
+    {
+        if (mob instanceof GroupMember<?> groupMember && groupMember.getGroupCoordinator() != null)
+        {
+            return groupMember.getGroupCoordinator().isAttackSlotOpenFor(mob);
+        }
+        return true;
+    }
+
+    /**
+     * Sets the radius around the owner to look for targets in. Defaults to 32 blocks
+     * @param perceptionRadius The radius in blocks
+     * @throws IllegalArgumentException If the radius is not greater than 0
+     */
+    public void setPerceptionRadius(double perceptionRadius) throws IllegalArgumentException
+    {
+        if (perceptionRadius <= 0)
+        {
+            throw new IllegalArgumentException("Perception radius must be greater than 0! Value offered: " + perceptionRadius);
+        }
+        this.perceptionRadius = perceptionRadius;
+    }
+
+    /**
+     * Sets the amount of ticks between each perception. Defaults to 10 ticks
+     * @param perceptionInterval The interval in ticks
+     * @throws IllegalArgumentException If the interval is less than 1
+     */
+    public void setPerceptionInterval(int perceptionInterval) throws IllegalArgumentException
+    {
+        if (perceptionInterval < 1)
+        {
+            throw new IllegalArgumentException("Perception interval must be at least 1 tick! Value offered: " + perceptionInterval);
+        }
+        this.perceptionInterval = perceptionInterval;
+    }
+
+    /**
+     * Sets the amount of ticks the group's attacks are spread over. Defaults to 20 ticks
+     * @param staggerTicks The amount of ticks. Values less than {@value #SLOT_LENGTH} don't stagger attacks
+     * @throws IllegalArgumentException If the amount is less than 1
+     */
+    public void setStaggerTicks(int staggerTicks) throws IllegalArgumentException
+    {
+        if (staggerTicks < 1)
+        {
+            throw new IllegalArgumentException("Stagger ticks must be at least 1! Value offered: " + staggerTicks);
+        }
+        this.staggerTicks = staggerTicks;
+        this.reassignSlots();
+    }
+
+    /**
+     * Adds a member to the group, removing it from its previous group
+     * @param member The {@link GroupMember} to add
+     * @param <M> The {@link Mob} type of the member
+     */
+    public <M extends Mob & GroupMember<M>> void join(M member)
+    {
+        if (member == this.owner || this.assignmentsByMember.containsKey(member))
+        {
+            return;
+        }
+        final GroupCoordinator previous = member.getGroupCoordinator();
+        if (previous != null)
+        {
+            previous.leave(member);
+        }
+        final Assignment assignment = new Assignment(member);
+        this.assignments.add(assignment);
+        this.assignmentsByMember.put(member, assignment);
+        member.setGroupCoordinator(this);
+        this.reassignSlots();
+        this.dirty = true;
+    }
+
+    /**
+     * Removes a member from the group
+     * @param member The {@link Mob} to remove
+     */
+    public void leave(Mob member)
+    {
+        final Assignment assignment = this.assignmentsByMember.remove(member);
+        if (assignment != null)
+        {
+            this.assignments.remove(assignment);
+            if (member instanceof GroupMember<?> groupMember)
+            {
+                groupMember.setGroupCoordinator(null);
+            }
+            this.reassignSlots();
+        }
+    }
+
+    /**
+     * Removes every member from the group. Called when the owner dies or is removed
+     */
+    public void disband()
+    {
+        for (Assignment assignment : this.assignments)
+        {
+            if (assignment.member instanceof GroupMember<?> groupMember)
+            {
+                groupMember.setGroupCoordinator(null);
+            }
+        }
+        this.assignments.clear();
+        this.assignmentsByMember.clear();
+    }
+
+    /**
+     * @return The amount of members in the group
+     */
+    public int size()
+    {
+        return this.assignments.size();
+    }
+
+    /**
+     * Gets the target assigned to a member
+     * @param member The member
+     * @return The {@link LivingEntity} assigned to the member, or null if the member has no target or is not in the group
+     */
+    public LivingEntity assignedTarget(Mob member)
+    {
+        final Assignment assignment = this.assignmentsByMember.get(member);
+        return assignment == null ? null : assignment.target;
+    }
+
+    /**
+     * Determines if a member's attack slot is open this tick
+     * @param member The member
+     * @return True if the member's slot is open or the member is not in the group, false otherwise
+     */
+    public boolean isAttackSlotOpenFor(Mob member)
+    {
+        final Assignment assignment = this.assignmentsByMember.get(member);
+        if (assignment == null)
+        {
+            return true;
+        }
+        final int slotCount = this.slotCount();
+        return (int) ((this.owner.level().getGameTime() / SLOT_LENGTH) % slotCount) == assignment.slot;
+    }
+
+    /**
+     * Updates the group. Should be called once every tick by the owner on the server
+     * @param serverLevel The {@link ServerLevel} of the owner
+     */
+    public void tick(ServerLevel serverLevel)
+    {
+        if (this.assignments.removeIf(assignment -> this.shouldRemove(assignment.member)))
+        {
+            this.assignmentsByMember.values().removeIf(assignment -> this.shouldRemove(assignment.member));
+            this.reassignSlots();
+        }
+        if (this.assignments.isEmpty() || (!this.dirty && serverLevel.getGameTime() % this.perceptionInterval != 0))
+        {
+            return;
+        }
+        this.dirty = false;
+        this.assignTargets(this.perceive(serverLevel));
+    }
+
+    /**
+     * Determines if a member should be removed from the group
+     * @param member The member
+     * @return True if the member is removed, dead, or in another level. False otherwise
+     */
+    private boolean shouldRemove(Mob member)
+    {
+        if (member.isRemoved() || !member.isAlive() || member.level() != this.owner.level())
+        {
+            if (member instanceof GroupMember<?> groupMember && groupMember.getGroupCoordinator() == this)
+            {
+                groupMember.setGroupCoordinator(null);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the targets of the group
+     * @param serverLevel The {@link ServerLevel} of the owner
+     * @return A {@link List} of the targets around the owner, including the owner's own target
+     */
+    private List<LivingEntity> perceive(ServerLevel serverLevel)
+    {
+        final List<LivingEntity> targets = new ArrayList<>(EntitySpatialIndex.of(serverLevel).inRadius(Player.class, this.owner.position(), this.perceptionRadius, player -> !player.isSpectator() && !player.isCreative()));
+        final LivingEntity ownerTarget = this.owner.getTarget();
+        if (ownerTarget != null && ownerTarget.isAlive() && !targets.contains(ownerTarget))
+        {
+            targets.add(ownerTarget);
+        }
+        return targets;
+    }
+
+    /**
+     * Assigns each member the nearest target that doesn't already have its share of members
+     * @param targets The targets of the group
+     */
+    private void assignTargets(List<LivingEntity> targets)
+    {
+        if (targets.isEmpty())
+        {
+            this.assignments.forEach(assignment -> assignment.target = null);
+            return;
+        }
+        final int share = (this.assignments.size() + targets.size() - 1) / targets.size();
+        final int[] assignedCounts = new int[targets.size()];
+        for (Assignment assignment : this.assignments)
+        {
+            int bestIndex = -1;
+            double bestDistance = Double.MAX_VALUE;
+            for (int i = 0; i < targets.size(); i++)
+            {
+                final double distance = assignment.member.distanceToSqr(targets.get(i));
+                if (assignedCounts[i] < share && distance < bestDistance)
+                {
+                    bestIndex = i;
+                    bestDistance = distance;
+                }
+            }
+            assignedCounts[bestIndex]++; // Every target has room, since the shares add up to at least the amount of members
+            assignment.target = targets.get(bestIndex);
+        }
+    }
+
+    /**
+     * @return The amount of attack slots in a cycle
+     */
+    private int slotCount()
+    {
+        return Math.max(1, this.staggerTicks / SLOT_LENGTH);
+    }
+
+    /**
+     * Spreads the members evenly across the attack slots
+     */
+    private void reassignSlots()
+    {
+        final int slotCount = this.slotCount();
+        for (int i = 0; i < this.assignments.size(); i++)
+        {
+            this.assignments.get(i).slot = i % slotCount;
+        }
+    }
+
+    /**
+     * The target and attack slot assigned to a member
+     */
+    private static final class Assignment
+    {
+        private final Mob member;
+        private LivingEntity target;
+        private int slot;
+
+        /**
+         * Creates a new {@link Assignment}
+         * @param member The member
+         */
+        private Assignment(Mob member)
+        {
+            this.member = member;
+            this.target = null;
+            this.slot = 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package net.laserdiamond.laserutils.entity.ai;
+
+import net.laserdiamond.laserutils.entity.EntityInterfaceBase;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+
+/**
+ * Used by mobs that can join a {@link GroupCoordinator}, such as the minions of a boss.
+ * The mob's class must store the coordinator it belongs to. Its goals then read their target and attack timing from the coordinator instead of deciding them on their own
+ * @param <M> The {@link Mob} class
+ * @see GroupTargetGoal
+ */
+public interface GroupMember<M extends Mob> extends EntityInterfaceBase<M> {
+
+    /**
+     * The {@link GroupCoordinator} the mob belongs to
+     * @return The {@link GroupCoordinator} of the mob, or null if the mob is not in a group
+     */
+    GroupCoordinator getGroupCoordinator();
+
+    /**
+     * Sets the {@link GroupCoordinator} the mob belongs to. Only called by the {@link GroupCoordinator}
+     * @param groupCoordinator The {@link GroupCoordinator} of the mob, or null if the mob left its group
+     */
+    void setGroupCoordinator(GroupCoordinator groupCoordinator);
+
+    /**
+     * Gets the target assigned to the mob by its group
+     * @return The assigned {@link LivingEntity}, or null if the mob is not in a group, has no assigned target, or its assigned target is dead
+     */
+    default LivingEntity assignedTarget()
+    {
+        final GroupCoordinator groupCoordinator = this.getGroupCoordinator();
+        if (groupCoordinator == null)
+        {
+            return null;
+        }
+        final LivingEntity target = groupCoordinator.assignedTarget(this.entity());
+        return target != null && target.isAlive() ? target : null;
+    }
+}
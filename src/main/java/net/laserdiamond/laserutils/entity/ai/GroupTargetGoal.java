@@ -0,0 +1,65 @@
+package net.laserdiamond.laserutils.entity.ai;
+
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.ai.goal.target.TargetGoal;
+import net.minecraft.world.entity.ai.targeting.TargetingConditions;
+
+/**
+ * Target goal for {@link GroupMember}s that targets the entity assigned to the mob by its {@link GroupCoordinator}, instead of looking for targets on its own
+ * @param <M> The {@link Mob} and {@link GroupMember} class
+ */
+public class GroupTargetGoal<M extends Mob & GroupMember<M>> extends TargetGoal {
+
+    /**
+     * The {@link TargetingConditions} an assigned target must meet. Line of sight is not needed, since the group already perceived the target
+     */
+    private static final TargetingConditions ASSIGNED_TARGET_CONDITIONS = TargetingConditions.forCombat().ignoreLineOfSight();
+
+    /**
+     * The {@link M} of the goal
+     */
+    protected final M member;
+
+    /**
+     * Creates a new {@link GroupTargetGoal}
+     * @param member The {@link M} that will target its assigned entity
+     */
+    public GroupTargetGoal(M member)
+    {
+        super(member, false);
+        this.member = member;
+    }
+
+    /**
+     * Defines when the goal can be used
+     * @return True if the mob was assigned a target other than its current one, false otherwise
+     */
+    @Override
+    public boolean canUse()
+    {
+        final LivingEntity assignedTarget = this.member.assignedTarget();
+        return assignedTarget != null && assignedTarget != this.mob.getTarget() && this.canAttack(assignedTarget, ASSIGNED_TARGET_CONDITIONS);
+    }
+
+    /**
+     * Determines if the goal can continue to be used by the mob
+     * @return True if the mob's target is still its assigned target and can still be attacked, false otherwise
+     */
+    @Override
+    public boolean canContinueToUse()
+    {
+        return this.member.assignedTarget() == this.mob.getTarget() && super.canContinueToUse();
+    }
+
+    /**
+     * Called when the {@link GroupTargetGoal} starts
+     */
+    @Override
+    public void start()
+    {
+        this.targetMob = this.member.assignedTarget();
+        this.mob.setTarget(this.targetMob);
+        super.start();
+    }
+}
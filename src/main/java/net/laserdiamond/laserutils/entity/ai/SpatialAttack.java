@@ -0,0 +1,90 @@
+package net.laserdiamond.laserutils.entity.ai;
+
+import net.laserdiamond.laserutils.util.EntitySpatialIndex;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.phys.AABB;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Used by attack goals to find the entities around the attacking mob through the level's shared {@link EntitySpatialIndex}, instead of scanning the level for each goal.
+ * Every query excludes the attacking mob, and must only be made on the server
+ */
+public interface SpatialAttack {
+
+    /**
+     * The {@link Mob} performing the attack
+     * @return The {@link Mob} performing the attack
+     */
+    Mob attackingMob();
+
+    /**
+     * Gets the {@link EntitySpatialIndex} of the attacking mob's level
+     * @return The {@link EntitySpatialIndex} of the attacking mob's level
+     */
+    default EntitySpatialIndex spatialIndex()
+    {
+        return EntitySpatialIndex.of((ServerLevel) this.attackingMob().level());
+    }
+
+    /**
+     * Gets every entity within a radius of the attacking mob
+     * @param entityClazz The {@link LivingEntity} class to look for
+     * @param radius The radius to look in
+     * @param filter The {@link Predicate} the entities must pass
+     * @return A {@link List} of the entities within the radius
+     * @param <E> The {@link LivingEntity} type
+     */
+    default <E extends LivingEntity> List<E> nearbyEntities(Class<E> entityClazz, double radius, Predicate<? super E> filter)
+    {
+        final Mob mob = this.attackingMob();
+        return this.spatialIndex().inRadius(entityClazz, mob.position(), radius, e -> e != mob && filter.test(e));
+    }
+
+    /**
+     * Gets the nearest entities to the attacking mob
+     * @param entityClazz The {@link LivingEntity} class to look for
+     * @param radius The radius to look in
+     * @param count The maximum amount of entities to return
+     * @param filter The {@link Predicate} the entities must pass
+     * @return A {@link List} of at most count entities, ordered from nearest to furthest
+     * @param <E> The {@link LivingEntity} type
+     */
+    default <E extends LivingEntity> List<E> nearestEntities(Class<E> entityClazz, double radius, int count, Predicate<? super E> filter)
+    {
+        final Mob mob = this.attackingMob();
+        return this.spatialIndex().nearest(entityClazz, mob.position(), radius, count, e -> e != mob && filter.test(e));
+    }
+
+    /**
+     * Gets every entity whose bounding box intersects with an attack volume
+     * @param entityClazz The {@link LivingEntity} class to look for
+     * @param attackBox The {@link AABB} of the attack
+     * @param filter The {@link Predicate} the entities must pass
+     * @return A {@link List} of the entities hit by the attack volume
+     * @param <E> The {@link LivingEntity} type
+     */
+    default <E extends LivingEntity> List<E> entitiesInAttackBox(Class<E> entityClazz, AABB attackBox, Predicate<? super E> filter)
+    {
+        final Mob mob = this.attackingMob();
+        return this.spatialIndex().inBox(entityClazz, attackBox, e -> e != mob && filter.test(e));
+    }
+
+    /**
+     * Gets every entity within a cone in front of the attacking mob, starting at its eyes and facing where it looks
+     * @param entityClazz The {@link LivingEntity} class to look for
+     * @param range The length of the cone
+     * @param halfAngleDegrees The angle between the mob's look direction and the edge of the cone, in degrees
+     * @param filter The {@link Predicate} the entities must pass
+     * @return A {@link List} of the entities within the cone
+     * @param <E> The {@link LivingEntity} type
+     */
+    default <E extends LivingEntity> List<E> entitiesInFront(Class<E> entityClazz, double range, double halfAngleDegrees, Predicate<? super E> filter)
+    {
+        final Mob mob = this.attackingMob();
+        return this.spatialIndex().inCone(entityClazz, mob.getEyePosition(), mob.getLookAngle(), range, halfAngleDegrees, e -> e != mob && filter.test(e));
+    }
+}
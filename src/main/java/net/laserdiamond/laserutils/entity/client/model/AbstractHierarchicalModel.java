@@ -1,8 +1,13 @@
 package net.laserdiamond.laserutils.entity.client.model;
 
+import net.laserdiamond.laserutils.entity.ai.AttackSetUp;
+import net.laserdiamond.laserutils.entity.lu.mobs.AttackAnimationTimeline;
+import net.minecraft.client.animation.AnimationDefinition;
+import net.minecraft.client.animation.KeyframeAnimations;
 import net.minecraft.client.model.HierarchicalModel;
 import net.minecraft.client.model.geom.ModelPart;
 import net.minecraft.world.entity.Entity;
+import org.joml.Vector3f;
 
 /**
  * Base class for Hierarchical models. Sets up the animations associated with the entity and model, and prepares the model for rendering
@@ -11,6 +16,11 @@ import net.minecraft.world.entity.Entity;
  */
 public abstract class AbstractHierarchicalModel<E extends Entity> extends HierarchicalModel<E> implements HeadRotator<E> {
 
+    /**
+     * The {@link Vector3f} reused by the keyframe animations of this model
+     */
+    private final Vector3f animationVectorCache = new Vector3f();
+
     /**
      * Sets up the animations for the {@link E}
      * @param e The {@link E} to set up animations for
@@ -25,4 +35,32 @@ public abstract class AbstractHierarchicalModel<E extends Entity> extends Hierar
         this.root().getAllParts().forEach(ModelPart::resetPose);
         this.headRotation(e, netHeadYaw, headPitch);
     }
+
+    /**
+     * Animates an attack of the entity from its {@link AttackAnimationTimeline}. Does nothing if the attack's animation is not started
+     * @param animationTimeline The {@link AttackAnimationTimeline} of the entity
+     * @param attack The {@link AttackSetUp} of the attack
+     * @param animationDefinition The {@link AnimationDefinition} of the attack
+     * @param ageInTicks The ageInTicks
+     */
+    protected void animateAttack(AttackAnimationTimeline animationTimeline, AttackSetUp attack, AnimationDefinition animationDefinition, float ageInTicks)
+    {
+        this.animateAttack(animationTimeline, attack, animationDefinition, ageInTicks, 1.0F);
+    }
+
+    /**
+     * Animates an attack of the entity from its {@link AttackAnimationTimeline}. Does nothing if the attack's animation is not started
+     * @param animationTimeline The {@link AttackAnimationTimeline} of the entity
+     * @param attack The {@link AttackSetUp} of the attack
+     * @param animationDefinition The {@link AnimationDefinition} of the attack
+     * @param ageInTicks The ageInTicks
+     * @param speed The speed of the animation
+     */
+    protected void animateAttack(AttackAnimationTimeline animationTimeline, AttackSetUp attack, AnimationDefinition animationDefinition, float ageInTicks, float speed)
+    {
+        if (animationTimeline.isStarted(attack.ordinal()))
+        {
+            KeyframeAnimations.animate(this, animationDefinition, animationTimeline.elapsedMillis(attack.ordinal(), ageInTicks, speed), 1.0F, this.animationVectorCache);
+        }
+    }
 }
@@ -1,15 +1,20 @@
 package net.laserdiamond.laserutils.entity.lu.mobs;
 
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.laserdiamond.laserutils.entity.ai.GroupCoordinator;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerBossEvent;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.BossEvent;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.effect.MobEffectInstance;
+import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.monster.Monster;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.fluids.FluidType;
 import org.jetbrains.annotations.Nullable;
 
@@ -25,6 +30,36 @@ public abstract class AbstractBossMob<M extends Monster> extends AbstractMonster
      */
     protected final ServerBossEvent bossEvent; // AbstractBossMob has-a ServerBossEvent
 
+    /**
+     * The {@link ServerPlayer}s that see the {@link AbstractBossMob}, so they can be moved to another {@link SharedBossBar}
+     */
+    private final ReferenceOpenHashSet<ServerPlayer> bossBarViewers;
+
+    /**
+     * The {@link SharedBossBar} that shows the {@link AbstractBossMob}'s health. Uses the boss's own {@link #bossEvent} unless it shares another boss's bar
+     */
+    private SharedBossBar bossBar;
+
+    /**
+     * The {@link GroupCoordinator} of the {@link AbstractBossMob}'s minions
+     */
+    protected final GroupCoordinator groupCoordinator; // AbstractBossMob has-a GroupCoordinator
+
+    /**
+     * The amount of ticks between each check for nearby players while the {@link AbstractBossMob} is awake
+     */
+    private static final int DORMANCY_CHECK_INTERVAL = 20;
+
+    /**
+     * The amount of ticks no player has been within the {@linkplain #dormancyRadius() dormancy radius}
+     */
+    private int ticksWithoutPlayers;
+
+    /**
+     * Determines if the {@link AbstractBossMob} is dormant
+     */
+    private boolean dormant;
+
     /**
      * Creates a new {@link AbstractBossMob}
      * @param pEntityType The {@link EntityType} for the {@link AbstractBossMob} to be
@@ -34,6 +69,53 @@ public abstract class AbstractBossMob<M extends Monster> extends AbstractMonster
         super(pEntityType, pLevel);
         this.bossEvent = (ServerBossEvent) new ServerBossEvent(this.getDisplayName(), this.barColor(), this.barOverlay()).setDarkenScreen(darkenScreen());
         this.setHealth(this.getMaxHealth());
+        this.bossBarViewers = new ReferenceOpenHashSet<>();
+        this.bossBar = new SharedBossBar(this.bossEvent);
+        this.groupCoordinator = new GroupCoordinator(this);
+        this.ticksWithoutPlayers = 0;
+        this.dormant = false;
+    }
+
+    /**
+     * Gets the {@link GroupCoordinator} of the {@link AbstractBossMob}. Minions should {@linkplain GroupCoordinator#join(net.minecraft.world.entity.Mob) join} it when they are summoned
+     * @return The {@link GroupCoordinator} of the {@link AbstractBossMob}'s minions
+     */
+    public GroupCoordinator getGroupCoordinator()
+    {
+        return this.groupCoordinator;
+    }
+
+    /**
+     * @return The {@link SharedBossBar} that shows the {@link AbstractBossMob}'s health
+     */
+    public SharedBossBar getBossBar()
+    {
+        return this.bossBar;
+    }
+
+    /**
+     * Shows the {@link AbstractBossMob} on another boss's bar, such as in a multi-boss fight, so both bosses share one bar with their combined health.
+     * The boss's own {@link #bossEvent} is no longer shown
+     * @param boss The {@link AbstractBossMob} whose bar to share
+     */
+    public void shareBossBar(AbstractBossMob<?> boss)
+    {
+        final SharedBossBar bossBar = boss.getBossBar();
+        if (bossBar == this.bossBar || this.level().isClientSide)
+        {
+            return;
+        }
+        if (this.isAddedToWorld())
+        {
+            this.bossBar.removeBoss(this);
+            bossBar.addBoss(this);
+        }
+        for (ServerPlayer serverPlayer : this.bossBarViewers) // Move the players that see this boss to the new bar
+        {
+            this.bossBar.removeViewer(serverPlayer);
+            bossBar.addViewer(serverPlayer);
+        }
+        this.bossBar = bossBar;
     }
 
     /**
@@ -81,12 +163,160 @@ public abstract class AbstractBossMob<M extends Monster> extends AbstractMonster
     }
 
     /**
-     * Called every tick the {@link AbstractBossMob} is alive
+     * The amount of ticks no player can be within the {@linkplain #dormancyRadius() dormancy radius} before the {@link AbstractBossMob} becomes dormant.
+     * A dormant boss stops its AI, goals and boss bar updates, and stays in place until a player comes within the radius or it is hurt
+     * @return The amount of ticks before the boss becomes dormant, or 0 or less if the boss should never become dormant. Defaults to 600 ticks
+     */
+    protected int ticksUntilDormant()
+    {
+        return 600;
+    }
+
+    /**
+     * The radius a player must be within to keep the {@link AbstractBossMob} awake, or to wake it up
+     * @return The dormancy radius in blocks. Defaults to 64 blocks
+     */
+    protected double dormancyRadius()
+    {
+        return 64;
+    }
+
+    /**
+     * Called when the {@link AbstractBossMob} becomes dormant or wakes up, on the server
+     * @param dormant True if the boss became dormant, false if it woke up
+     */
+    protected void onDormancyChanged(boolean dormant) {}
+
+    /**
+     * Determines if the {@link AbstractBossMob} is dormant. Always false on the client
+     * @return True if the boss is dormant, false otherwise
+     */
+    public boolean isDormant()
+    {
+        return this.dormant;
+    }
+
+    /**
+     * Updates the dormancy of the {@link AbstractBossMob}. Players are looked for every tick while dormant, so the boss wakes up as soon as one comes near
+     * @return True if the boss is dormant after the update, false otherwise
+     */
+    private boolean updateDormancy()
+    {
+        if (this.dormant)
+        {
+            if (this.level().hasNearbyAlivePlayer(this.getX(), this.getY(), this.getZ(), this.dormancyRadius()))
+            {
+                this.wakeUp();
+            }
+            return this.dormant;
+        }
+        if (this.ticksUntilDormant() <= 0 || this.tickCount % DORMANCY_CHECK_INTERVAL != 0)
+        {
+            return false;
+        }
+        if (this.level().hasNearbyAlivePlayer(this.getX(), this.getY(), this.getZ(), this.dormancyRadius()))
+        {
+            this.ticksWithoutPlayers = 0;
+        } else
+        {
+            this.ticksWithoutPlayers += DORMANCY_CHECK_INTERVAL;
+            if (this.ticksWithoutPlayers >= this.ticksUntilDormant() && this.onGround()) // Only become dormant on the ground, since a dormant boss doesn't move
+            {
+                this.dormant = true;
+                this.getNavigation().stop();
+                this.setTarget(null);
+                this.setXxa(0);
+                this.setYya(0);
+                this.setZza(0);
+                this.setDeltaMovement(Vec3.ZERO);
+                this.onDormancyChanged(true);
+            }
+        }
+        return this.dormant;
+    }
+
+    /**
+     * Wakes up the {@link AbstractBossMob} if it is dormant
+     */
+    public void wakeUp()
+    {
+        this.ticksWithoutPlayers = 0;
+        if (this.dormant)
+        {
+            this.dormant = false;
+            this.onDormancyChanged(false);
+        }
+    }
+
+    /**
+     * Called when the {@link AbstractBossMob} is hurt. Wakes up the boss if it is dormant
+     * @param pSource The {@link DamageSource} of the damage
+     * @param pAmount The amount of damage
+     * @return True if the boss was hurt, false otherwise
+     */
+    @Override
+    public boolean hurt(DamageSource pSource, float pAmount) {
+        if (!this.level().isClientSide)
+        {
+            this.wakeUp();
+        }
+        return super.hurt(pSource, pAmount);
+    }
+
+    /**
+     * Called every tick the {@link AbstractBossMob} is alive. Does nothing while the boss is dormant
      */
     @Override
     public void aiStep() {
+        if (!this.level().isClientSide && this.updateDormancy())
+        {
+            return; // Dormant, skip AI, goals, and boss bar updates
+        }
         super.aiStep();
-        this.bossEvent.setProgress(this.getHealth() / this.getMaxHealth());
+        if (this.level() instanceof ServerLevel serverLevel)
+        {
+            this.bossBar.update(serverLevel.getGameTime(), false); // Quantized and throttled, and only once per tick for bosses sharing the bar
+            this.groupCoordinator.tick(serverLevel); // Perceive and assign targets for the minions
+        }
+    }
+
+    /**
+     * Called when the {@link AbstractBossMob} dies. Sends the boss bar's progress immediately, regardless of the minimum update interval
+     * @param pDamageSource The {@link DamageSource} that killed the boss
+     */
+    @Override
+    public void die(DamageSource pDamageSource) {
+        super.die(pDamageSource);
+        if (!this.level().isClientSide)
+        {
+            this.bossBar.update(this.level().getGameTime(), true);
+        }
+    }
+
+    /**
+     * Called when the {@link AbstractBossMob} is added to the level. Adds the boss to its boss bar
+     */
+    @Override
+    public void onAddedToWorld() {
+        super.onAddedToWorld();
+        if (!this.level().isClientSide)
+        {
+            this.bossBar.addBoss(this);
+        }
+    }
+
+    /**
+     * Called when the {@link AbstractBossMob} is removed from the level
+     * @param pReason The {@link Entity.RemovalReason}
+     */
+    @Override
+    public void remove(Entity.RemovalReason pReason) {
+        super.remove(pReason);
+        if (!this.level().isClientSide && pReason != Entity.RemovalReason.KILLED)
+        {
+            this.bossBar.removeBoss(this); // Bosses that died stay on the bar until the fight is over, so a shared bar doesn't jump back up
+        }
+        this.groupCoordinator.disband(); // Minions no longer have a boss to coordinate them
     }
 
     /**
@@ -96,7 +326,10 @@ public abstract class AbstractBossMob<M extends Monster> extends AbstractMonster
     @Override
     public void startSeenByPlayer(ServerPlayer pServerPlayer) {
         super.startSeenByPlayer(pServerPlayer);
-        this.bossEvent.addPlayer(pServerPlayer); // Add boss bar to player's screen when the mob is seen by the player
+        if (this.bossBarViewers.add(pServerPlayer))
+        {
+            this.bossBar.addViewer(pServerPlayer); // Add boss bar to player's screen when the mob is seen by the player
+        }
     }
 
     /**
@@ -106,7 +339,10 @@ public abstract class AbstractBossMob<M extends Monster> extends AbstractMonster
     @Override
     public void stopSeenByPlayer(ServerPlayer pServerPlayer) {
         super.stopSeenByPlayer(pServerPlayer);
-        this.bossEvent.removePlayer(pServerPlayer); // Remove boss bar from player's screen when the mob is no longer in view by the player
+        if (this.bossBarViewers.remove(pServerPlayer))
+        {
+            this.bossBar.removeViewer(pServerPlayer); // Remove boss bar from player's screen when the mob is no longer in view by the player
+        }
     }
 
     /**
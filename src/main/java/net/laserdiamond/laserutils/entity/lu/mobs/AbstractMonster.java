@@ -1,6 +1,8 @@
 package net.laserdiamond.laserutils.entity.lu.mobs;
 
+import net.laserdiamond.laserutils.util.EnvironmentSampler;
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.world.entity.AnimationState;
 import net.minecraft.world.entity.EntityType;
@@ -26,6 +28,21 @@ public abstract class AbstractMonster<M extends Monster> extends Monster {
      */
     protected final AnimationState idleAnimationState; // AbstractMonster has-a AnimationState
 
+    /**
+     * The tick the {@link AbstractMonster} was last rendered on. Only used on the client
+     */
+    private int lastRenderedTick;
+
+    /**
+     * The tick the animation states were last set up on. Only used on the client
+     */
+    private int lastAnimatedTick;
+
+    /**
+     * The amount of ticks between animation state updates while the {@link AbstractMonster} is rendered. Only used on the client
+     */
+    private int animationInterval;
+
     /**
      * Creates a new {@link AbstractMonster}
      * @param pEntityType The {@link EntityType} for the {@link AbstractMonster}
@@ -34,6 +51,9 @@ public abstract class AbstractMonster<M extends Monster> extends Monster {
     public AbstractMonster(EntityType<? extends M> pEntityType, Level pLevel) {
         super(pEntityType, pLevel);
         this.idleAnimationState = new AnimationState();
+        this.lastRenderedTick = Integer.MIN_VALUE;
+        this.lastAnimatedTick = -1;
+        this.animationInterval = 1;
     }
 
     /**
@@ -46,10 +66,55 @@ public abstract class AbstractMonster<M extends Monster> extends Monster {
 
     /**
      * Sets up any animation states for the subclass of this entity.
-     * Runs every tick the entity exists
+     * Runs every client tick the entity exists, unless the entity {@linkplain #usesAnimationLevelOfDetail() uses the animation level of detail}
      */
     public void setUpAnimationStates() {}
 
+    /**
+     * Determines if the animation states of the {@link AbstractMonster} may be updated less often while it is not rendered or is far away.
+     * See {@link net.laserdiamond.laserutils.client.AnimationLevelOfDetail}. Entities that were skipped catch up with one call,
+     * so only entities whose {@link #setUpAnimationStates()} sets up states from the entity's current data should opt in, not ones that count down timers once per call,
+     * such as {@link MultiAttackingEntity}s without an {@linkplain MultiAttackingEntity#animationTimeline() animation timeline} or {@linkplain MultiAttackingEntity#attackMaskAccessor() attack mask}
+     * @return True if the animation level of detail is used, false to set up animation states every client tick. Defaults to false
+     */
+    protected boolean usesAnimationLevelOfDetail()
+    {
+        return false;
+    }
+
+    /**
+     * Marks the {@link AbstractMonster} as rendered this frame. Sets up the animation states right away if they were skipped, so the entity is never drawn with stale states.
+     * Called by {@link net.laserdiamond.laserutils.client.AnimationLevelOfDetail} on the client
+     * @param animationInterval The amount of ticks between animation state updates while the entity is rendered
+     */
+    public void markRendered(int animationInterval)
+    {
+        this.animationInterval = animationInterval;
+        if (this.usesAnimationLevelOfDetail() && this.lastRenderedTick < this.tickCount - 1 && this.lastAnimatedTick != this.tickCount) // Not rendered during the last tick, so its updates were skipped
+        {
+            this.lastAnimatedTick = this.tickCount;
+            this.setUpAnimationStates();
+        }
+        this.lastRenderedTick = this.tickCount;
+    }
+
+    /**
+     * Determines if the animation states should be set up this client tick
+     * @return True if the animation states should be set up, false otherwise
+     */
+    private boolean shouldSetUpAnimationStates()
+    {
+        if (!this.usesAnimationLevelOfDetail())
+        {
+            return true;
+        }
+        if (this.lastRenderedTick < this.tickCount - 1)
+        {
+            return false; // Not rendered during the last tick. Catches up once it is rendered again
+        }
+        return this.tickCount - this.lastAnimatedTick >= this.animationInterval;
+    }
+
     /**
      * Registers any goals for the {@link AbstractMonster}
      */
@@ -75,8 +140,9 @@ public abstract class AbstractMonster<M extends Monster> extends Monster {
     public void tick() {
         super.tick();
 
-        if (this.level().isClientSide)
+        if (this.level().isClientSide && this.shouldSetUpAnimationStates())
         {
+            this.lastAnimatedTick = this.tickCount;
             this.setUpAnimationStates();
         }
     }
@@ -126,6 +192,27 @@ public abstract class AbstractMonster<M extends Monster> extends Monster {
         return false;
     }
 
+    /**
+     * Determines if the mob should be set on fire by sunlight this tick.
+     * Same rules as {@link net.minecraft.world.entity.Mob#isSunBurnTick()}, but the brightness and sky exposure come from the level's {@link EnvironmentSampler},
+     * so mobs standing in the same block share one light lookup per tick
+     * @return True if the mob should burn this tick, false otherwise
+     */
+    @Override
+    protected boolean isSunBurnTick() {
+        if (!(this.level() instanceof ServerLevel serverLevel) || !serverLevel.isDay())
+        {
+            return false;
+        }
+        if (this.isInWaterRainOrBubble() || this.isInPowderSnow || this.wasInPowderSnow)
+        {
+            return false; // Water and snow protect the mob. Checked first, since they don't query the light engine
+        }
+        final EnvironmentSampler.Sample sample = EnvironmentSampler.of(serverLevel).sample(this.getX(), this.getEyeY(), this.getZ());
+        final float brightness = sample.brightness();
+        return brightness > 0.5F && this.random.nextFloat() * 30.0F < (brightness - 0.4F) * 2.0F && sample.canSeeSky();
+    }
+
     /**
      * Updates the walk animation
      * @param pPartialTick The partial tick of the animation
@@ -0,0 +1,148 @@
+package net.laserdiamond.laserutils.entity.lu.mobs;
+
+import net.laserdiamond.laserutils.entity.ai.AttackSetUp;
+
+import java.util.Arrays;
+
+/**
+ * Stores the animation timing of every attack of one entity in a single primitive array, indexed by the attack's {@linkplain AttackSetUp#ordinal() ordinal}.
+ * Replaces the {@link net.minecraft.world.entity.AnimationState}s held by {@link AttackSetUp} enums, which are shared by every entity of the same type,
+ * along with the entity's separate attack timeout array.
+ * <p>Each attack stores the tick its animation started on and the tick its animation ends on.
+ * The animation can be sampled by an {@link net.laserdiamond.laserutils.entity.client.model.AbstractHierarchicalModel} from the start tick</p>
+ * @see MultiAttackingEntity#animationTimeline()
+ */
+public final class AttackAnimationTimeline {
+
+    /**
+     * The start tick of an attack whose animation is not running
+     */
+    private static final int STOPPED = Integer.MIN_VALUE;
+
+    /**
+     * The start and end tick of each attack, stored as pairs
+     */
+    private final int[] ticks;
+
+    /**
+     * Creates a new {@link AttackAnimationTimeline}
+     * @param attackCount The amount of attacks of the entity
+     * @throws IllegalArgumentException If the attack count is less than 0
+     */
+    public AttackAnimationTimeline(int attackCount) throws IllegalArgumentException
+    {
+        if (attackCount < 0)
+        {
+            throw new IllegalArgumentException("Attack count cannot be less than 0! Value offered: " + attackCount);
+        }
+        this.ticks = new int[attackCount * 2];
+        Arrays.fill(this.ticks, STOPPED);
+    }
+
+    /**
+     * Starts the animation of an attack, restarting it if it is already running
+     * @param attack The ordinal of the attack
+     * @param tick The tick the animation starts on, usually the entity's tick count
+     * @param duration The duration of the animation in ticks
+     */
+    public void start(int attack, int tick, int duration)
+    {
+        this.ticks[attack * 2] = tick;
+        this.ticks[attack * 2 + 1] = tick + duration;
+    }
+
+    /**
+     * Sets the amount of ticks left in the animation of an attack, starting it if it is not started
+     * @param attack The ordinal of the attack
+     * @param tick The current tick
+     * @param timeout The ticks left until the end of the animation. The animation is stopped if this is 0 or less
+     */
+    public void setTimeout(int attack, int tick, int timeout)
+    {
+        if (timeout <= 0)
+        {
+            this.stop(attack);
+        } else if (this.isStarted(attack))
+        {
+            this.ticks[attack * 2 + 1] = tick + timeout;
+        } else
+        {
+            this.start(attack, tick, timeout);
+        }
+    }
+
+    /**
+     * Stops the animation of an attack
+     * @param attack The ordinal of the attack
+     */
+    public void stop(int attack)
+    {
+        this.ticks[attack * 2] = STOPPED;
+        this.ticks[attack * 2 + 1] = STOPPED;
+    }
+
+    /**
+     * Stops the animation of every attack
+     */
+    public void stopAll()
+    {
+        Arrays.fill(this.ticks, STOPPED);
+    }
+
+    /**
+     * Determines if the animation of an attack was started and not stopped. The animation remains started after its end tick
+     * @param attack The ordinal of the attack
+     * @return True if the animation is started, false otherwise
+     */
+    public boolean isStarted(int attack)
+    {
+        return this.ticks[attack * 2] != STOPPED;
+    }
+
+    /**
+     * Gets the tick the animation of an attack started on
+     * @param attack The ordinal of the attack
+     * @return The start tick of the animation. Only meaningful if the animation {@linkplain #isStarted(int) is started}
+     */
+    public int startTick(int attack)
+    {
+        return this.ticks[attack * 2];
+    }
+
+    /**
+     * Gets the tick the animation of an attack ends on
+     * @param attack The ordinal of the attack
+     * @return The end tick of the animation. Only meaningful if the animation {@linkplain #isStarted(int) is started}
+     */
+    public int endTick(int attack)
+    {
+        return this.ticks[attack * 2 + 1];
+    }
+
+    /**
+     * Gets the amount of ticks left in the animation of an attack
+     * @param attack The ordinal of the attack
+     * @param tick The current tick
+     * @return The ticks left until the end of the animation. 0 if the animation is not started or is over
+     */
+    public int timeout(int attack, int tick)
+    {
+        return this.isStarted(attack) ? Math.max(0, this.endTick(attack) - tick) : 0;
+    }
+
+    /**
+     * Gets the time since the animation of an attack started, for sampling the animation
+     * @param attack The ordinal of the attack
+     * @param ageInTicks The current age of the entity in ticks, including the partial tick
+     * @param speed The speed of the animation
+     * @return The elapsed time of the animation in milliseconds. 0 if the animation is not started
+     */
+    public long elapsedMillis(int attack, float ageInTicks, float speed)
+    {
+        if (!this.isStarted(attack))
+        {
+            return 0L;
+        }
+        return (long) (Math.max(0F, ageInTicks - this.startTick(attack)) * 50F * speed);
+    }
+}
@@ -0,0 +1,126 @@
+package net.laserdiamond.laserutils.entity.lu.mobs;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds and caches the attack {@link Enum} values of each {@link MultiAttackingEntity} class, used by the default {@link MultiAttackingEntity#attacks()}.
+ * The attack enum is read from the type argument the entity class, or one of its super classes, passes to {@link MultiAttackingEntity}
+ */
+final class AttackValues {
+
+    /**
+     * The attack enum values of each entity class, or null if the attack enum could not be found
+     */
+    private static final ClassValue<Object[]> VALUES = new ClassValue<>()
+    {
+        @Override
+        protected Object[] computeValue(Class<?> type)
+        {
+            final Class<?> attackClass = findAttackClass(type);
+            return attackClass == null ? null : attackClass.getEnumConstants();
+        }
+    };
+
+    private AttackValues() {}
+
+    /**
+     * Gets the attack enum values of an entity class. The returned array is shared, and should not be modified
+     * @param type The class of the {@link MultiAttackingEntity}
+     * @return The values of the attack enum, or null if the attack enum could not be found
+     */
+    static Object[] of(Class<?> type)
+    {
+        return VALUES.get(type);
+    }
+
+    /**
+     * Finds the attack enum of an entity class, resolving the type variables of generic super classes along the way
+     * @param type The class of the {@link MultiAttackingEntity}
+     * @return The attack enum class, or null if it could not be found
+     */
+    private static Class<?> findAttackClass(Class<?> type)
+    {
+        final Map<TypeVariable<?>, Type> bindings = new HashMap<>();
+        for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass())
+        {
+            final Type attackType = findAttackType(clazz.getGenericInterfaces(), bindings);
+            if (attackType != null)
+            {
+                return attackType instanceof Class<?> attackClass && attackClass.isEnum() ? attackClass : null;
+            }
+            if (clazz.getGenericSuperclass() instanceof ParameterizedType parameterizedType)
+            {
+                bind(parameterizedType, bindings);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Searches interfaces and their super interfaces for {@link MultiAttackingEntity}
+     * @param interfaces The generic interfaces to search
+     * @param bindings The type variables resolved so far
+     * @return The type argument passed for the attack enum, or null if {@link MultiAttackingEntity} was not found
+     */
+    private static Type findAttackType(Type[] interfaces, Map<TypeVariable<?>, Type> bindings)
+    {
+        for (Type type : interfaces)
+        {
+            if (type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() instanceof Class<?> rawType)
+            {
+                if (rawType == MultiAttackingEntity.class)
+                {
+                    return resolve(parameterizedType.getActualTypeArguments()[0], bindings);
+                }
+                bind(parameterizedType, bindings);
+                final Type attackType = findAttackType(rawType.getGenericInterfaces(), bindings);
+                if (attackType != null)
+                {
+                    return attackType;
+                }
+            } else if (type instanceof Class<?> clazz)
+            {
+                final Type attackType = findAttackType(clazz.getGenericInterfaces(), bindings);
+                if (attackType != null)
+                {
+                    return attackType;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Binds the type variables of a generic type to the type arguments passed to it
+     * @param parameterizedType The {@link ParameterizedType}
+     * @param bindings The type variables resolved so far
+     */
+    private static void bind(ParameterizedType parameterizedType, Map<TypeVariable<?>, Type> bindings)
+    {
+        if (!(parameterizedType.getRawType() instanceof Class<?> rawType))
+        {
+            return;
+        }
+        final TypeVariable<?>[] variables = rawType.getTypeParameters();
+        final Type[] arguments = parameterizedType.getActualTypeArguments();
+        for (int i = 0; i < variables.length && i < arguments.length; i++)
+        {
+            bindings.put(variables[i], resolve(arguments[i], bindings));
+        }
+    }
+
+    /**
+     * Resolves a type through the type variables resolved so far
+     * @param type The {@link Type} to resolve
+     * @param bindings The type variables resolved so far
+     * @return The resolved {@link Type}, or the type itself if it is not a bound type variable
+     */
+    private static Type resolve(Type type, Map<TypeVariable<?>, Type> bindings)
+    {
+        return type instanceof TypeVariable<?> typeVariable ? bindings.getOrDefault(typeVariable, type) : type;
+    }
+}
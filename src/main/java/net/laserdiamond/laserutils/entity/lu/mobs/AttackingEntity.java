@@ -1,6 +1,7 @@
 package net.laserdiamond.laserutils.entity.lu.mobs;
 
 import net.laserdiamond.laserutils.entity.EntityInterfaceBase;
+import net.laserdiamond.laserutils.entity.ai.AttackSetUp;
 import net.minecraft.network.syncher.EntityDataAccessor;
 import net.minecraft.world.entity.Entity;
 
@@ -30,4 +31,24 @@ public interface AttackingEntity<E extends Entity> extends EntityInterfaceBase<E
     {
         return this.entity().entityData.get(entityDataAccessor);
     }
+
+    /**
+     * Sets the {@link Entity} to the specified attacking state
+     * @param attack The {@link AttackSetUp} of the attack
+     * @param attacking The state of attacking. Set to true if the entity is attacking, false otherwise
+     */
+    default void setAttacking(AttackSetUp attack, boolean attacking)
+    {
+        this.setAttacking(attack.getEntityDataAccessor(), attacking);
+    }
+
+    /**
+     * Determines if the {@link Entity} is performing an attack
+     * @param attack The {@link AttackSetUp} of the attack
+     * @return True if the entity is performing the attack, false otherwise
+     */
+    default boolean isAttacking(AttackSetUp attack)
+    {
+        return this.isAttacking(attack.getEntityDataAccessor());
+    }
 }
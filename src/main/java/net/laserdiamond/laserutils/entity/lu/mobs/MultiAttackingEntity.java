@@ -2,6 +2,7 @@ package net.laserdiamond.laserutils.entity.lu.mobs;
 
 import net.laserdiamond.laserutils.LaserUtils;
 import net.laserdiamond.laserutils.entity.ai.AttackSetUp;
+import net.minecraft.network.syncher.EntityDataAccessor;
 import net.minecraft.world.entity.Entity;
 
 /**
@@ -46,6 +47,33 @@ import net.minecraft.world.entity.Entity;
  * }
  *
  * }</pre>
+ * <p>Entities with many attacks can instead store every attack in one {@linkplain #attackMaskAccessor() attack mask}, so that they only need one synced value.
+ * Their attacks' {@link AttackSetUp#getEntityDataAccessor()} can return null, and their animations are started and stopped when the mask changes instead of every tick:</p>
+ * <pre>{@code
+ *
+ *      public static final EntityDataAccessor<Integer> ATTACKS = SynchedEntityData.defineId(ExampleEntity.class, EntityDataSerializers.INT);
+ *
+ *      public EntityDataAccessor<Integer> attackMaskAccessor()
+ *      {
+ *          return ATTACKS;
+ *      }
+ *
+ *      public void onSyncedDataUpdated(EntityDataAccessor<?> key)
+ *      {
+ *          super.onSyncedDataUpdated(key);
+ *          this.updateAttackAnimations(key);
+ *      }
+ *
+ *      public void tick()
+ *      {
+ *          super.tick();
+ *          if (this.level().isClientSide)
+ *          {
+ *              this.tickAttackAnimations();
+ *          }
+ *      }
+ *
+ * }</pre>
  * @param <AE> The {@link AttackSetUp} {@link Enum}.
  * @param <E> The {@link Entity} class of the mob.
  */
@@ -53,10 +81,21 @@ public interface MultiAttackingEntity<AE extends Enum<AE> & AttackSetUp, E exten
 
     /**
      * The attack timeouts for each attack
-     * @return An array that contains each attack's timeout
+     * @return An array that contains each attack's timeout. Unused if the entity has an {@linkplain #animationTimeline() animation timeline}
      */
     int[] attackTimeouts();
 
+    /**
+     * The {@link AttackAnimationTimeline} of the entity, which stores the animation timing of every attack for this entity only.
+     * When not null, it is used instead of the {@link #attackTimeouts()} and the {@link AttackSetUp#getAnimationState()}s, which are shared by every entity of the type.
+     * The entity's model should then sample its attack animations through {@link net.laserdiamond.laserutils.entity.client.model.AbstractHierarchicalModel#animateAttack(AttackAnimationTimeline, AttackSetUp, net.minecraft.client.animation.AnimationDefinition, float)}
+     * @return The {@link AttackAnimationTimeline} of the entity, or null if the entity uses animation states. Defaults to null
+     */
+    default AttackAnimationTimeline animationTimeline()
+    {
+        return null;
+    }
+
     /**
      * Gets the attack timeout for the specified attack
      * @param attack The attack to get the timeout for
@@ -64,8 +103,18 @@ public interface MultiAttackingEntity<AE extends Enum<AE> & AttackSetUp, E exten
      */
     default int getAttackTimeout(AE attack)
     {
+        final AttackAnimationTimeline animationTimeline = this.animationTimeline();
+        if (animationTimeline != null)
+        {
+            return animationTimeline.timeout(attack.ordinal(), this.entity().tickCount);
+        }
         try
         {
+            if (this.attackMaskAccessor() != null)
+            {
+                final int endTick = this.attackTimeouts()[attack.ordinal()];
+                return endTick <= 0 ? 0 : Math.max(0, endTick - this.entity().tickCount); // Attack masks store the end tick of the animation
+            }
             return this.attackTimeouts()[attack.ordinal()];
         } catch (ArrayIndexOutOfBoundsException e)
         {
@@ -84,8 +133,19 @@ public interface MultiAttackingEntity<AE extends Enum<AE> & AttackSetUp, E exten
      */
     default void setAttackTimeout(AE attack, int timeout)
     {
+        final AttackAnimationTimeline animationTimeline = this.animationTimeline();
+        if (animationTimeline != null)
+        {
+            animationTimeline.setTimeout(attack.ordinal(), this.entity().tickCount, timeout);
+            return;
+        }
         try
         {
+            if (this.attackMaskAccessor() != null)
+            {
+                this.attackTimeouts()[attack.ordinal()] = timeout <= 0 ? 0 : this.entity().tickCount + timeout; // Attack masks store the end tick of the animation
+                return;
+            }
             this.attackTimeouts()[attack.ordinal()] = timeout;
         } catch (ArrayIndexOutOfBoundsException e)
         {
@@ -97,12 +157,25 @@ public interface MultiAttackingEntity<AE extends Enum<AE> & AttackSetUp, E exten
     }
 
     /**
-     * Sets up the {@link net.minecraft.world.entity.AnimationState}s for the attacks
+     * Sets up the {@link net.minecraft.world.entity.AnimationState}s for the attacks. Should be called every client tick for each attack by entities without an {@linkplain #attackMaskAccessor() attack mask}
      * @param attack The attack to set up the animation states for
      */
     default void setUpAttackAnimationStates(AE attack)
     {
-        if (this.isAttacking(attack.getEntityDataAccessor()) && this.getAttackTimeout(attack) <= 0) // Check if the entity is attacking and the timeout is less than or equal to 0
+        final AttackAnimationTimeline animationTimeline = this.animationTimeline();
+        if (animationTimeline != null)
+        {
+            if (!this.isAttacking(attack))
+            {
+                animationTimeline.stop(attack.ordinal()); // Entity is no longer performing the attack
+            } else if (!animationTimeline.isStarted(attack.ordinal()) || this.entity().tickCount >= animationTimeline.endTick(attack.ordinal()))
+            {
+                animationTimeline.start(attack.ordinal(), this.entity().tickCount, attack.getAnimationDuration()); // Start or loop the animation
+            }
+            return;
+        }
+
+        if (this.isAttacking(attack) && this.getAttackTimeout(attack) <= 0) // Check if the entity is attacking and the timeout is less than or equal to 0
         {
             this.attackTimeouts()[attack.ordinal()] = attack.getAnimationDuration(); // Entity is attacking, set the timeout to the animation duration
             attack.getAnimationState().start(this.entity().tickCount); // start the animation
@@ -111,9 +184,187 @@ public interface MultiAttackingEntity<AE extends Enum<AE> & AttackSetUp, E exten
             this.attackTimeouts()[attack.ordinal()]--; // Reduce the timeout by 1
         }
 
-        if (!this.isAttacking(attack.getEntityDataAccessor())) // Is the entity not attacking?
+        if (!this.isAttacking(attack)) // Is the entity not attacking?
         {
             attack.getAnimationState().stop(); // Stop the animation. Entity is no longer performing the attack
         }
     }
+
+    /**
+     * The {@link EntityDataAccessor} of the attack mask, which holds every attack of the entity as an {@linkplain AttackSetUp#attackBit() attack bit}.
+     * An attack mask can hold at most {@value Integer#SIZE} attacks, so only entities whose attack enum has at most {@value Integer#SIZE} constants can use one.
+     * In this mode, without an {@linkplain #animationTimeline() animation timeline}, the attack timeouts array holds the tick each running attack animation ends on, or 0 if the animation is not running.
+     * {@link #getAttackTimeout(Enum)} and {@link #setAttackTimeout(Enum, int)} still read and write the ticks left
+     * @return The {@link EntityDataAccessor} of the attack mask, or null if each attack has its own {@link AttackSetUp#getEntityDataAccessor()}. Defaults to null
+     */
+    default EntityDataAccessor<Integer> attackMaskAccessor()
+    {
+        return null;
+    }
+
+    /**
+     * Every attack of the entity, indexed by ordinal. Used by entities with an {@linkplain #attackMaskAccessor() attack mask}, every time the mask changes.
+     * By default, the values of the attack enum are found from the type argument the entity passes to {@link MultiAttackingEntity}, and cached per entity class.
+     * Entities whose attack enum can't be found that way, such as ones passing it through an unresolved type variable, should override this method and return a cached copy of the enum's values
+     * @return An array of every attack of the entity. Should not be modified
+     * @throws UnsupportedOperationException If the attack enum could not be found
+     */
+    @SuppressWarnings("unchecked")
+    default AE[] attacks() throws UnsupportedOperationException
+    {
+        final Object[] values = AttackValues.of(this.getClass());
+        if (values == null)
+        {
+            throw new UnsupportedOperationException("Could not find the attack enum of " + this.getClass().getName() + ", override MultiAttackingEntity#attacks()");
+        }
+        return (AE[]) values;
+    }
+
+    /**
+     * Sets the entity to the specified attacking state, setting the attack's bit in the attack mask if the entity has one
+     * @param attack The {@link AttackSetUp} of the attack
+     * @param attacking The state of attacking. Set to true if the entity is attacking, false otherwise
+     */
+    @Override
+    default void setAttacking(AttackSetUp attack, boolean attacking)
+    {
+        final EntityDataAccessor<Integer> maskAccessor = this.attackMaskAccessor();
+        if (maskAccessor == null)
+        {
+            AttackingEntity.super.setAttacking(attack, attacking);
+            return;
+        }
+        final int mask = this.entity().entityData.get(maskAccessor);
+        final int updatedMask = attacking ? mask | attack.attackBit() : mask & ~attack.attackBit();
+        if (updatedMask != mask)
+        {
+            this.entity().entityData.set(maskAccessor, updatedMask);
+        }
+    }
+
+    /**
+     * Determines if the entity is performing an attack, reading the attack's bit from the attack mask if the entity has one
+     * @param attack The {@link AttackSetUp} of the attack
+     * @return True if the entity is performing the attack, false otherwise
+     */
+    @Override
+    default boolean isAttacking(AttackSetUp attack)
+    {
+        final EntityDataAccessor<Integer> maskAccessor = this.attackMaskAccessor();
+        if (maskAccessor == null)
+        {
+            return AttackingEntity.super.isAttacking(attack);
+        }
+        return (this.entity().entityData.get(maskAccessor) & attack.attackBit()) != 0;
+    }
+
+    /**
+     * Starts the animations of attacks whose bit was set, and stops the animations of attacks whose bit was cleared.
+     * Should be called from the entity's {@link Entity#onSyncedDataUpdated(EntityDataAccessor)}. Does nothing on the server, or if the updated data is not the attack mask
+     * @param key The {@link EntityDataAccessor} that was updated
+     */
+    default void updateAttackAnimations(EntityDataAccessor<?> key)
+    {
+        final EntityDataAccessor<Integer> maskAccessor = this.attackMaskAccessor();
+        if (maskAccessor == null || !maskAccessor.equals(key) || !this.entity().level().isClientSide)
+        {
+            return;
+        }
+        final int mask = this.entity().entityData.get(maskAccessor);
+        for (AE attack : this.attacks())
+        {
+            final boolean attacking = (mask & attack.attackBit()) != 0;
+            final boolean running = this.isAttackAnimationStarted(attack);
+            if (attacking && !running)
+            {
+                this.startAttackAnimation(attack);
+            } else if (!attacking && running)
+            {
+                this.stopAttackAnimation(attack);
+            }
+        }
+    }
+
+    /**
+     * Restarts the animations of attacks that are still set in the attack mask once their animation has ended, so that held attacks loop.
+     * Should be called every client tick by entities with an attack mask. Only the attacks in the mask are checked, so this does nothing while the entity is not attacking
+     */
+    default void tickAttackAnimations()
+    {
+        final EntityDataAccessor<Integer> maskAccessor = this.attackMaskAccessor();
+        if (maskAccessor == null)
+        {
+            return;
+        }
+        int mask = this.entity().entityData.get(maskAccessor);
+        if (mask == 0)
+        {
+            return;
+        }
+        final AE[] attacks = this.attacks();
+        while (mask != 0)
+        {
+            final AE attack = attacks[Integer.numberOfTrailingZeros(mask)];
+            mask &= mask - 1; // Clear the lowest bit
+            if (this.entity().tickCount >= this.attackAnimationEndTick(attack))
+            {
+                this.startAttackAnimation(attack);
+            }
+        }
+    }
+
+    /**
+     * Determines if the animation of an attack of an entity with an attack mask is running
+     * @param attack The attack
+     * @return True if the animation is running, false otherwise
+     */
+    private boolean isAttackAnimationStarted(AE attack)
+    {
+        final AttackAnimationTimeline animationTimeline = this.animationTimeline();
+        return animationTimeline != null ? animationTimeline.isStarted(attack.ordinal()) : this.attackTimeouts()[attack.ordinal()] > 0;
+    }
+
+    /**
+     * Gets the tick the animation of an attack of an entity with an attack mask ends on
+     * @param attack The attack
+     * @return The end tick of the animation
+     */
+    private int attackAnimationEndTick(AE attack)
+    {
+        final AttackAnimationTimeline animationTimeline = this.animationTimeline();
+        return animationTimeline != null ? animationTimeline.endTick(attack.ordinal()) : this.attackTimeouts()[attack.ordinal()];
+    }
+
+    /**
+     * Starts the animation of an attack of an entity with an attack mask, and stores the tick the animation ends on
+     * @param attack The attack to start the animation of
+     */
+    private void startAttackAnimation(AE attack)
+    {
+        final int tickCount = this.entity().tickCount;
+        final AttackAnimationTimeline animationTimeline = this.animationTimeline();
+        if (animationTimeline != null)
+        {
+            animationTimeline.start(attack.ordinal(), tickCount, attack.getAnimationDuration());
+            return;
+        }
+        this.attackTimeouts()[attack.ordinal()] = Math.max(1, tickCount + attack.getAnimationDuration());
+        attack.getAnimationState().start(tickCount);
+    }
+
+    /**
+     * Stops the animation of an attack of an entity with an attack mask
+     * @param attack The attack to stop the animation of
+     */
+    private void stopAttackAnimation(AE attack)
+    {
+        final AttackAnimationTimeline animationTimeline = this.animationTimeline();
+        if (animationTimeline != null)
+        {
+            animationTimeline.stop(attack.ordinal());
+            return;
+        }
+        this.attackTimeouts()[attack.ordinal()] = 0;
+        attack.getAnimationState().stop();
+    }
 }
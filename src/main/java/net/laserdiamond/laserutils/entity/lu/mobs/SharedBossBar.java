@@ -0,0 +1,223 @@
+package net.laserdiamond.laserutils.entity.lu.mobs;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.server.level.ServerBossEvent;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A boss bar shown for one or more {@link AbstractBossMob}s, such as the bosses of a multi-boss fight, showing their combined health.
+ * Progress is quantized to a {@linkplain #setProgressSteps(int) number of steps} and sent at most once every {@linkplain #setMinUpdateInterval(int) minimum interval},
+ * so regeneration and damage over time don't send an update to every viewer almost every tick.
+ * Changes of at least the {@linkplain #setFlushThreshold(float) flush threshold}, and the death of a boss, are sent immediately.
+ * <p>Bosses that die stay on the bar with no health until every boss of the bar is dead, so the bar doesn't jump back up once a dead boss is removed.
+ * A player sees the bar while they see any of its bosses. Should only be accessed from the server thread</p>
+ */
+public final class SharedBossBar {
+
+    /**
+     * The amount of steps the progress is quantized to
+     */
+    private static int progressSteps = 200;
+
+    /**
+     * The minimum amount of ticks between two progress updates
+     */
+    private static int minUpdateInterval = 5;
+
+    /**
+     * The change in progress that is sent immediately
+     */
+    private static float flushThreshold = 0.05F;
+
+    /**
+     * The {@link ServerBossEvent} of the bar
+     */
+    private final ServerBossEvent bossEvent;
+
+    /**
+     * The bosses shown by the bar
+     */
+    private final List<AbstractBossMob<?>> bosses;
+
+    /**
+     * The amount of the bar's bosses each player sees
+     */
+    private final Reference2IntOpenHashMap<ServerPlayer> viewers;
+
+    /**
+     * The game time of the last progress update sent
+     */
+    private long lastUpdateGameTime;
+
+    /**
+     * The game time the bar was last updated on, so bosses sharing the bar only update it once per tick
+     */
+    private long lastCheckedGameTime;
+
+    /**
+     * Creates a new {@link SharedBossBar}
+     * @param bossEvent The {@link ServerBossEvent} of the bar
+     */
+    public SharedBossBar(ServerBossEvent bossEvent)
+    {
+        this.bossEvent = bossEvent;
+        this.bosses = new ArrayList<>();
+        this.viewers = new Reference2IntOpenHashMap<>();
+        this.lastUpdateGameTime = Long.MIN_VALUE;
+        this.lastCheckedGameTime = Long.MIN_VALUE;
+    }
+
+    /**
+     * Sets the amount of steps boss bar progress is quantized to. Defaults to 200
+     * @param progressSteps The amount of steps
+     * @throws IllegalArgumentException If the amount of steps is less than 1
+     */
+    public static void setProgressSteps(int progressSteps) throws IllegalArgumentException
+    {
+        if (progressSteps < 1)
+        {
+            throw new IllegalArgumentException("Boss bar progress steps must be at least 1! Value offered: " + progressSteps);
+        }
+        SharedBossBar.progressSteps = progressSteps;
+    }
+
+    /**
+     * Sets the minimum amount of ticks between two boss bar progress updates. Defaults to 5 ticks
+     * @param minUpdateInterval The interval in ticks
+     * @throws IllegalArgumentException If the interval is less than 0
+     */
+    public static void setMinUpdateInterval(int minUpdateInterval) throws IllegalArgumentException
+    {
+        if (minUpdateInterval < 0)
+        {
+            throw new IllegalArgumentException("Boss bar update interval cannot be less than 0! Value offered: " + minUpdateInterval);
+        }
+        SharedBossBar.minUpdateInterval = minUpdateInterval;
+    }
+
+    /**
+     * Sets the change in boss bar progress that is sent immediately, regardless of the minimum interval. Defaults to 0.05
+     * @param flushThreshold The change in progress, between 0 and 1
+     * @throws IllegalArgumentException If the threshold is not between 0 and 1
+     */
+    public static void setFlushThreshold(float flushThreshold) throws IllegalArgumentException
+    {
+        if (flushThreshold < 0 || flushThreshold > 1)
+        {
+            throw new IllegalArgumentException("Boss bar flush threshold must be between 0 and 1! Value offered: " + flushThreshold);
+        }
+        SharedBossBar.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * @return The {@link ServerBossEvent} of the bar
+     */
+    public ServerBossEvent getBossEvent()
+    {
+        return this.bossEvent;
+    }
+
+    /**
+     * Adds a boss to the bar. If every boss of the bar is dead, the fight is over and the dead bosses are dropped first
+     * @param boss The {@link AbstractBossMob} to add
+     */
+    void addBoss(AbstractBossMob<?> boss)
+    {
+        if (!this.bosses.contains(boss))
+        {
+            if (this.bosses.stream().allMatch(AbstractBossMob::isDeadOrDying))
+            {
+                this.bosses.clear();
+            }
+            this.bosses.add(boss);
+            this.update(boss.level().getGameTime(), true);
+        }
+    }
+
+    /**
+     * Removes a boss from the bar, such as when it is unloaded or discarded. Bosses that died should not be removed, so they keep counting toward the bar's max health
+     * @param boss The {@link AbstractBossMob} to remove
+     */
+    void removeBoss(AbstractBossMob<?> boss)
+    {
+        if (this.bosses.remove(boss))
+        {
+            this.update(boss.level().getGameTime(), true);
+        }
+    }
+
+    /**
+     * Shows the bar to a player that started seeing one of its bosses
+     * @param serverPlayer The {@link ServerPlayer}
+     */
+    void addViewer(ServerPlayer serverPlayer)
+    {
+        if (this.viewers.addTo(serverPlayer, 1) == 0)
+        {
+            this.bossEvent.addPlayer(serverPlayer);
+        }
+    }
+
+    /**
+     * Hides the bar from a player that stopped seeing one of its bosses, if they don't see any other of its bosses
+     * @param serverPlayer The {@link ServerPlayer}
+     */
+    void removeViewer(ServerPlayer serverPlayer)
+    {
+        final int count = this.viewers.getInt(serverPlayer);
+        if (count <= 1)
+        {
+            this.viewers.removeInt(serverPlayer);
+            this.bossEvent.removePlayer(serverPlayer);
+        } else
+        {
+            this.viewers.put(serverPlayer, count - 1);
+        }
+    }
+
+    /**
+     * Updates the progress of the bar from the combined health of its bosses
+     * @param gameTime The current game time
+     * @param force True to send the progress now if it changed, such as when a boss dies. False to respect the minimum interval
+     */
+    void update(long gameTime, boolean force)
+    {
+        if (!force && gameTime == this.lastCheckedGameTime)
+        {
+            return; // Already updated by another boss this tick
+        }
+        this.lastCheckedGameTime = gameTime;
+
+        float health = 0;
+        float maxHealth = 0;
+        for (AbstractBossMob<?> boss : this.bosses)
+        {
+            health += Math.max(0, boss.getHealth());
+            maxHealth += boss.getMaxHealth();
+        }
+        final float progress = maxHealth <= 0 ? 0 : quantize(health / maxHealth);
+        final float change = Math.abs(progress - this.bossEvent.getProgress());
+        if (change == 0)
+        {
+            return;
+        }
+        if (force || change >= flushThreshold || progress == 0 || gameTime - this.lastUpdateGameTime >= minUpdateInterval)
+        {
+            this.bossEvent.setProgress(progress);
+            this.lastUpdateGameTime = gameTime;
+        }
+    }
+
+    /**
+     * Quantizes progress to the {@linkplain #setProgressSteps(int) progress steps}, rounding up so a boss with any health left never shows an empty bar
+     * @param progress The progress, between 0 and 1
+     * @return The quantized progress
+     */
+    private static float quantize(float progress)
+    {
+        return Math.min(1F, (float) Math.ceil(progress * progressSteps) / progressSteps);
+    }
+}
@@ -1,5 +1,7 @@
 package net.laserdiamond.laserutils.item.equipment.tools;
 
+import net.laserdiamond.laserutils.network.ItemAbilityResultS2CPacket;
+import net.minecraft.world.entity.player.Player;
 import net.minecraftforge.client.event.InputEvent;
 import net.minecraftforge.event.network.CustomPayloadEvent;
 import net.laserdiamond.laserutils.client.LUKeyBindings;
@@ -21,6 +23,14 @@ public interface AbilityItem {
      */
     void onClient(InputEvent.Key event);
 
+    /**
+     * Called on the client when the server rejects an activation that was already predicted by {@link #onClient(InputEvent.Key)}.
+     * Override to roll back any client side effects of the ability. Does nothing if not overridden
+     * @param player The {@linkplain net.minecraft.client.player.LocalPlayer client player}
+     * @param result The {@link ItemAbilityResultS2CPacket.Result} explaining why the activation was rejected
+     */
+    default void onClientRejected(Player player, ItemAbilityResultS2CPacket.Result result) {}
+
     /**
      * @return The duration of the ability's cooldown in ticks
      */
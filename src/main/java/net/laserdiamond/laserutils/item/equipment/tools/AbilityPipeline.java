@@ -0,0 +1,274 @@
+package net.laserdiamond.laserutils.item.equipment.tools;
+
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.Item;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.living.LivingDeathEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link AbilityTask}s in three stages: a snapshot on the server thread, a computation on a worker thread, and an apply step back on the server thread at the start of a later tick.
+ * Expensive ability logic, such as area scans or searches, then no longer adds its full cost to the tick.
+ * <p>A task is cancelled if its player dies, logs out, or is no longer holding the item the ability was used with once the result is ready</p>
+ */
+public final class AbilityPipeline {
+
+    /**
+     * The worker pool for non-blocking computations
+     */
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), new ThreadFactory()
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable, "LaserUtils Ability Worker-" + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * The executor for blocking computations
+     */
+    private static final ExecutorService BLOCKING_WORKERS = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("LaserUtils Blocking Ability Worker-", 1).factory());
+
+    /**
+     * Jobs whose computation finished, waiting to be applied on the server thread
+     */
+    private static final ConcurrentLinkedQueue<Job<?, ?>> COMPLETED = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The jobs that have not been applied or cancelled yet, per player. Only accessed from the server thread
+     */
+    private static final Map<UUID, List<Job<?, ?>>> RUNNING = new HashMap<>();
+
+    private AbilityPipeline() {}
+
+    /**
+     * Submits an {@link AbilityTask} for a player. Must be called on the server thread, usually from {@link AbilityItem#onServer(net.minecraftforge.event.network.CustomPayloadEvent.Context)}
+     * or {@link DurationAbilityItem#whileAbilityActive(TickEvent.PlayerTickEvent)}
+     * @param player The {@link ServerPlayer} using the ability
+     * @param task The {@link AbilityTask} to run
+     * @param <S> The type of the snapshot
+     * @param <R> The type of the result
+     * @return The submitted {@link Job}, which can be {@linkplain Job#cancel() cancelled}
+     */
+    public static <S, R> Job<S, R> submit(ServerPlayer player, AbilityTask<S, R> task)
+    {
+        final Job<S, R> job = new Job<>(player, task, task.snapshot(player));
+        RUNNING.computeIfAbsent(player.getUUID(), uuid -> new ArrayList<>()).add(job);
+        job.future = (task.blocking() ? BLOCKING_WORKERS : WORKERS).submit(job::compute);
+        return job;
+    }
+
+    /**
+     * Applies every job whose computation has finished
+     */
+    private static void applyCompleted()
+    {
+        Job<?, ?> job;
+        while ((job = COMPLETED.poll()) != null)
+        {
+            final List<Job<?, ?>> jobs = RUNNING.get(job.player.getUUID());
+            if (jobs != null && jobs.remove(job) && jobs.isEmpty())
+            {
+                RUNNING.remove(job.player.getUUID());
+            }
+            if (job.isCancelled() || !job.computed || job.player.isRemoved() || !job.player.isAlive() || job.player.getMainHandItem().getItem() != job.item)
+            {
+                continue; // The result no longer applies
+            }
+            try
+            {
+                job.apply();
+            } catch (RuntimeException e)
+            {
+                LaserUtils.LOGGER.error("Failed to apply ability task {}", job.task.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Cancels every job of a player
+     * @param uuid The {@link UUID} of the player
+     */
+    private static void cancelAll(UUID uuid)
+    {
+        final List<Job<?, ?>> jobs = RUNNING.remove(uuid);
+        if (jobs != null)
+        {
+            jobs.forEach(Job::cancel);
+        }
+    }
+
+    /**
+     * An {@link AbilityTask} submitted to the {@link AbilityPipeline}
+     * @param <S> The type of the snapshot
+     * @param <R> The type of the result
+     */
+    public static final class Job<S, R>
+    {
+        private final ServerPlayer player;
+        private final AbilityTask<S, R> task;
+        private final S snapshot;
+        private final Item item;
+        private volatile boolean cancelled;
+        private volatile boolean computed;
+        private final AtomicBoolean queued;
+        private volatile Future<?> future;
+        private R result;
+
+        /**
+         * Creates a new {@link Job}
+         * @param player The {@link ServerPlayer} using the ability
+         * @param task The {@link AbilityTask}
+         * @param snapshot The snapshot taken on the server thread
+         */
+        private Job(ServerPlayer player, AbilityTask<S, R> task, S snapshot)
+        {
+            this.player = player;
+            this.task = task;
+            this.snapshot = snapshot;
+            this.item = player.getMainHandItem().getItem();
+            this.cancelled = false;
+            this.computed = false;
+            this.queued = new AtomicBoolean();
+        }
+
+        /**
+         * Runs the computation. Called on a worker thread.
+         * The job is always handed back to the server thread, even if the computation failed or was interrupted, so it is removed from the running jobs
+         */
+        private void compute()
+        {
+            try
+            {
+                if (!this.cancelled)
+                {
+                    this.result = this.task.compute(this.snapshot);
+                    this.computed = true;
+                }
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e)
+            {
+                if (!this.cancelled)
+                {
+                    LaserUtils.LOGGER.error("Failed to compute ability task {}", this.task.getClass().getName(), e);
+                }
+            } finally
+            {
+                this.complete(); // Publishes the result to the server thread
+            }
+        }
+
+        /**
+         * Hands the job back to the server thread, once
+         */
+        private void complete()
+        {
+            if (this.queued.compareAndSet(false, true))
+            {
+                COMPLETED.add(this);
+            }
+        }
+
+        /**
+         * Applies the result. Called on the server thread
+         */
+        private void apply()
+        {
+            this.task.apply(this.player, this.result);
+        }
+
+        /**
+         * Cancels the job. Its computation is interrupted if running, and its result is never applied.
+         * The job is handed back to the server thread right away, as a computation cancelled before it started never runs
+         */
+        public void cancel()
+        {
+            this.cancelled = true;
+            final Future<?> future = this.future;
+            if (future != null)
+            {
+                future.cancel(true);
+            }
+            this.complete();
+        }
+
+        /**
+         * @return True if the job was cancelled
+         */
+        public boolean isCancelled()
+        {
+            return this.cancelled;
+        }
+    }
+
+    /**
+     * Ability pipeline events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class PipelineEvents
+    {
+        /**
+         * Applies the finished jobs at the start of every server tick
+         * @param event The {@link TickEvent.ServerTickEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onServerTick(TickEvent.ServerTickEvent event)
+        {
+            if (event.phase == TickEvent.Phase.START)
+            {
+                applyCompleted();
+            }
+        }
+
+        /**
+         * Cancels the jobs of a player that died
+         * @param event The {@link LivingDeathEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onPlayerDeath(LivingDeathEvent event)
+        {
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+            {
+                cancelAll(serverPlayer.getUUID());
+            }
+        }
+
+        /**
+         * Cancels the jobs of a player that logged out
+         * @param event The {@link PlayerEvent.PlayerLoggedOutEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event)
+        {
+            cancelAll(event.getEntity().getUUID());
+        }
+
+        /**
+         * Cancels every job once the server stops
+         * @param event The {@link ServerStoppedEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onServerStopped(ServerStoppedEvent event)
+        {
+            RUNNING.values().forEach(jobs -> jobs.forEach(Job::cancel));
+            RUNNING.clear();
+            COMPLETED.clear();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package net.laserdiamond.laserutils.item.equipment.tools;
+
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * An ability effect split into three stages, so its expensive part can run off the server thread through the {@link AbilityPipeline}
+ * @param <S> The type of the snapshot of the world the ability needs
+ * @param <R> The type of the result of the ability's computation
+ */
+public interface AbilityTask<S, R> {
+
+    /**
+     * Copies the state the ability needs from the world. Runs on the server thread
+     * @param player The {@link ServerPlayer} using the ability
+     * @return The snapshot. Must not be modified by the world after it is returned
+     */
+    S snapshot(ServerPlayer player);
+
+    /**
+     * Computes the ability's result from the snapshot. Runs on a worker thread, so it must not access the level, entities, or any other state owned by the server thread
+     * @param snapshot The snapshot taken by {@link #snapshot(ServerPlayer)}
+     * @return The result to apply
+     * @throws InterruptedException If the computation was interrupted because the ability was cancelled
+     */
+    R compute(S snapshot) throws InterruptedException;
+
+    /**
+     * Applies the result of the computation to the world. Runs on the server thread, and only if the ability was not cancelled
+     * @param player The {@link ServerPlayer} using the ability
+     * @param result The result returned by {@link #compute(Object)}
+     */
+    void apply(ServerPlayer player, R result);
+
+    /**
+     * Determines if {@link #compute(Object)} blocks, such as waiting on disk or remote lookups.
+     * Blocking tasks run on virtual threads instead of the fixed worker pool, so they don't hold up other abilities
+     * @return True if the computation blocks, false otherwise. Defaults to false
+     */
+    default boolean blocking()
+    {
+        return false;
+    }
+}
@@ -0,0 +1,278 @@
+package net.laserdiamond.laserutils.item.equipment.tools;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.laserdiamond.laserutils.capability.AbstractCapabilityData;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.Item;
+import net.minecraftforge.common.capabilities.AutoRegisterCapability;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.common.capabilities.CapabilityToken;
+import net.minecraftforge.server.ServerLifecycleHooks;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@linkplain AbstractCapabilityData Capability data} holding the active {@link DurationAbilityItem.DurationAbility}s of a player.
+ * Each {@link DurationAbilityItem} is given an ID on first use, which indexes directly into this player's array of active abilities.
+ * <p>Abilities are only stored on the logical server. Abilities of {@link DurationAbilityItem}s that {@linkplain DurationAbilityItem#persistsAcrossRelog() persist across relog}
+ * are saved with the player, and resume when the player logs back in</p>
+ */
+@AutoRegisterCapability
+public final class ActiveAbilities extends AbstractCapabilityData<ActiveAbilities> {
+
+    /**
+     * The {@link Capability} of the {@link ActiveAbilities}
+     */
+    public static final Capability<ActiveAbilities> CAPABILITY = CapabilityManager.get(new CapabilityToken<>() {});
+
+    /**
+     * The ID of each {@link DurationAbilityItem}, assigned on first use
+     */
+    private static final Reference2IntOpenHashMap<DurationAbilityItem> IDS = new Reference2IntOpenHashMap<>();
+
+    static
+    {
+        IDS.defaultReturnValue(-1);
+    }
+
+    /**
+     * The player that owns the abilities
+     */
+    private final Player owner;
+
+    /**
+     * The active abilities, indexed by the ID of their {@link DurationAbilityItem}
+     */
+    private DurationAbilityItem.DurationAbility[] abilities;
+
+    /**
+     * The amount of active abilities
+     */
+    private int activeCount;
+
+    /**
+     * Persisted abilities loaded from NBT that have not resumed yet
+     */
+    private final List<RestoredAbility> restoredAbilities;
+
+    /**
+     * Creates a new {@link ActiveAbilities}
+     * @param owner The {@link Player} that owns the abilities
+     */
+    public ActiveAbilities(Player owner)
+    {
+        this.owner = owner;
+        this.abilities = new DurationAbilityItem.DurationAbility[0];
+        this.activeCount = 0;
+        this.restoredAbilities = new ArrayList<>();
+    }
+
+    /**
+     * Gets the {@link ActiveAbilities} of a {@link Player}
+     * @param player The {@link Player}
+     * @return The {@link ActiveAbilities} of the {@link Player}, or null if the capability is not attached
+     */
+    @Nullable
+    public static ActiveAbilities of(Player player)
+    {
+        return player.getCapability(CAPABILITY).orElse(null);
+    }
+
+    /**
+     * Gets the ID of a {@link DurationAbilityItem}, assigning a new one if it doesn't have one yet
+     * @param abilityItem The {@link DurationAbilityItem}
+     * @return The ID of the {@link DurationAbilityItem}
+     */
+    private static synchronized int idOf(DurationAbilityItem abilityItem)
+    {
+        int id = IDS.getInt(abilityItem);
+        if (id == -1)
+        {
+            id = IDS.size();
+            IDS.put(abilityItem, id);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the active ability of a {@link DurationAbilityItem}
+     * @param abilityItem The {@link DurationAbilityItem}
+     * @return The active {@link DurationAbilityItem.DurationAbility}, or null if the item's ability is not active
+     */
+    @Nullable
+    public DurationAbilityItem.DurationAbility get(DurationAbilityItem abilityItem)
+    {
+        final int id = idOf(abilityItem);
+        return id < this.abilities.length ? this.abilities[id] : null;
+    }
+
+    /**
+     * Activates a {@link DurationAbilityItem.DurationAbility}, scheduling its end on the {@link DurationAbilityItem.AbilityTimingWheel}
+     * @param durationAbility The {@link DurationAbilityItem.DurationAbility} to activate
+     * @return True if the ability was activated, false if the item's ability is already active
+     */
+    public boolean add(DurationAbilityItem.DurationAbility durationAbility)
+    {
+        final int id = idOf(durationAbility.abilityItem);
+        if (id >= this.abilities.length)
+        {
+            this.abilities = Arrays.copyOf(this.abilities, id + 1);
+        }
+        if (this.abilities[id] != null)
+        {
+            return false;
+        }
+        this.abilities[id] = durationAbility;
+        this.activeCount++;
+        DurationAbilityItem.AbilityTimingWheel.INSTANCE.schedule(this.owner.getUUID(), durationAbility);
+        return true;
+    }
+
+    /**
+     * Deactivates a {@link DurationAbilityItem.DurationAbility}
+     * @param durationAbility The {@link DurationAbilityItem.DurationAbility} to deactivate
+     * @return True if the ability was active, false otherwise
+     */
+    public boolean remove(DurationAbilityItem.DurationAbility durationAbility)
+    {
+        final int id = idOf(durationAbility.abilityItem);
+        if (id >= this.abilities.length || this.abilities[id] != durationAbility)
+        {
+            return false;
+        }
+        this.abilities[id] = null;
+        this.activeCount--;
+        return true;
+    }
+
+    /**
+     * Deactivates every ability
+     */
+    public void clear()
+    {
+        Arrays.fill(this.abilities, null);
+        this.activeCount = 0;
+        this.restoredAbilities.clear();
+    }
+
+    /**
+     * @return True if no ability is active
+     */
+    public boolean isEmpty()
+    {
+        return this.activeCount == 0;
+    }
+
+    /**
+     * Runs a {@link Consumer} for each active ability. Abilities activated by the {@link Consumer} are not included
+     * @param consumer The {@link Consumer} to run
+     */
+    public void forEachActive(Consumer<DurationAbilityItem.DurationAbility> consumer)
+    {
+        final DurationAbilityItem.DurationAbility[] abilities = this.abilities;
+        for (DurationAbilityItem.DurationAbility durationAbility : abilities)
+        {
+            if (durationAbility != null)
+            {
+                consumer.accept(durationAbility);
+            }
+        }
+    }
+
+    /**
+     * Resumes the persisted abilities loaded with the player
+     * @param player The {@link ServerPlayer} that owns the abilities
+     */
+    void resumeRestoredAbilities(ServerPlayer player)
+    {
+        final int serverTick = player.server.getTickCount();
+        for (RestoredAbility restored : this.restoredAbilities)
+        {
+            final DurationAbilityItem abilityItem = restored.abilityItem;
+            this.add(new DurationAbilityItem.DurationAbility(abilityItem, abilityItem::whileAbilityActive, serverTick + restored.remainingTicks - abilityItem.abilityDurationTicks()));
+        }
+        this.restoredAbilities.clear();
+    }
+
+    @Override
+    public void copyFrom(ActiveAbilities source)
+    {
+        this.clear();
+        this.restoredAbilities.addAll(source.restoredAbilities);
+    }
+
+    @Override
+    public void saveNBTData(CompoundTag nbt)
+    {
+        final MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        final ListTag list = new ListTag();
+        if (server != null)
+        {
+            this.forEachActive(durationAbility ->
+            {
+                final int remainingTicks = durationAbility.tickEndTime - server.getTickCount();
+                if (durationAbility.abilityItem.persistsAcrossRelog() && durationAbility.abilityItem instanceof Item item && remainingTicks > 0)
+                {
+                    list.add(save(item, remainingTicks));
+                }
+            });
+        }
+        for (RestoredAbility restored : this.restoredAbilities)
+        {
+            list.add(save((Item) restored.abilityItem, restored.remainingTicks));
+        }
+        if (!list.isEmpty())
+        {
+            nbt.put("Abilities", list);
+        }
+    }
+
+    /**
+     * Saves a persisted ability
+     * @param item The {@link Item} of the ability
+     * @param remainingTicks The remaining duration of the ability in ticks
+     * @return The saved ability
+     */
+    private static CompoundTag save(Item item, int remainingTicks)
+    {
+        final CompoundTag tag = new CompoundTag();
+        tag.putString("Item", BuiltInRegistries.ITEM.getKey(item).toString());
+        tag.putInt("Remaining", remainingTicks);
+        return tag;
+    }
+
+    @Override
+    public void loadNBTData(CompoundTag nbt)
+    {
+        this.restoredAbilities.clear();
+        final ListTag list = nbt.getList("Abilities", Tag.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++)
+        {
+            final CompoundTag tag = list.getCompound(i);
+            final ResourceLocation itemId = ResourceLocation.tryParse(tag.getString("Item"));
+            if (itemId != null && BuiltInRegistries.ITEM.get(itemId) instanceof DurationAbilityItem abilityItem && abilityItem.persistsAcrossRelog())
+            {
+                this.restoredAbilities.add(new RestoredAbility(abilityItem, tag.getInt("Remaining")));
+            }
+        }
+    }
+
+    /**
+     * A persisted ability that has not resumed yet
+     * @param abilityItem The {@link DurationAbilityItem} of the ability
+     * @param remainingTicks The remaining duration of the ability in ticks
+     */
+    private record RestoredAbility(DurationAbilityItem abilityItem, int remainingTicks) {}
+}
@@ -0,0 +1,72 @@
+package net.laserdiamond.laserutils.item.equipment.tools;
+
+import net.laserdiamond.laserutils.LaserUtils;
+import net.laserdiamond.laserutils.capability.AbstractCapability;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * {@linkplain AbstractCapability Capability} that attaches the {@link ActiveAbilities} to every {@link Player}
+ */
+public final class ActiveAbilitiesCapability extends AbstractCapability<Player, ActiveAbilities> {
+
+    /**
+     * The {@link ResourceLocation} of the capability
+     */
+    public static final ResourceLocation ID = ResourceLocation.fromNamespaceAndPath(LaserUtils.MODID, "active_abilities");
+
+    /**
+     * The {@link ActiveAbilities} of the player. Always returns the same instance, as it is also used to save and load the capability
+     */
+    private final ActiveAbilities activeAbilities;
+
+    /**
+     * Creates a new {@link ActiveAbilitiesCapability}
+     * @param player The {@link Player} the capability is attached to
+     */
+    public ActiveAbilitiesCapability(Player player)
+    {
+        super(player);
+        this.activeAbilities = new ActiveAbilities(player);
+    }
+
+    @Override
+    protected Capability<ActiveAbilities> createCapability()
+    {
+        return ActiveAbilities.CAPABILITY;
+    }
+
+    @Override
+    protected ActiveAbilities createCapabilityData()
+    {
+        return this.activeAbilities;
+    }
+
+    /**
+     * Active ability capability events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class CapabilityEvents
+    {
+        /**
+         * Attaches the {@link ActiveAbilities} to players
+         * @param event The {@link AttachCapabilitiesEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onAttachCapabilities(AttachCapabilitiesEvent<Entity> event)
+        {
+            if (event.getObject() instanceof Player player)
+            {
+                if (!player.getCapability(ActiveAbilities.CAPABILITY).isPresent())
+                {
+                    event.addCapability(ID, new ActiveAbilitiesCapability(player));
+                }
+            }
+        }
+    }
+}
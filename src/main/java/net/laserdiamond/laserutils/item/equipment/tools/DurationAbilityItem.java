@@ -1,17 +1,19 @@
 package net.laserdiamond.laserutils.item.equipment.tools;
 
 import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.player.Player;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.network.CustomPayloadEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.common.Mod;
 import net.laserdiamond.laserutils.client.LUKeyBindings;
 
-import java.util.*;
-import java.util.function.BiConsumer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 import java.util.function.Consumer;
 
 /**
@@ -38,12 +40,26 @@ public interface DurationAbilityItem extends AbilityItem {
             return;
         }
 
-        AbilityActiveMap.INSTANCE.addAbility(serverPlayer, new DurationAbility(this, this::whileAbilityActive, serverPlayer.tickCount));
+        final ActiveAbilities activeAbilities = ActiveAbilities.of(serverPlayer);
+        if (activeAbilities != null)
+        {
+            activeAbilities.add(new DurationAbility(this, this::whileAbilityActive, serverPlayer.server.getTickCount()));
+        }
+    }
+
+    /**
+     * Determines if the ability stays active when the player logs out and back in.
+     * If true, the remaining duration is saved with the player, and the ability resumes when they log back in. Abilities always end when the player changes dimension or dies
+     * @return True if the ability persists across relog, false otherwise. Defaults to false
+     */
+    default boolean persistsAcrossRelog()
+    {
+        return false;
     }
 
     /**
-     * Called while the ability is active
-     * @param event The {@link TickEvent.PlayerTickEvent}
+     * Called once per tick while the ability is active, at the end of the owning player's tick
+     * @param event The {@link TickEvent.PlayerTickEvent} of the player that activated the ability
      */
     void whileAbilityActive(TickEvent.PlayerTickEvent event);
 
@@ -55,128 +71,147 @@ public interface DurationAbilityItem extends AbilityItem {
     {
 
         /**
-         * Called every player tick
+         * Runs the active abilities of the ticking player
          * @param event The {@link net.minecraftforge.event.TickEvent.PlayerTickEvent} to listen for
          */
         @SubscribeEvent
         public static void onPlayerTick(TickEvent.PlayerTickEvent event)
         {
-            final Player player = event.player;
-            int tickTime = player.tickCount;
-            if (event.side == LogicalSide.SERVER)
+            if (event.side != LogicalSide.SERVER || event.phase != TickEvent.Phase.END)
             {
-                final AbilityActiveMap activeMap = AbilityActiveMap.INSTANCE;
-
-                activeMap.forEach((uuid, durationAbilities) ->
-                {
-                    Iterator<DurationAbility> activeAbilities = durationAbilities.iterator();
-                    while (activeAbilities.hasNext())
-                    {
-                        DurationAbility durationAbility = activeAbilities.next();
-                        int endTime = durationAbility.tickEndTime;
-
-                        durationAbility.abilityItem.whileAbilityActive(event);
-
-                        if (endTime < tickTime)
-                        {
-                            activeAbilities.remove();
-                        }
-                    }
-                });
-
+                return;
+            }
+            final ActiveAbilities activeAbilities = ActiveAbilities.of(event.player);
+            if (activeAbilities != null && !activeAbilities.isEmpty())
+            {
+                activeAbilities.forEachActive(durationAbility -> durationAbility.ability.accept(event));
             }
         }
-    }
-
-    /**
-     * Class that helps keep track of active player abilities
-     */
-    class AbilityActiveMap
-    {
-        public static final AbilityActiveMap INSTANCE = new AbilityActiveMap();
-
-        private final HashMap<UUID, List<DurationAbility>> playerAbilities;
 
         /**
-         * Creates a new {@link AbilityActiveMap}
+         * Removes the abilities that end on this tick, after every player has ticked
+         * @param event The {@link TickEvent.ServerTickEvent} to listen for
          */
-        private AbilityActiveMap()
+        @SubscribeEvent
+        public static void onServerTick(TickEvent.ServerTickEvent event)
         {
-            this.playerAbilities = new HashMap<>();
+            if (event.phase == TickEvent.Phase.END)
+            {
+                AbilityTimingWheel.INSTANCE.advanceTo(event.getServer());
+            }
         }
 
         /**
-         * Runs a {@link BiConsumer} for each entry of the {@link AbilityActiveMap#playerAbilities}
-         * @param biConsumer The {@link BiConsumer} to run for each entry
+         * Resumes the persisted abilities of the player
+         * @param event The {@link PlayerEvent.PlayerLoggedInEvent} to listen for
          */
-        public void forEach(BiConsumer<UUID, List<DurationAbility>> biConsumer)
+        @SubscribeEvent
+        public static void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event)
         {
-            this.playerAbilities.forEach(biConsumer);
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+            {
+                final ActiveAbilities activeAbilities = ActiveAbilities.of(serverPlayer);
+                if (activeAbilities != null)
+                {
+                    activeAbilities.resumeRestoredAbilities(serverPlayer);
+                }
+            }
         }
 
         /**
-         * Adds a new {@link DurationAbility} to the {@link Player}'s {@link List} of currently active {@link DurationAbility}s
-         * @param player The {@link Player}'s {@link List} to modify
-         * @param durationAbility The {@link DurationAbility} to add
-         * @return False if the {@link Player} doesn't have a {@link List} of active abilities mapped yet or if the {@link DurationAbility} is already active for the {@link Player}.
-         * Returns true only if the {@link DurationAbility} was added and wasn't previously present.
+         * Ends every ability of the player
+         * @param event The {@link PlayerEvent.PlayerChangedDimensionEvent} to listen for
          */
-        public boolean addAbility(Player player, DurationAbility durationAbility)
+        @SubscribeEvent
+        public static void onChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event)
         {
-            List<DurationAbility> abilities = new ArrayList<>();
-            if (this.hasKey(player))
+            final ActiveAbilities activeAbilities = ActiveAbilities.of(event.getEntity());
+            if (activeAbilities != null)
             {
-                abilities = this.playerAbilities.get(player.getUUID());
+                activeAbilities.clear();
             }
-            if (abilities.contains(durationAbility))
-            {
-                return false;
-            }
-            abilities.add(durationAbility);
-            this.playerAbilities.put(player.getUUID(), abilities);
-            return true;
         }
+    }
+
+    /**
+     * Hashed timing wheel that removes {@link DurationAbility}s from their owner's {@link ActiveAbilities} once they end.
+     * Abilities are placed in the slot of their end tick, so each server tick only looks at the abilities that could end on that tick
+     */
+    class AbilityTimingWheel
+    {
+        public static final AbilityTimingWheel INSTANCE = new AbilityTimingWheel();
+
+        /**
+         * The amount of slots in the wheel. Must be a power of two. Abilities longer than this stay in their slot for several turns of the wheel
+         */
+        private static final int SLOTS = 512;
+
+        private final List<ScheduledAbility>[] slots;
+        private int currentTick;
+        private boolean started;
 
         /**
-         * Removes a {@link DurationAbility} from the {@link Player}
-         * @param player The {@link Player}'s {@link List} to modify
-         * @param durationAbility The {@link DurationAbility} to remove
-         * @return False if the {@link Player} doesn't have a {@link List} of active abilities mapped yet or if the {@link DurationAbility} isn't active for the {@link Player}.
-         * Returns true only if the {@link DurationAbility} was previously present
+         * Creates a new {@link AbilityTimingWheel}
          */
-        public boolean removeAbility(Player player, DurationAbility durationAbility)
+        @SuppressWarnings("unchecked")
+        private AbilityTimingWheel()
         {
-            if (!this.hasKey(player) || !this.getActiveAbilities(player).contains(durationAbility))
+            this.slots = new List[SLOTS];
+            for (int i = 0; i < SLOTS; i++)
             {
-                return false;
+                this.slots[i] = new ArrayList<>();
             }
-            return this.playerAbilities.get(player.getUUID()).remove(durationAbility);
         }
 
         /**
-         * Gets a {@link List} of active {@link DurationAbility}s of the {@link Player}
-         * @param player The {@link Player} to get the active {@link DurationAbility}s of
-         * @return A new {@link List} if one isn't present for the {@link Player}, otherwise, returns the {@link List} of {@link DurationAbility}s mapped to the {@link Player}.
+         * Schedules the removal of a {@link DurationAbility} at the end of its {@link DurationAbility#tickEndTime}
+         * @param owner The {@link UUID} of the player that owns the ability
+         * @param durationAbility The {@link DurationAbility}
          */
-        public List<DurationAbility> getActiveAbilities(Player player)
+        void schedule(UUID owner, DurationAbility durationAbility)
         {
-            if (this.hasKey(player))
-            {
-                return new ArrayList<>();
-            }
-            return this.playerAbilities.get(player.getUUID());
+            this.slots[durationAbility.tickEndTime & (SLOTS - 1)].add(new ScheduledAbility(owner, durationAbility));
         }
 
         /**
-         * Determines if the {@link Player} has a {@link List} in the {@link #playerAbilities}
-         * @param player The {@link Player} to check
-         * @return True if there is a {@link List} mapped to the {@link Player}, false otherwise
+         * Turns the wheel to the current server tick, removing every ability that ends on or before it
+         * @param server The {@link MinecraftServer}
          */
-        private boolean hasKey(Player player)
+        private void advanceTo(MinecraftServer server)
         {
-            return this.playerAbilities.get(player.getUUID()) != null && this.playerAbilities.containsKey(player.getUUID());
+            final int serverTick = server.getTickCount();
+            if (!this.started || serverTick - this.currentTick > SLOTS || serverTick < this.currentTick)
+            {
+                this.currentTick = serverTick - 1; // Every slot is visited within one turn, so there is never a need to go further back
+                this.started = true;
+            }
+            while (this.currentTick < serverTick)
+            {
+                this.currentTick++;
+                final int tick = this.currentTick;
+                this.slots[tick & (SLOTS - 1)].removeIf(scheduled ->
+                {
+                    if (scheduled.ability.tickEndTime > tick)
+                    {
+                        return false; // Ends on a later turn of the wheel
+                    }
+                    final ServerPlayer owner = server.getPlayerList().getPlayer(scheduled.owner);
+                    final ActiveAbilities activeAbilities = owner == null ? null : ActiveAbilities.of(owner);
+                    if (activeAbilities != null)
+                    {
+                        activeAbilities.remove(scheduled.ability); // Does nothing if the ability already ended
+                    }
+                    return true;
+                });
+            }
         }
 
+        /**
+         * An ability waiting to end
+         * @param owner The {@link UUID} of the player that owns the ability
+         * @param ability The {@link DurationAbility}
+         */
+        private record ScheduledAbility(UUID owner, DurationAbility ability) {}
     }
 
     /**
@@ -192,7 +227,7 @@ public interface DurationAbilityItem extends AbilityItem {
          * Creates a new {@link DurationAbility}
          * @param abilityItem The {@link DurationAbilityItem} that is capable of this ability
          * @param ability A {@link Consumer} that takes in a {@link TickEvent.PlayerTickEvent} which runs the logic of the ability
-         * @param ticks The time in ticks the player started the ability
+         * @param ticks The server tick the player started the ability on
          */
         public DurationAbility(DurationAbilityItem abilityItem, Consumer<TickEvent.PlayerTickEvent> ability, int ticks) {
             this.abilityItem = abilityItem;
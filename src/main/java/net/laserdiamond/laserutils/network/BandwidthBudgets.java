@@ -0,0 +1,185 @@
+package net.laserdiamond.laserutils.network;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.network.SimpleChannel;
+
+import java.util.*;
+
+/**
+ * Limits the amount of bytes sent to each player per server tick through the send methods of {@link NetworkPackets}.
+ * Packets with a {@linkplain NetworkPacket.Priority#LOW low priority} that would go over a player's budget are deferred to the next tick with budget left,
+ * while packets with a {@linkplain NetworkPacket.Priority#NORMAL normal priority} are always sent right away.
+ * <p>Sizes are estimated from the average encoded size of each packet type, as recorded by {@link NetworkStatistics}. Budgets are disabled by default</p>
+ * <p>Low priority packets to a player are always sent in the order they were sent, but normal priority packets may arrive before deferred low priority packets</p>
+ */
+public final class BandwidthBudgets {
+
+    /**
+     * The bytes each player has been sent during the current tick
+     */
+    private static final Reference2IntOpenHashMap<ServerPlayer> SPENT = new Reference2IntOpenHashMap<>();
+
+    /**
+     * The low priority packets waiting for budget, per player
+     */
+    private static final Map<ServerPlayer, ArrayDeque<Deferred>> DEFERRED = new LinkedHashMap<>();
+
+    /**
+     * The amount of bytes that can be sent to each player per tick. 0 if unlimited
+     */
+    private static int bytesPerTick = 0;
+
+    private BandwidthBudgets() {}
+
+    /**
+     * Sets the amount of bytes that can be sent to each player per tick before low priority packets are deferred
+     * @param bytesPerTick The amount of bytes per player per tick. 0 to disable budgets
+     * @throws IllegalArgumentException If the amount is less than 0
+     */
+    public static void setBytesPerTick(int bytesPerTick) throws IllegalArgumentException
+    {
+        if (bytesPerTick < 0)
+        {
+            throw new IllegalArgumentException("Bytes per tick cannot be less than 0! Value offered: " + bytesPerTick);
+        }
+        BandwidthBudgets.bytesPerTick = bytesPerTick;
+    }
+
+    /**
+     * Charges the estimated size of a packet to each of its receivers, and defers it for receivers over their budget. Called on the server thread
+     * @param channel The {@link SimpleChannel} the packet is sent through
+     * @param packet The {@link NetworkPacket} being sent
+     * @param players The {@link ServerPlayer}s receiving the packet
+     * @return The {@link ServerPlayer}s the packet should be sent to now. The same {@link Collection} is returned if no receiver was deferred
+     */
+    static Collection<ServerPlayer> charge(SimpleChannel channel, NetworkPacket packet, Collection<ServerPlayer> players)
+    {
+        final int size = NetworkStatistics.of(packet.getClass()).estimatedSize();
+        if (packet.priority() != NetworkPacket.Priority.LOW || bytesPerTick <= 0)
+        {
+            for (ServerPlayer player : players)
+            {
+                charge(player, size);
+            }
+            return players;
+        }
+        final List<ServerPlayer> receivers = new ArrayList<>(players.size());
+        for (ServerPlayer player : players)
+        {
+            if (!DEFERRED.containsKey(player) && canAfford(player, size)) // Packets already deferred for the player go first
+            {
+                charge(player, size);
+                receivers.add(player);
+            } else
+            {
+                DEFERRED.computeIfAbsent(player, p -> new ArrayDeque<>()).add(new Deferred(channel, packet));
+                NetworkStatistics.of(player).recordDeferred();
+            }
+        }
+        return receivers.size() == players.size() ? players : receivers;
+    }
+
+    /**
+     * Determines if a low priority packet can be sent to a player without going over their budget.
+     * A packet larger than the budget is still sent alone, so it can't be deferred forever
+     * @param player The {@link ServerPlayer}
+     * @param size The estimated size of the packet
+     * @return True if the packet can be sent now, false if it should be deferred
+     */
+    private static boolean canAfford(ServerPlayer player, int size)
+    {
+        final int spent = SPENT.getInt(player);
+        return spent == 0 || spent + size <= bytesPerTick;
+    }
+
+    /**
+     * Charges a packet to a player's budget
+     * @param player The {@link ServerPlayer}
+     * @param size The estimated size of the packet
+     */
+    private static void charge(ServerPlayer player, int size)
+    {
+        SPENT.addTo(player, size);
+        NetworkStatistics.of(player).recordSent(size);
+    }
+
+    /**
+     * Resets every budget, and sends deferred packets until each player's budget runs out
+     */
+    private static void startTick()
+    {
+        SPENT.clear();
+        final Iterator<Map.Entry<ServerPlayer, ArrayDeque<Deferred>>> iterator = DEFERRED.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            final Map.Entry<ServerPlayer, ArrayDeque<Deferred>> entry = iterator.next();
+            final ServerPlayer player = entry.getKey();
+            final ArrayDeque<Deferred> queue = entry.getValue();
+            Deferred deferred;
+            while ((deferred = queue.peek()) != null)
+            {
+                final int size = NetworkStatistics.of(deferred.packet.getClass()).estimatedSize();
+                if (bytesPerTick > 0 && !canAfford(player, size))
+                {
+                    break;
+                }
+                queue.poll();
+                charge(player, size);
+                deferred.packet.releaseShared(); // The bytes shared with the other receivers may be stale by now
+                deferred.channel.send(deferred.packet, PacketDistributor.PLAYER.with(player));
+            }
+            if (queue.isEmpty())
+            {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * A deferred packet
+     * @param channel The {@link SimpleChannel} the packet is sent through
+     * @param packet The deferred {@link NetworkPacket}
+     */
+    private record Deferred(SimpleChannel channel, NetworkPacket packet) {}
+
+    /**
+     * Bandwidth budget events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class BudgetEvents
+    {
+        /**
+         * Resets the budgets and sends deferred packets at the start of every server tick
+         * @param event The {@link TickEvent.ServerTickEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onServerTick(TickEvent.ServerTickEvent event)
+        {
+            if (event.phase == TickEvent.Phase.START)
+            {
+                startTick();
+            }
+        }
+
+        /**
+         * Drops the deferred packets of the player
+         * @param event The {@link PlayerEvent.PlayerLoggedOutEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event)
+        {
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+            {
+                DEFERRED.remove(serverPlayer);
+                SPENT.removeInt(serverPlayer);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.laserdiamond.laserutils.network;
+
+import net.laserdiamond.laserutils.capability.block.AbstractChunkBlockData;
+import net.laserdiamond.laserutils.capability.block.PalettedIntSection;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.event.network.CustomPayloadEvent;
+
+/**
+ * {@linkplain NetworkPacket Network Packet} used to sync a single section of {@linkplain AbstractChunkBlockData chunk block data} from the server to the client
+ * @param <CD> The {@linkplain AbstractChunkBlockData chunk block data} type
+ */
+public abstract class BlockDataSectionSyncS2CPacket<CD extends AbstractChunkBlockData<CD>> extends NetworkPacket {
+
+    protected final int chunkX;
+    protected final int chunkZ;
+    protected final int sectionY;
+
+    /**
+     * The synced section. Null if every block of the section has the default value
+     */
+    protected final PalettedIntSection section;
+
+    /**
+     * Creates a new {@linkplain BlockDataSectionSyncS2CPacket block data section sync packet}
+     * @param chunk The {@link LevelChunk} the {@linkplain CD data} is attached to
+     * @param data The {@linkplain CD chunk block data} to sync a section of
+     * @param sectionY The section Y coordinate of the section to sync
+     */
+    public BlockDataSectionSyncS2CPacket(LevelChunk chunk, CD data, int sectionY)
+    {
+        this.chunkX = chunk.getPos().x;
+        this.chunkZ = chunk.getPos().z;
+        this.sectionY = sectionY;
+        final PalettedIntSection section = data.getSection(sectionY);
+        this.section = section == null ? null : section.copy(); // Copy, as the packet is encoded off the main thread
+        if (this.section != null)
+        {
+            this.section.compact(); // Drop unused palette entries, so the palette is never larger than the section
+        }
+    }
+
+    /**
+     * Creates a new {@linkplain BlockDataSectionSyncS2CPacket block data section sync packet}
+     * @param buf The {@linkplain FriendlyByteBuf buffer} to read data from
+     */
+    public BlockDataSectionSyncS2CPacket(FriendlyByteBuf buf)
+    {
+        this.chunkX = buf.readInt();
+        this.chunkZ = buf.readInt();
+        this.sectionY = buf.readVarInt();
+        this.section = buf.readBoolean() ? PalettedIntSection.read(buf, this.defaultValue()) : null;
+    }
+
+    @Override
+    public void toBytes(FriendlyByteBuf buf)
+    {
+        buf.writeInt(this.chunkX);
+        buf.writeInt(this.chunkZ);
+        buf.writeVarInt(this.sectionY);
+        buf.writeBoolean(this.section != null);
+        if (this.section != null)
+        {
+            this.section.write(buf);
+        }
+    }
+
+    @Override
+    public void packetWork(CustomPayloadEvent.Context context)
+    {
+        final ClientLevel level = Minecraft.getInstance().level;
+        if (level == null)
+        {
+            return;
+        }
+        final LevelChunk chunk = level.getChunkSource().getChunkNow(this.chunkX, this.chunkZ);
+        if (chunk == null)
+        {
+            return;
+        }
+        chunk.getCapability(this.capability()).ifPresent(data -> data.setSection(this.sectionY, this.section));
+    }
+
+    /**
+     * The value used if the received section is malformed. This should match {@link AbstractChunkBlockData#defaultValue()}
+     * @return The default value of a block. Returns 0 if not overridden
+     */
+    protected int defaultValue()
+    {
+        return 0;
+    }
+
+    /**
+     * @return The {@linkplain Capability capability} to sync
+     */
+    protected abstract Capability<CD> capability();
+
+    /**
+     * Creates {@linkplain BlockDataSectionSyncS2CPacket block data section sync packets}. This is usually the constructor of the packet
+     * @param <CD> The {@linkplain AbstractChunkBlockData chunk block data} type
+     * @param <P> The {@linkplain BlockDataSectionSyncS2CPacket block data section sync packet} type
+     */
+    @FunctionalInterface
+    public interface Factory<CD extends AbstractChunkBlockData<CD>, P extends BlockDataSectionSyncS2CPacket<CD>>
+    {
+        /**
+         * Creates a new {@linkplain P block data section sync packet}
+         * @param chunk The {@link LevelChunk} the {@linkplain CD data} is attached to
+         * @param data The {@linkplain CD chunk block data} to sync a section of
+         * @param sectionY The section Y coordinate of the section to sync
+         * @return A new {@linkplain P block data section sync packet}
+         */
+        P create(LevelChunk chunk, CD data, int sectionY);
+    }
+}
@@ -0,0 +1,131 @@
+package net.laserdiamond.laserutils.network;
+
+import net.laserdiamond.laserutils.capability.AbstractCapabilityData;
+import net.laserdiamond.laserutils.capability.SyncVisibility;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.Entity;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.event.network.CustomPayloadEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@linkplain NetworkPacket Network Packet} sent from the server to the client containing the {@linkplain AbstractCapabilityData capability data} of many entities at once.
+ * Built by {@link CapabilitySnapshots} when a player logs in or starts tracking entities, instead of sending one {@link CapabilitySyncS2CPacket} per entity and capability.
+ */
+public final class CapabilitySnapshotS2CPacket extends NetworkPacket implements CompressiblePacket {
+
+    /**
+     * The IDs of the capabilities in this frame. Entries refer to a capability by its index in this {@link List}, so each ID is only written once per frame
+     */
+    private final List<ResourceLocation> capabilityIds;
+
+    /**
+     * The {@link Entry}s of this frame
+     */
+    private final List<Entry> entries;
+
+    /**
+     * Creates a new, empty {@link CapabilitySnapshotS2CPacket}
+     */
+    CapabilitySnapshotS2CPacket()
+    {
+        this.capabilityIds = new ArrayList<>();
+        this.entries = new ArrayList<>();
+    }
+
+    /**
+     * Creates a new {@link CapabilitySnapshotS2CPacket}, reading from a {@link FriendlyByteBuf}
+     * @param buf The {@link FriendlyByteBuf} to read from
+     */
+    public CapabilitySnapshotS2CPacket(FriendlyByteBuf buf)
+    {
+        this.capabilityIds = buf.readList(FriendlyByteBuf::readResourceLocation);
+        this.entries = buf.readList(b -> new Entry(b.readVarInt(), b.readVarInt(), b.readNbt()));
+    }
+
+    @Override
+    public void toBytes(FriendlyByteBuf buf)
+    {
+        buf.writeCollection(this.capabilityIds, FriendlyByteBuf::writeResourceLocation);
+        buf.writeCollection(this.entries, (b, entry) ->
+        {
+            b.writeVarInt(entry.entityId);
+            b.writeVarInt(entry.capabilityIndex);
+            b.writeNbt(entry.nbtTag);
+        });
+    }
+
+    /**
+     * Adds the {@linkplain AbstractCapabilityData capability data} of an {@link Entity} to this frame
+     * @param entityId The ID of the {@link Entity}
+     * @param capabilityId The ID the capability was {@linkplain CapabilitySnapshots#register(ResourceLocation, Capability) registered} under
+     * @param nbtTag The {@linkplain AbstractCapabilityData capability data} as a {@link CompoundTag}
+     */
+    void add(int entityId, ResourceLocation capabilityId, CompoundTag nbtTag)
+    {
+        int capabilityIndex = this.capabilityIds.indexOf(capabilityId);
+        if (capabilityIndex == -1)
+        {
+            capabilityIndex = this.capabilityIds.size();
+            this.capabilityIds.add(capabilityId);
+        }
+        this.entries.add(new Entry(entityId, capabilityIndex, nbtTag));
+    }
+
+    /**
+     * @return True if this frame does not contain any capability data
+     */
+    boolean isEmpty()
+    {
+        return this.entries.isEmpty();
+    }
+
+    /**
+     * Snapshots share the priority of {@link CapabilitySyncS2CPacket}s, so a deferred sync can never overwrite a newer snapshot
+     * @return {@link NetworkPacket.Priority#LOW}
+     */
+    @Override
+    protected Priority priority()
+    {
+        return Priority.LOW;
+    }
+
+    @Override
+    public void packetWork(CustomPayloadEvent.Context context)
+    {
+        final ClientLevel level = Minecraft.getInstance().level;
+        if (level == null)
+        {
+            return;
+        }
+        for (Entry entry : this.entries)
+        {
+            final Entity entity = level.getEntity(entry.entityId);
+            if (entity == null || entry.nbtTag == null || entry.capabilityIndex >= this.capabilityIds.size())
+            {
+                continue;
+            }
+            final Capability<? extends AbstractCapabilityData<?>> capability = CapabilitySnapshots.getCapability(this.capabilityIds.get(entry.capabilityIndex));
+            if (capability == null)
+            {
+                continue; // Capability is not registered on this client
+            }
+            final SyncVisibility.Audience audience = entity == Minecraft.getInstance().player ? SyncVisibility.Audience.SELF : SyncVisibility.Audience.TRACKERS; // The server reduced the payload for the same audience
+            entity.getCapability(capability).ifPresent(c -> c.mergeNBTData(entry.nbtTag, audience));
+        }
+    }
+
+    /**
+     * The capability data of a single {@link Entity}
+     * @param entityId The ID of the {@link Entity}
+     * @param capabilityIndex The index of the capability ID in {@link #capabilityIds}
+     * @param nbtTag The capability data as a {@link CompoundTag}
+     */
+    private record Entry(int entityId, int capabilityIndex, CompoundTag nbtTag) {}
+}
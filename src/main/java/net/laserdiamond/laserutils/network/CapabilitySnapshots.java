@@ -0,0 +1,255 @@
+package net.laserdiamond.laserutils.network;
+
+import net.laserdiamond.laserutils.LaserUtils;
+import net.laserdiamond.laserutils.capability.AbstractCapabilityData;
+import net.laserdiamond.laserutils.capability.SyncVisibility;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Sends the {@linkplain AbstractCapabilityData capability data} of entities to a player in bulk when the player logs in, respawns, changes dimension, or starts tracking entities.
+ * Instead of one {@link CapabilitySyncS2CPacket} per entity and capability, all entities a player started tracking during a tick are sent together at the end of the tick
+ * in as few {@link CapabilitySnapshotS2CPacket}s as the {@linkplain #setMaxFrameBytes(int) frame size cap} allows.
+ * <p>Capabilities must be {@linkplain #register(ResourceLocation, Capability) registered} on both the client and the server to be included in snapshots.</p>
+ */
+public final class CapabilitySnapshots {
+
+    /**
+     * The registered capabilities, mapped by their ID
+     */
+    private static final LinkedHashMap<ResourceLocation, Capability<? extends AbstractCapabilityData<?>>> CAPABILITIES = new LinkedHashMap<>();
+
+    /**
+     * The entities waiting to be sent to each player
+     */
+    private static final Map<ServerPlayer, LinkedHashSet<Entity>> PENDING = new IdentityHashMap<>();
+
+    /**
+     * The approximate maximum size of a single {@link CapabilitySnapshotS2CPacket} in bytes
+     */
+    private static int maxFrameBytes = 32 * 1024;
+
+    private CapabilitySnapshots() {}
+
+    /**
+     * Registers a capability to be included in snapshots. This should be called during common set up, in the same order on the client and the server
+     * @param id The ID of the capability. Must be unique
+     * @param capability The {@link Capability} to register
+     * @param <C> The {@linkplain AbstractCapabilityData capability data} type
+     * @throws IllegalArgumentException If a capability was already registered under the ID
+     */
+    public static synchronized <C extends AbstractCapabilityData<C>> void register(ResourceLocation id, Capability<C> capability) throws IllegalArgumentException
+    {
+        if (CAPABILITIES.containsKey(id))
+        {
+            throw new IllegalArgumentException("A capability has already been registered for snapshots under the ID: " + id);
+        }
+        CAPABILITIES.put(id, capability);
+    }
+
+    /**
+     * Registers a capability to be included in snapshots, and adds its data to the {@link PacketCompression} dictionary.
+     * This should be called during common set up, in the same order on the client and the server
+     * @param id The ID of the capability. Must be unique
+     * @param capability The {@link Capability} to register
+     * @param sampleData A {@link Supplier} of typical capability data, such as newly created data, used as a {@linkplain PacketCompression#addDictionarySample(CompoundTag) dictionary sample}
+     * @param <C> The {@linkplain AbstractCapabilityData capability data} type
+     * @throws IllegalArgumentException If a capability was already registered under the ID
+     */
+    public static synchronized <C extends AbstractCapabilityData<C>> void register(ResourceLocation id, Capability<C> capability, Supplier<C> sampleData) throws IllegalArgumentException
+    {
+        register(id, capability);
+        PacketCompression.addDictionarySample(sampleData.get().toNBT());
+    }
+
+    /**
+     * Gets a registered capability
+     * @param id The ID the capability was registered under
+     * @return The {@link Capability}, or null if no capability was registered under the ID
+     */
+    @Nullable
+    public static Capability<? extends AbstractCapabilityData<?>> getCapability(ResourceLocation id)
+    {
+        return CAPABILITIES.get(id);
+    }
+
+    /**
+     * Sets the approximate maximum size of a single {@link CapabilitySnapshotS2CPacket}. Snapshots larger than this are split into several frames.
+     * The capability data of a single entity is never split, so a frame can exceed this size if one entity's data is larger than it
+     * @param maxFrameBytes The maximum size of a frame in bytes
+     * @throws IllegalArgumentException If the size is less than or equal to 0
+     */
+    public static void setMaxFrameBytes(int maxFrameBytes) throws IllegalArgumentException
+    {
+        if (maxFrameBytes <= 0)
+        {
+            throw new IllegalArgumentException("Max snapshot frame size must be greater than 0! Value offered: " + maxFrameBytes);
+        }
+        CapabilitySnapshots.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * Queues the capability data of an {@link Entity} to be sent to a {@link ServerPlayer} at the end of the tick
+     * @param player The {@link ServerPlayer} to send the data to
+     * @param entity The {@link Entity} to send the data of. Can be the player itself
+     */
+    public static void queue(ServerPlayer player, Entity entity)
+    {
+        if (CAPABILITIES.isEmpty())
+        {
+            return;
+        }
+        PENDING.computeIfAbsent(player, p -> new LinkedHashSet<>()).add(entity);
+    }
+
+    /**
+     * Sends all queued capability data to their players
+     */
+    private static void flush()
+    {
+        if (PENDING.isEmpty())
+        {
+            return;
+        }
+        PENDING.forEach((player, entities) ->
+        {
+            if (player.hasDisconnected())
+            {
+                return;
+            }
+            CapabilitySnapshotS2CPacket frame = new CapabilitySnapshotS2CPacket();
+            int frameBytes = 0;
+            for (Entity entity : entities)
+            {
+                if (entity.isRemoved())
+                {
+                    continue;
+                }
+                final SyncVisibility.Audience audience = entity == player ? SyncVisibility.Audience.SELF : SyncVisibility.Audience.TRACKERS;
+                for (Map.Entry<ResourceLocation, Capability<? extends AbstractCapabilityData<?>>> capability : CAPABILITIES.entrySet())
+                {
+                    final Optional<? extends AbstractCapabilityData<?>> data = entity.getCapability(capability.getValue()).resolve();
+                    if (data.isEmpty())
+                    {
+                        continue;
+                    }
+                    final CompoundTag nbtTag = data.get().toNBT(audience);
+                    if (nbtTag.isEmpty())
+                    {
+                        continue; // Nothing visible to this player
+                    }
+                    final int entryBytes = nbtTag.sizeInBytes();
+                    if (!frame.isEmpty() && frameBytes + entryBytes > maxFrameBytes)
+                    {
+                        NetworkPackets.sendToPlayer(NetworkPackets.INSTANCE, frame, player); // Frame is full, send it and start a new one
+                        frame = new CapabilitySnapshotS2CPacket();
+                        frameBytes = 0;
+                    }
+                    frame.add(entity.getId(), capability.getKey(), nbtTag);
+                    frameBytes += entryBytes;
+                }
+            }
+            if (!frame.isEmpty())
+            {
+                NetworkPackets.sendToPlayer(NetworkPackets.INSTANCE, frame, player);
+            }
+        });
+        PENDING.clear();
+    }
+
+    /**
+     * Capability snapshot events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class SnapshotEvents
+    {
+        /**
+         * Queues the tracked {@link Entity} when a player starts tracking it
+         * @param event The {@link PlayerEvent.StartTracking} event to listen for
+         */
+        @SubscribeEvent
+        public static void onStartTracking(PlayerEvent.StartTracking event)
+        {
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+            {
+                queue(serverPlayer, event.getTarget());
+            }
+        }
+
+        /**
+         * Queues the player itself when it logs in
+         * @param event The {@link PlayerEvent.PlayerLoggedInEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event)
+        {
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+            {
+                queue(serverPlayer, serverPlayer);
+            }
+        }
+
+        /**
+         * Queues the player itself when it respawns, as the client creates a new player
+         * @param event The {@link PlayerEvent.PlayerRespawnEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event)
+        {
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+            {
+                queue(serverPlayer, serverPlayer);
+            }
+        }
+
+        /**
+         * Queues the player itself when it changes dimension, as the client creates a new player
+         * @param event The {@link PlayerEvent.PlayerChangedDimensionEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event)
+        {
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+            {
+                queue(serverPlayer, serverPlayer);
+            }
+        }
+
+        /**
+         * Removes any queued data for a player that logs out
+         * @param event The {@link PlayerEvent.PlayerLoggedOutEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event)
+        {
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+            {
+                PENDING.remove(serverPlayer);
+            }
+        }
+
+        /**
+         * Sends all queued snapshots at the end of every server tick
+         * @param event The {@link TickEvent.ServerTickEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onServerTick(TickEvent.ServerTickEvent event)
+        {
+            if (event.phase == TickEvent.Phase.END)
+            {
+                flush();
+            }
+        }
+    }
+}
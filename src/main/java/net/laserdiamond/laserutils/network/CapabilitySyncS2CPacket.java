@@ -1,6 +1,7 @@
 package net.laserdiamond.laserutils.network;
 
 import net.laserdiamond.laserutils.capability.AbstractCapabilityData;
+import net.laserdiamond.laserutils.capability.SyncVisibility;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.nbt.CompoundTag;
@@ -14,20 +15,38 @@ import net.minecraftforge.event.network.CustomPayloadEvent;
  * {@linkplain NetworkPacket Network Packet} used to help sync capabilities between the server and the client
  * @param <C> The {@linkplain AbstractCapabilityData capability data} type
  */
-public abstract class CapabilitySyncS2CPacket<C extends AbstractCapabilityData<C>> extends NetworkPacket {
+public abstract class CapabilitySyncS2CPacket<C extends AbstractCapabilityData<C>> extends NetworkPacket implements CompressiblePacket {
 
     protected final int entityId;
     protected final CompoundTag nbtTag;
 
     /**
-     * Creates a new {@linkplain CapabilitySyncS2CPacket capability sync packet}
+     * The {@link SyncVisibility.Audience} the {@link #nbtTag} was reduced for
+     */
+    protected final SyncVisibility.Audience audience;
+
+    /**
+     * Creates a new {@linkplain CapabilitySyncS2CPacket capability sync packet} containing only the fields visible to {@linkplain SyncVisibility.Audience#TRACKERS trackers},
+     * as the packet may be sent to any client. Use {@link #CapabilitySyncS2CPacket(Entity, AbstractCapabilityData, SyncVisibility.Audience)} to sync {@linkplain SyncVisibility#OWNER_ONLY owner only} fields
      * @param entity The {@linkplain Entity entity} to sync the capability data of
      * @param capability The {@linkplain C capability data} being synced
      */
     public CapabilitySyncS2CPacket(Entity entity, C capability)
+    {
+        this(entity, capability, SyncVisibility.Audience.TRACKERS);
+    }
+
+    /**
+     * Creates a new {@linkplain CapabilitySyncS2CPacket capability sync packet} containing only the fields visible to the {@link SyncVisibility.Audience}
+     * @param entity The {@linkplain Entity entity} to sync the capability data of
+     * @param capability The {@linkplain C capability data} being synced
+     * @param audience The {@link SyncVisibility.Audience} receiving the packet
+     */
+    public CapabilitySyncS2CPacket(Entity entity, C capability, SyncVisibility.Audience audience)
     {
         this.entityId = entity.getId();
-        this.nbtTag = capability.toNBT();
+        this.nbtTag = capability.toNBT(audience);
+        this.audience = audience;
     }
 
     /**
@@ -37,6 +56,7 @@ public abstract class CapabilitySyncS2CPacket<C extends AbstractCapabilityData<C
     public CapabilitySyncS2CPacket(FriendlyByteBuf buf)
     {
         this.entityId = buf.readInt();
+        this.audience = buf.readEnum(SyncVisibility.Audience.class);
         this.nbtTag = buf.readNbt();
     }
 
@@ -44,9 +64,20 @@ public abstract class CapabilitySyncS2CPacket<C extends AbstractCapabilityData<C
     public void toBytes(FriendlyByteBuf buf)
     {
         buf.writeInt(this.entityId);
+        buf.writeEnum(this.audience);
         buf.writeNbt(this.nbtTag);
     }
 
+    /**
+     * Capability syncs can wait for bandwidth, as a newer sync always replaces an older one
+     * @return {@link NetworkPacket.Priority#LOW}
+     */
+    @Override
+    protected Priority priority()
+    {
+        return Priority.LOW;
+    }
+
     @Override
     public void packetWork(CustomPayloadEvent.Context context)
     {
@@ -63,7 +94,7 @@ public abstract class CapabilitySyncS2CPacket<C extends AbstractCapabilityData<C
         }
         trackedEntity.getCapability(this.capability()).ifPresent(c ->
         {
-            c.loadNBTData(this.nbtTag);
+            c.mergeNBTData(this.nbtTag, this.audience); // The payload only contains the fields visible to its audience
         });
     }
 
@@ -71,4 +102,23 @@ public abstract class CapabilitySyncS2CPacket<C extends AbstractCapabilityData<C
      * @return The {@linkplain Capability capability} to sync
      */
     protected abstract Capability<C> capability();
+
+    /**
+     * Creates {@linkplain CapabilitySyncS2CPacket capability sync packets} for a specific {@link SyncVisibility.Audience}.
+     * This is usually the constructor of the packet that takes in an {@link SyncVisibility.Audience}
+     * @param <C> The {@linkplain AbstractCapabilityData capability data} type
+     * @param <CP> The {@linkplain CapabilitySyncS2CPacket capability sync packet} type
+     */
+    @FunctionalInterface
+    public interface Factory<C extends AbstractCapabilityData<C>, CP extends CapabilitySyncS2CPacket<C>>
+    {
+        /**
+         * Creates a new {@linkplain CP capability sync packet}
+         * @param entity The {@linkplain Entity entity} to sync the capability data of
+         * @param capability The {@linkplain C capability data} being synced
+         * @param audience The {@link SyncVisibility.Audience} receiving the packet
+         * @return A new {@linkplain CP capability sync packet} containing the fields visible to the {@link SyncVisibility.Audience}
+         */
+        CP create(Entity entity, C capability, SyncVisibility.Audience audience);
+    }
 }
@@ -0,0 +1,7 @@
+package net.laserdiamond.laserutils.network;
+
+/**
+ * Marks a {@link NetworkPacket} as having a payload that is worth compressing with the {@link PacketCompression} dictionary, such as packets made up of {@linkplain net.minecraft.nbt.CompoundTag NBT data}.
+ * Payloads of marked packets are prefixed with a flag byte stating if they are compressed.
+ */
+public interface CompressiblePacket {}
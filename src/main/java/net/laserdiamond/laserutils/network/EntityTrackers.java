@@ -0,0 +1,96 @@
+package net.laserdiamond.laserutils.network;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Keeps track of which {@link ServerPlayer}s are tracking each {@link Entity} on the server, using {@link PlayerEvent.StartTracking} and {@link PlayerEvent.StopTracking}.
+ * Used to know the exact receivers of a packet sent to every player tracking an entity before it is sent.
+ * Should only be accessed from the server thread.
+ */
+final class EntityTrackers {
+
+    /**
+     * The players tracking each entity, mapped by the entity's ID
+     */
+    private static final Int2ObjectOpenHashMap<ReferenceOpenHashSet<ServerPlayer>> TRACKERS = new Int2ObjectOpenHashMap<>();
+
+    private EntityTrackers() {}
+
+    /**
+     * Gets the players tracking an {@link Entity}
+     * @param entity The tracked {@link Entity}
+     * @return An unmodifiable {@link Set} of the {@link ServerPlayer}s tracking the {@link Entity}
+     */
+    static Set<ServerPlayer> of(Entity entity)
+    {
+        final ReferenceOpenHashSet<ServerPlayer> trackers = TRACKERS.get(entity.getId());
+        return trackers == null ? Collections.emptySet() : Collections.unmodifiableSet(trackers);
+    }
+
+    /**
+     * Entity tracker events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class TrackerEvents
+    {
+        /**
+         * Adds the player to the trackers of the entity
+         * @param event The {@link PlayerEvent.StartTracking} event to listen for
+         */
+        @SubscribeEvent
+        public static void onStartTracking(PlayerEvent.StartTracking event)
+        {
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+            {
+                TRACKERS.computeIfAbsent(event.getTarget().getId(), id -> new ReferenceOpenHashSet<>()).add(serverPlayer);
+            }
+        }
+
+        /**
+         * Removes the player from the trackers of the entity
+         * @param event The {@link PlayerEvent.StopTracking} event to listen for
+         */
+        @SubscribeEvent
+        public static void onStopTracking(PlayerEvent.StopTracking event)
+        {
+            final ReferenceOpenHashSet<ServerPlayer> trackers = TRACKERS.get(event.getTarget().getId());
+            if (trackers != null)
+            {
+                trackers.remove(event.getEntity());
+                if (trackers.isEmpty())
+                {
+                    TRACKERS.remove(event.getTarget().getId());
+                }
+            }
+        }
+
+        /**
+         * Removes the trackers of an entity once it leaves the level, and removes a player from every entity it was tracking
+         * @param event The {@link EntityLeaveLevelEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onEntityLeaveLevel(EntityLeaveLevelEvent event)
+        {
+            if (event.getLevel().isClientSide)
+            {
+                return;
+            }
+            TRACKERS.remove(event.getEntity().getId());
+            if (event.getEntity() instanceof ServerPlayer serverPlayer)
+            {
+                TRACKERS.values().removeIf(trackers -> trackers.remove(serverPlayer) && trackers.isEmpty());
+            }
+        }
+    }
+}
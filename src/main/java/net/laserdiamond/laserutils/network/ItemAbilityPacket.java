@@ -13,19 +13,68 @@ import net.laserdiamond.laserutils.client.LUKeyBindings;
  */
 public final class ItemAbilityPacket extends NetworkPacket {
 
+    /**
+     * The client's sequence number of this request. 0 if the client did not predict the activation, in which case no {@link ItemAbilityResultS2CPacket} is sent back
+     */
+    private final int sequence;
+
+    /**
+     * Creates a new {@link ItemAbilityPacket} that the client did not predict
+     */
+    public ItemAbilityPacket()
+    {
+        this(0);
+    }
+
     /**
      * Creates a new {@link ItemAbilityPacket}
+     * @param sequence The client's sequence number of this request
      */
-    public ItemAbilityPacket() {}
+    public ItemAbilityPacket(int sequence)
+    {
+        this.sequence = sequence;
+    }
 
     /**
      * Creates a new {@link ItemAbilityPacket}, reading from a {@link FriendlyByteBuf}
      * @param buf The {@link FriendlyByteBuf} to read from
      */
-    public ItemAbilityPacket(FriendlyByteBuf buf) {}
+    public ItemAbilityPacket(FriendlyByteBuf buf)
+    {
+        this.sequence = buf.readVarInt();
+    }
+
+    @Override
+    public void toBytes(FriendlyByteBuf buf)
+    {
+        buf.writeVarInt(this.sequence);
+    }
 
     /**
-     * Calls {@link AbilityItem#onServer(CustomPayloadEvent.Context)} on the server and puts the item on cooldown if the {@link AbilityItem} is not on cooldown
+     * Drops the request if the sending player is over the {@link ItemAbilityRateLimiter rate limit}, or already has a request waiting to run.
+     * Dropped requests are only answered with a {@linkplain ItemAbilityResultS2CPacket.Result#RATE_LIMITED rejection} once per refill of the player's bucket
+     * @param context The {@link CustomPayloadEvent.Context}
+     * @return True if the request should be run, false otherwise
+     */
+    @Override
+    protected boolean acceptOnNetworkThread(CustomPayloadEvent.Context context)
+    {
+        final ServerPlayer player = context.getSender();
+        if (player == null)
+        {
+            return false;
+        }
+        final ItemAbilityRateLimiter.Verdict verdict = ItemAbilityRateLimiter.tryAccept(player);
+        if (verdict == ItemAbilityRateLimiter.Verdict.REJECTED)
+        {
+            this.sendResult(player, ItemAbilityResultS2CPacket.Result.RATE_LIMITED);
+        }
+        return verdict == ItemAbilityRateLimiter.Verdict.ACCEPTED;
+    }
+
+    /**
+     * Calls {@link AbilityItem#onServer(CustomPayloadEvent.Context)} on the server and puts the item on cooldown if the {@link AbilityItem} is not on cooldown.
+     * The result is sent back to the client if it predicted the activation
      * @param context The {@link CustomPayloadEvent.Context}
      */
     @Override
@@ -35,22 +84,40 @@ public final class ItemAbilityPacket extends NetworkPacket {
 
         if (player != null)
         {
+            ItemAbilityRateLimiter.onHandled(player);
             final ItemStack mainHand = player.getMainHandItem();
-            if (mainHand.getItem() instanceof DurationAbilityItem abilityItem)
+            if (!(mainHand.getItem() instanceof AbilityItem abilityItem))
             {
-              if (!player.getCooldowns().isOnCooldown(mainHand.getItem()))
-              {
-                  abilityItem.onServer(context);
-                  player.getCooldowns().addCooldown(mainHand.getItem(), abilityItem.abilityDurationTicks() + abilityItem.cooldownTicks());
-              }
-            } else if (mainHand.getItem() instanceof AbilityItem abilityItem)
+                this.sendResult(player, ItemAbilityResultS2CPacket.Result.NOT_HOLDING);
+                return;
+            }
+            if (player.getCooldowns().isOnCooldown(mainHand.getItem()))
             {
-                if (!player.getCooldowns().isOnCooldown(mainHand.getItem()))
-                {
-                    abilityItem.onServer(context);
-                    player.getCooldowns().addCooldown(mainHand.getItem(), abilityItem.cooldownTicks());
-                }
+                this.sendResult(player, ItemAbilityResultS2CPacket.Result.ON_COOLDOWN);
+                return;
             }
+            abilityItem.onServer(context);
+            if (abilityItem instanceof DurationAbilityItem durationAbilityItem)
+            {
+                player.getCooldowns().addCooldown(mainHand.getItem(), durationAbilityItem.abilityDurationTicks() + durationAbilityItem.cooldownTicks());
+            } else
+            {
+                player.getCooldowns().addCooldown(mainHand.getItem(), abilityItem.cooldownTicks());
+            }
+            this.sendResult(player, ItemAbilityResultS2CPacket.Result.ACCEPTED);
+        }
+    }
+
+    /**
+     * Sends the result of this request back to the client, if the client predicted it
+     * @param player The {@link ServerPlayer} that sent the request
+     * @param result The {@link ItemAbilityResultS2CPacket.Result} of the request
+     */
+    private void sendResult(ServerPlayer player, ItemAbilityResultS2CPacket.Result result)
+    {
+        if (this.sequence != 0)
+        {
+            NetworkPackets.sendToPlayer(NetworkPackets.INSTANCE, new ItemAbilityResultS2CPacket(this.sequence, result), player);
         }
     }
 }
@@ -0,0 +1,154 @@
+package net.laserdiamond.laserutils.network;
+
+import net.laserdiamond.laserutils.LaserUtils;
+import net.laserdiamond.laserutils.util.TokenBucket;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how many {@link ItemAbilityPacket}s each player can have run on the server.
+ * Runs on the network thread, before the packet is queued for the main thread, so excess packets cost no main thread time.
+ * <p>Each player has a {@link TokenBucket}, and at most one {@link ItemAbilityPacket} waiting to run on the main thread. Packets over either limit are dropped and counted.</p>
+ */
+public final class ItemAbilityRateLimiter {
+
+    /**
+     * The rate limit state of each player, mapped by the player's {@link UUID}
+     */
+    private static final Map<UUID, PlayerLimit> LIMITS = new ConcurrentHashMap<>();
+
+    /**
+     * The total amount of dropped {@link ItemAbilityPacket}s
+     */
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    /**
+     * The maximum amount of ability requests a player can burst
+     */
+    private static volatile double burst = 10;
+
+    /**
+     * The amount of ability requests a player can send per second, once their burst is used up
+     */
+    private static volatile double requestsPerSecond = 5;
+
+    private ItemAbilityRateLimiter() {}
+
+    /**
+     * Sets the rate limit of ability requests. Applies to players that join afterward
+     * @param burst The maximum amount of ability requests a player can burst
+     * @param requestsPerSecond The amount of ability requests a player can send per second
+     * @throws IllegalArgumentException If either value is less than or equal to 0
+     */
+    public static void setRateLimit(double burst, double requestsPerSecond) throws IllegalArgumentException
+    {
+        if (burst <= 0 || requestsPerSecond <= 0)
+        {
+            throw new IllegalArgumentException("Ability request burst and rate must be greater than 0! Values offered: " + burst + ", " + requestsPerSecond);
+        }
+        ItemAbilityRateLimiter.burst = burst;
+        ItemAbilityRateLimiter.requestsPerSecond = requestsPerSecond;
+    }
+
+    /**
+     * Gets the total amount of {@link ItemAbilityPacket}s dropped by the rate limiter
+     * @return The amount of dropped packets
+     */
+    public static long getDroppedCount()
+    {
+        return DROPPED.get();
+    }
+
+    /**
+     * Attempts to accept an ability request from a player. Called on the network thread.
+     * If accepted, the player's request is marked as pending until {@link #onHandled(ServerPlayer)} is called.
+     * <p>Only the first request dropped for the rate limit after an accepted one is {@linkplain Verdict#REJECTED rejected}, so a player spamming requests gets
+     * at most one rejection each time their bucket refills, instead of one reply per request. Requests sent while another is pending are dropped silently</p>
+     * @param player The {@link ServerPlayer} that sent the request
+     * @return The {@link Verdict} of the request
+     */
+    static Verdict tryAccept(ServerPlayer player)
+    {
+        final PlayerLimit limit = LIMITS.computeIfAbsent(player.getUUID(), uuid -> new PlayerLimit(new TokenBucket(burst, requestsPerSecond), new AtomicBoolean(), new AtomicBoolean()));
+        if (!limit.pending.compareAndSet(false, true))
+        {
+            DROPPED.incrementAndGet(); // A request is already waiting to run, so this one would do nothing new
+            return Verdict.DROPPED;
+        }
+        if (!limit.bucket.tryConsume())
+        {
+            limit.pending.set(false);
+            DROPPED.incrementAndGet();
+            return limit.rejected.compareAndSet(false, true) ? Verdict.REJECTED : Verdict.DROPPED;
+        }
+        limit.rejected.set(false);
+        return Verdict.ACCEPTED;
+    }
+
+    /**
+     * Clears the pending request of a player, allowing a new one to be queued. Called on the main thread once the request runs
+     * @param player The {@link ServerPlayer}
+     */
+    static void onHandled(ServerPlayer player)
+    {
+        final PlayerLimit limit = LIMITS.get(player.getUUID());
+        if (limit != null)
+        {
+            limit.pending.set(false);
+        }
+    }
+
+    /**
+     * The rate limit state of a player
+     * @param bucket The player's {@link TokenBucket}
+     * @param pending Whether the player has a request waiting to run on the main thread
+     * @param rejected Whether the player was sent a rejection since their last accepted request
+     */
+    private record PlayerLimit(TokenBucket bucket, AtomicBoolean pending, AtomicBoolean rejected) {}
+
+    /**
+     * The possible outcomes of {@link #tryAccept(ServerPlayer)}
+     */
+    enum Verdict
+    {
+        /**
+         * The request should be queued
+         */
+        ACCEPTED,
+
+        /**
+         * The request should be dropped, and the player told it was {@linkplain ItemAbilityResultS2CPacket.Result#RATE_LIMITED rate limited}
+         */
+        REJECTED,
+
+        /**
+         * The request should be dropped without a reply
+         */
+        DROPPED
+    }
+
+    /**
+     * Rate limiter events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class RateLimitEvents
+    {
+        /**
+         * Removes the rate limit state of the player
+         * @param event The {@link PlayerEvent.PlayerLoggedOutEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event)
+        {
+            LIMITS.remove(event.getEntity().getUUID());
+        }
+    }
+}
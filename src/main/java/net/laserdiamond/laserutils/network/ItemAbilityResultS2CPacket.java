@@ -0,0 +1,88 @@
+package net.laserdiamond.laserutils.network;
+
+import net.laserdiamond.laserutils.client.AbilityPredictions;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.event.network.CustomPayloadEvent;
+
+/**
+ * {@link NetworkPacket} sent from the server to the client with the result of a predicted {@link ItemAbilityPacket}
+ * @see AbilityPredictions
+ */
+public final class ItemAbilityResultS2CPacket extends NetworkPacket {
+
+    /**
+     * The sequence number of the {@link ItemAbilityPacket}
+     */
+    private final int sequence;
+
+    /**
+     * The {@link Result} of the {@link ItemAbilityPacket}
+     */
+    private final Result result;
+
+    /**
+     * Creates a new {@link ItemAbilityResultS2CPacket}
+     * @param sequence The sequence number of the {@link ItemAbilityPacket}
+     * @param result The {@link Result} of the {@link ItemAbilityPacket}
+     */
+    public ItemAbilityResultS2CPacket(int sequence, Result result)
+    {
+        this.sequence = sequence;
+        this.result = result;
+    }
+
+    /**
+     * Creates a new {@link ItemAbilityResultS2CPacket}, reading from a {@link FriendlyByteBuf}
+     * @param buf The {@link FriendlyByteBuf} to read from
+     */
+    public ItemAbilityResultS2CPacket(FriendlyByteBuf buf)
+    {
+        this.sequence = buf.readVarInt();
+        this.result = buf.readEnum(Result.class);
+    }
+
+    @Override
+    public void toBytes(FriendlyByteBuf buf)
+    {
+        buf.writeVarInt(this.sequence);
+        buf.writeEnum(this.result);
+    }
+
+    @Override
+    public void packetWork(CustomPayloadEvent.Context context)
+    {
+        final LocalPlayer localPlayer = Minecraft.getInstance().player;
+        if (localPlayer != null)
+        {
+            AbilityPredictions.reconcile(localPlayer, this.sequence, this.result);
+        }
+    }
+
+    /**
+     * The possible results of an {@link ItemAbilityPacket}
+     */
+    public enum Result
+    {
+        /**
+         * The ability was activated
+         */
+        ACCEPTED,
+
+        /**
+         * The ability was not activated, as the item was still on cooldown on the server
+         */
+        ON_COOLDOWN,
+
+        /**
+         * The ability was not activated, as the player was not holding an ability item on the server
+         */
+        NOT_HOLDING,
+
+        /**
+         * The request was dropped by the {@link ItemAbilityRateLimiter}
+         */
+        RATE_LIMITED
+    }
+}
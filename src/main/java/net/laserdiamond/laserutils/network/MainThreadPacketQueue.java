@@ -0,0 +1,150 @@
+package net.laserdiamond.laserutils.network;
+
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.network.CustomPayloadEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Lock-free queue of received {@link NetworkPacket}s that must run on the main thread.
+ * Packets are added by the network thread, and drained in bounded batches at the start of each server or client tick. Packets that don't fit in a batch are run on the next tick, in order.
+ * @see NetworkPacket#isThreadSafe()
+ */
+public final class MainThreadPacketQueue {
+
+    /**
+     * Packets received by the logical server
+     */
+    private static final ConcurrentLinkedQueue<QueuedPacket> SERVER = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Packets received by the logical client
+     */
+    private static final ConcurrentLinkedQueue<QueuedPacket> CLIENT = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The maximum amount of packets run per tick on each side
+     */
+    private static volatile int maxPacketsPerTick = 1024;
+
+    private MainThreadPacketQueue() {}
+
+    /**
+     * Sets the maximum amount of queued packets run per tick on each side
+     * @param maxPacketsPerTick The maximum amount of packets to run per tick
+     * @throws IllegalArgumentException If the amount is less than or equal to 0
+     */
+    public static void setMaxPacketsPerTick(int maxPacketsPerTick) throws IllegalArgumentException
+    {
+        if (maxPacketsPerTick <= 0)
+        {
+            throw new IllegalArgumentException("Max packets per tick must be greater than 0! Value offered: " + maxPacketsPerTick);
+        }
+        MainThreadPacketQueue.maxPacketsPerTick = maxPacketsPerTick;
+    }
+
+    /**
+     * Queues a {@link NetworkPacket} to run on the main thread of the side that received it
+     * @param packet The {@link NetworkPacket} to run
+     * @param context The {@link CustomPayloadEvent.Context} the packet was received with
+     */
+    static void enqueue(NetworkPacket packet, CustomPayloadEvent.Context context)
+    {
+        (context.isServerSide() ? SERVER : CLIENT).add(new QueuedPacket(packet, context, System.nanoTime()));
+    }
+
+    /**
+     * Runs up to {@link #maxPacketsPerTick} queued packets
+     * @param queue The queue to drain
+     */
+    private static void drain(ConcurrentLinkedQueue<QueuedPacket> queue)
+    {
+        final int max = maxPacketsPerTick;
+        QueuedPacket queuedPacket;
+        for (int i = 0; i < max && (queuedPacket = queue.poll()) != null; i++)
+        {
+            try
+            {
+                NetworkStatistics.of(queuedPacket.packet.getClass()).recordQueued(System.nanoTime() - queuedPacket.enqueueNanos);
+                queuedPacket.packet.run(queuedPacket.context);
+            } catch (RuntimeException e)
+            {
+                LaserUtils.LOGGER.error("Failed to handle packet {}", queuedPacket.packet.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * A packet waiting to run on the main thread
+     * @param packet The {@link NetworkPacket}
+     * @param context The {@link CustomPayloadEvent.Context} the packet was received with
+     * @param enqueueNanos The time the packet was queued, in nanoseconds
+     */
+    private record QueuedPacket(NetworkPacket packet, CustomPayloadEvent.Context context, long enqueueNanos) {}
+
+    /**
+     * Drains the server queue
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class ServerQueueEvents
+    {
+        /**
+         * Runs queued server packets at the start of every server tick
+         * @param event The {@link TickEvent.ServerTickEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onServerTick(TickEvent.ServerTickEvent event)
+        {
+            if (event.phase == TickEvent.Phase.START)
+            {
+                drain(SERVER);
+            }
+        }
+
+        /**
+         * Drops packets still queued when the server stops, so they never run against the next world of an integrated server
+         * @param event The {@link ServerStoppedEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onServerStopped(ServerStoppedEvent event)
+        {
+            SERVER.clear();
+        }
+    }
+
+    /**
+     * Drains the client queue
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID, value = Dist.CLIENT)
+    public static class ClientQueueEvents
+    {
+        /**
+         * Runs queued client packets at the start of every client tick
+         * @param event The {@link TickEvent.ClientTickEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onClientTick(TickEvent.ClientTickEvent event)
+        {
+            if (event.phase == TickEvent.Phase.START)
+            {
+                drain(CLIENT);
+            }
+        }
+
+        /**
+         * Drops packets still queued when the client leaves a world, so they never run against the next world
+         * @param event The {@link ClientPlayerNetworkEvent.LoggingOut} event to listen for
+         */
+        @SubscribeEvent
+        public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event)
+        {
+            CLIENT.clear();
+        }
+    }
+}
@@ -1,10 +1,27 @@
 package net.laserdiamond.laserutils.network;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.IllegalReferenceCountException;
+import net.minecraft.core.RegistryAccess;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.event.network.CustomPayloadEvent;
 
 public abstract class NetworkPacket {
 
+    /**
+     * The encoded bytes of this packet, shared by every connection of the dispatch that encoded them. Null if the packet was not sent to more than one connection,
+     * or once the dispatch that encoded them is over
+     */
+    private volatile ByteBuf sharedPayload;
+
+    /**
+     * The size of this packet when it was received, in bytes. -1 if the packet was not received through a decoder registered by {@link NetworkPackets}
+     */
+    int receivedBytes = -1;
+
     /**
      * Creates a new {@link NetworkPacket}
      */
@@ -18,6 +35,85 @@ public abstract class NetworkPacket {
     public void toBytes(FriendlyByteBuf buf)
     {}
 
+    /**
+     * Encodes the packet. This is the encoder registered to the channel, and is called once for every connection the packet is sent to.
+     * If the packet was {@linkplain #encodeShared(RegistryAccess, int) encoded once} for several connections, the shared bytes are copied instead of calling {@link #toBytes(FriendlyByteBuf)} again
+     * @param buf The {@link FriendlyByteBuf} to write to
+     */
+    public final void encode(FriendlyByteBuf buf)
+    {
+        final ByteBuf shared = this.sharedPayload;
+        if (shared != null && shared.refCnt() > 0)
+        {
+            try
+            {
+                buf.writeBytes(shared, shared.readerIndex(), shared.readableBytes());
+                shared.release(); // One less connection waiting on the shared bytes
+                return;
+            } catch (IllegalReferenceCountException e)
+            {
+                // Every reference was already used up by other connections. Encode normally
+            }
+        }
+        this.writePayload(buf);
+    }
+
+    /**
+     * Writes the packet's payload, {@linkplain PacketCompression compressing} it if the packet is a {@link CompressiblePacket}
+     * @param buf The {@link FriendlyByteBuf} to write to
+     */
+    private void writePayload(FriendlyByteBuf buf)
+    {
+        if (this instanceof CompressiblePacket)
+        {
+            PacketCompression.write(this, buf);
+            return;
+        }
+        this.toBytes(buf);
+    }
+
+    /**
+     * Encodes the packet once into a shared, reference counted buffer that the next connections encoding this packet copy from
+     * @param registryAccess The {@link RegistryAccess} of the server
+     * @param connections The amount of connections the packet is about to be sent to. The buffer is released once every connection has copied it
+     */
+    final void encodeShared(RegistryAccess registryAccess, int connections)
+    {
+        this.releaseShared(); // Bytes of an earlier dispatch may no longer match the packet
+        final ByteBuf shared = Unpooled.buffer();
+        this.writePayload(new RegistryFriendlyByteBuf(shared, registryAccess));
+        if (connections > 1)
+        {
+            shared.retain(connections - 1);
+        }
+        this.sharedPayload = shared;
+    }
+
+    /**
+     * Drops the shared bytes of the last {@linkplain #encodeShared(RegistryAccess, int) shared encode}, releasing the references of connections that never copied them,
+     * such as players that disconnected. Connections that encode the packet afterward call {@link #toBytes(FriendlyByteBuf)} again
+     */
+    final void releaseShared()
+    {
+        final ByteBuf shared = this.sharedPayload;
+        if (shared == null)
+        {
+            return;
+        }
+        this.sharedPayload = null;
+        try
+        {
+            final int refCnt = shared.refCnt();
+            if (refCnt > 0)
+            {
+                shared.release(refCnt);
+            }
+        } catch (IllegalReferenceCountException e)
+        {
+            // The last connections copied the bytes in the meantime
+        }
+    }
+
     /**
      * The packet logic. This is run on the packet's receiving end.
      * If the packet is traveling from client to server, this method run on the server.
@@ -27,12 +123,88 @@ public abstract class NetworkPacket {
     public abstract void packetWork(CustomPayloadEvent.Context context);
 
     /**
-     * Handles the packet's logic
+     * Determines if this packet's {@link #packetWork(CustomPayloadEvent.Context)} is safe to run on the network thread.
+     * Thread safe packets run as soon as they are received, without waiting for the next tick.
+     * Packets that are not thread safe are run on the main thread through the {@link MainThreadPacketQueue}.
+     * <p>Only return true if the packet's logic does not access the level, entities, or any other state owned by the main thread</p>
+     * @return True if the packet can run on the network thread, false otherwise. Defaults to false
+     */
+    protected boolean isThreadSafe()
+    {
+        return false;
+    }
+
+    /**
+     * Gets the priority of this packet, used by the {@link BandwidthBudgets} when a player's budget for the tick runs out
+     * @return The {@link Priority} of this packet. Defaults to {@link Priority#NORMAL}
+     */
+    protected Priority priority()
+    {
+        return Priority.NORMAL;
+    }
+
+    /**
+     * Determines if this packet should be handled at all. Called on the network thread as soon as the packet is received, before it is run or queued.
+     * Used to cheaply drop packets, such as for rate limiting, without using main thread time.
+     * <p>Must not access state owned by the main thread</p>
+     * @param context The {@link CustomPayloadEvent.Context}
+     * @return True if the packet should be handled, false if it should be dropped. Defaults to true
+     */
+    protected boolean acceptOnNetworkThread(CustomPayloadEvent.Context context)
+    {
+        return true;
+    }
+
+    /**
+     * Handles the packet's logic. Called on the network thread
      * @param context The {@link CustomPayloadEvent.Context}
      */
     public final void handle(CustomPayloadEvent.Context context)
     {
-        context.enqueueWork(() -> this.packetWork(context));
+        final ServerPlayer sender = context.getSender();
+        if (sender != null && this.receivedBytes >= 0)
+        {
+            NetworkStatistics.of(sender).recordReceived(this.receivedBytes);
+        }
+        if (!this.acceptOnNetworkThread(context))
+        {
+            context.setPacketHandled(true);
+            return;
+        }
+        if (this.isThreadSafe())
+        {
+            this.run(context);
+        } else
+        {
+            MainThreadPacketQueue.enqueue(this, context);
+        }
         context.setPacketHandled(true);
     }
+
+    /**
+     * Runs the packet's logic, recording the time spent in {@link NetworkStatistics}
+     * @param context The {@link CustomPayloadEvent.Context}
+     */
+    final void run(CustomPayloadEvent.Context context)
+    {
+        final long start = System.nanoTime();
+        this.packetWork(context);
+        NetworkStatistics.of(this.getClass()).recordHandled(System.nanoTime() - start);
+    }
+
+    /**
+     * The priority of a packet
+     */
+    public enum Priority
+    {
+        /**
+         * The packet is always sent right away
+         */
+        NORMAL,
+
+        /**
+         * The packet can be deferred to a later tick if the receiving player's bandwidth budget runs out
+         */
+        LOW
+    }
 }
@@ -3,16 +3,28 @@ package net.laserdiamond.laserutils.network;
 import net.laserdiamond.laserutils.LaserUtils;
 import net.laserdiamond.laserutils.capability.AbstractCapability;
 import net.laserdiamond.laserutils.capability.AbstractCapabilityData;
+import net.laserdiamond.laserutils.capability.SyncVisibility;
+import net.laserdiamond.laserutils.capability.block.AbstractChunkBlockData;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.RegistryFriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.network.ChannelBuilder;
 import net.minecraftforge.network.NetworkDirection;
 import net.minecraftforge.network.PacketDistributor;
 import net.minecraftforge.network.SimpleChannel;
+import net.minecraftforge.server.ServerLifecycleHooks;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -30,6 +42,16 @@ public class NetworkPackets {
      */
     private static int packetId = 0;
 
+    /**
+     * The {@link NetworkPacket}s whose shared bytes were encoded this tick. Only accessed from the server thread
+     */
+    private static List<NetworkPacket> sharedThisTick = new ArrayList<>();
+
+    /**
+     * The {@link NetworkPacket}s whose shared bytes were encoded last tick, released at the start of the next tick. Only accessed from the server thread
+     */
+    private static List<NetworkPacket> sharedLastTick = new ArrayList<>();
+
     /**
      * @return The ID of the packet to be sent. Packets will have a unique ID from one another, where each packet's ID is incremented by one from the previous
      */
@@ -50,6 +72,9 @@ public class NetworkPackets {
                 .simpleChannel();
 
         registerPacket(INSTANCE, id(), ItemAbilityPacket.class, ItemAbilityPacket::new, NetworkDirection.PLAY_TO_SERVER);
+        registerPacket(INSTANCE, id(), CapabilitySnapshotS2CPacket.class, CapabilitySnapshotS2CPacket::new, NetworkDirection.PLAY_TO_CLIENT);
+        registerPacket(INSTANCE, id(), ItemAbilityResultS2CPacket.class, ItemAbilityResultS2CPacket::new, NetworkDirection.PLAY_TO_CLIENT);
+        registerBundlePacket(INSTANCE, id());
     }
 
     /**
@@ -63,11 +88,77 @@ public class NetworkPackets {
      */
     public static <P extends NetworkPacket> void registerPacket(SimpleChannel channel, int id, Class<P> packetClazz, Function<RegistryFriendlyByteBuf, P> decoder, NetworkDirection<RegistryFriendlyByteBuf> networkDirection)
     {
+        final NetworkStatistics.PacketStats stats = NetworkStatistics.of(packetClazz);
+        final boolean compressible = CompressiblePacket.class.isAssignableFrom(packetClazz);
+        final Function<RegistryFriendlyByteBuf, P> countingDecoder = buf ->
+        {
+            final int size = buf.readableBytes();
+            final long start = System.nanoTime();
+            final P packet = decoder.apply(compressible ? PacketCompression.read(buf) : buf);
+            final int read = size - buf.readableBytes();
+            stats.recordReceived(read, System.nanoTime() - start);
+            packet.receivedBytes = read;
+            return packet;
+        };
         channel.messageBuilder(packetClazz, id, networkDirection)
-                .decoder(decoder)
-                .encoder(P::toBytes)
-                .consumerMainThread(P::handle)
+                .decoder(countingDecoder)
+                .encoder((packet, buf) -> encode(stats, packet, buf))
+                .consumerNetworkThread(P::handle)
+                .add();
+        PacketTypes.of(channel).add(new PacketTypes.Type<>(id, packetClazz, countingDecoder, networkDirection));
+    }
+
+    /**
+     * Encodes a {@link NetworkPacket}, recording its size in {@link NetworkStatistics}
+     * @param stats The {@link NetworkStatistics.PacketStats} of the packet type
+     * @param packet The {@link NetworkPacket} to encode
+     * @param buf The {@link FriendlyByteBuf} to write to
+     */
+    static void encode(NetworkStatistics.PacketStats stats, NetworkPacket packet, FriendlyByteBuf buf)
+    {
+        final int start = buf.writerIndex();
+        packet.encode(buf);
+        stats.recordSent(buf.writerIndex() - start);
+    }
+
+    /**
+     * Registers the {@link PacketBundleS2CPacket} to a {@link SimpleChannel}, allowing its packets to be bundled once {@linkplain #setBundlingEnabled(SimpleChannel, boolean) enabled}
+     * @param channel The {@link SimpleChannel} to register the {@link PacketBundleS2CPacket} to
+     * @param id The ID of the packet. Each packet must have a unique ID
+     */
+    public static void registerBundlePacket(SimpleChannel channel, int id)
+    {
+        final NetworkStatistics.PacketStats stats = NetworkStatistics.of(PacketBundleS2CPacket.class);
+        channel.messageBuilder(PacketBundleS2CPacket.class, id, NetworkDirection.PLAY_TO_CLIENT)
+                .decoder(buf ->
+                {
+                    final int size = buf.readableBytes();
+                    final long start = System.nanoTime();
+                    final PacketBundleS2CPacket packet = new PacketBundleS2CPacket(channel, buf);
+                    stats.recordReceived(size - buf.readableBytes(), System.nanoTime() - start);
+                    return packet;
+                })
+                .encoder((packet, buf) -> encode(stats, packet, buf))
+                .consumerNetworkThread(PacketBundleS2CPacket::handle)
                 .add();
+        PacketTypes.of(channel).markBundleRegistered();
+    }
+
+    /**
+     * Enables or disables bundling of client bound {@link NetworkPacket}s for a {@link SimpleChannel}.
+     * While enabled, packets sent from the server thread through the send methods of this class are collected per destination and sent as one {@link PacketBundleS2CPacket} at the end of the tick.
+     * Bundling is disabled by default.
+     * @param channel The {@link SimpleChannel} to enable or disable bundling for
+     * @param enabled True to enable bundling, false to disable it
+     * @throws IllegalStateException If the {@link PacketBundleS2CPacket} was not {@linkplain #registerBundlePacket(SimpleChannel, int) registered} to the channel
+     */
+    public static void setBundlingEnabled(SimpleChannel channel, boolean enabled) throws IllegalStateException
+    {
+        if (enabled && !PacketTypes.of(channel).isBundleRegistered())
+        {
+            throw new IllegalStateException("Cannot enable packet bundling for a channel without a registered bundle packet!");
+        }
+        PacketBundler.setEnabled(channel, enabled);
     }
 
     /**
@@ -90,7 +181,11 @@ public class NetworkPackets {
      */
     public static <MSG> void sendToPlayer(SimpleChannel channel, MSG message, ServerPlayer player)
     {
-        channel.send(message, PacketDistributor.PLAYER.with(player));
+        if (PacketBundler.queue(channel, message, PacketRoute.PLAYER, player))
+        {
+            return;
+        }
+        dispatch(channel, message, PacketRoute.PLAYER, player);
     }
 
     /**
@@ -101,7 +196,11 @@ public class NetworkPackets {
      */
     public static <MSG> void sendToAllClients(SimpleChannel channel, MSG message)
     {
-        channel.send(message, PacketDistributor.ALL.noArg());
+        if (PacketBundler.queue(channel, message, PacketRoute.ALL, null))
+        {
+            return;
+        }
+        dispatch(channel, message, PacketRoute.ALL, null);
     }
 
     /**
@@ -113,7 +212,11 @@ public class NetworkPackets {
      */
     public static <MSG> void sendToAllTrackingEntity(SimpleChannel channel, MSG message, Entity trackedEntity)
     {
-        channel.send(message, PacketDistributor.TRACKING_ENTITY.with(trackedEntity));
+        if (PacketBundler.queue(channel, message, PacketRoute.TRACKING_ENTITY, trackedEntity))
+        {
+            return;
+        }
+        dispatch(channel, message, PacketRoute.TRACKING_ENTITY, trackedEntity);
     }
 
     /**
@@ -125,7 +228,62 @@ public class NetworkPackets {
      */
     public static <MSG> void sendToAllTrackingEntityAndSelf(SimpleChannel channel, MSG message, Entity trackedEntity)
     {
-        channel.send(message, PacketDistributor.TRACKING_ENTITY_AND_SELF.with(trackedEntity));
+        if (PacketBundler.queue(channel, message, PacketRoute.TRACKING_ENTITY_AND_SELF, trackedEntity))
+        {
+            return;
+        }
+        dispatch(channel, message, PacketRoute.TRACKING_ENTITY_AND_SELF, trackedEntity);
+    }
+
+    /**
+     * Sends a client bound message through a {@link PacketRoute}.
+     * {@link NetworkPacket}s sent from the server thread to more than one player are encoded once, and every receiving connection copies the same encoded bytes
+     * instead of calling {@link NetworkPacket#toBytes(FriendlyByteBuf)} again.
+     * Packets sent from the server thread are also charged to each receiver's {@link BandwidthBudgets bandwidth budget}, and low priority packets may be deferred.
+     * @param channel The {@linkplain SimpleChannel channel} to send the {@linkplain MSG message} through
+     * @param message The {@linkplain MSG message} to send
+     * @param route The {@link PacketRoute} of the message
+     * @param subject The {@link ServerPlayer} or {@linkplain Entity entity} the route is relative to. Null for {@link PacketRoute#ALL}
+     * @param <MSG> The message type
+     */
+    static <MSG> void dispatch(SimpleChannel channel, MSG message, PacketRoute route, Object subject)
+    {
+        final MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (message instanceof NetworkPacket packet && server != null && server.isSameThread())
+        {
+            final Collection<ServerPlayer> players = route.players(subject);
+            final Collection<ServerPlayer> receivers = BandwidthBudgets.charge(channel, packet, players);
+            if (receivers.size() > 1)
+            {
+                packet.encodeShared(server.registryAccess(), receivers.size());
+                sharedThisTick.add(packet); // Released after the connections had a full tick to encode it
+                for (ServerPlayer player : receivers)
+                {
+                    channel.send(message, PacketDistributor.PLAYER.with(player));
+                }
+                return;
+            }
+            packet.releaseShared(); // Don't let this send copy the bytes of an earlier dispatch
+            if (receivers != players)
+            {
+                for (ServerPlayer player : receivers) // Some receivers were deferred, so only send to the rest
+                {
+                    channel.send(message, PacketDistributor.PLAYER.with(player));
+                }
+                return;
+            }
+        }
+        channel.send(message, route.target(subject));
+    }
+
+    /**
+     * Releases the shared bytes of every {@link NetworkPacket} in the list
+     * @param packets The {@link NetworkPacket}s to release the shared bytes of
+     */
+    private static void releaseShared(List<NetworkPacket> packets)
+    {
+        packets.forEach(NetworkPacket::releaseShared);
+        packets.clear();
     }
 
     /**
@@ -135,7 +293,10 @@ public class NetworkPackets {
      * @param trackedEntity The {@linkplain Entity entity} being tracked
      * @param <C> The {@linkplain AbstractCapabilityData} type being sent
      * @param <CP> The {@linkplain CapabilitySyncS2CPacket} type being sent
+     * @deprecated The same packet is sent to every client, so it can't contain {@linkplain SyncVisibility#OWNER_ONLY owner only} fields.
+     * Use {@link #updateClientCapability(SimpleChannel, Entity, AbstractCapabilityData, CapabilitySyncS2CPacket.Factory)}, which sends each audience its own payload
      */
+    @Deprecated
     public static <C extends AbstractCapabilityData<C>, CP extends CapabilitySyncS2CPacket<C>> void updateClientCapabilityForTracking(SimpleChannel channel, CP capabilityPacket, Entity trackedEntity)
     {
         sendToAllTrackingEntity(channel, capabilityPacket, trackedEntity);
@@ -148,9 +309,108 @@ public class NetworkPackets {
      * @param trackedEntity The {@linkplain Entity entity} being tracked
      * @param <C> The {@linkplain AbstractCapabilityData} type being sent
      * @param <CP> The {@linkplain CapabilitySyncS2CPacket} type being sent
+     * @deprecated The same packet is sent to every client, so it can't contain {@linkplain SyncVisibility#OWNER_ONLY owner only} fields.
+     * Use {@link #updateClientCapability(SimpleChannel, Entity, AbstractCapabilityData, CapabilitySyncS2CPacket.Factory)}, which sends each audience its own payload
      */
+    @Deprecated
     public static <C extends AbstractCapabilityData<C>, CP extends CapabilitySyncS2CPacket<C>> void updateClientCapabilityForTrackingAndSelf(SimpleChannel channel, CP capabilityPacket, Entity trackedEntity)
     {
-        sendToAllTrackingEntity(channel, capabilityPacket, trackedEntity);
+        sendToAllTrackingEntityAndSelf(channel, capabilityPacket, trackedEntity);
+    }
+
+    /**
+     * Syncs the {@linkplain C capability data} of the specified {@linkplain Entity entity} based on the {@link SyncVisibility} of its fields.
+     * If the {@linkplain Entity entity} is a {@link ServerPlayer}, it receives the full payload. All clients tracking the {@linkplain Entity entity} receive a reduced payload
+     * that only contains {@link SyncVisibility#TRACKERS} fields. {@link SyncVisibility#SERVER_ONLY} fields are never sent.
+     * @param channel The {@linkplain SimpleChannel channel} to send the {@linkplain CP capability sync packets} through
+     * @param trackedEntity The {@linkplain Entity entity} that owns the {@linkplain C capability data}
+     * @param capability The {@linkplain C capability data} to sync
+     * @param packetFactory The {@linkplain CapabilitySyncS2CPacket.Factory factory} that creates the {@linkplain CP capability sync packet} for each {@link SyncVisibility.Audience}
+     * @param <C> The {@linkplain AbstractCapabilityData} type being sent
+     * @param <CP> The {@linkplain CapabilitySyncS2CPacket} type being sent
+     */
+    public static <C extends AbstractCapabilityData<C>, CP extends CapabilitySyncS2CPacket<C>> void updateClientCapability(SimpleChannel channel, Entity trackedEntity, C capability, CapabilitySyncS2CPacket.Factory<C, CP> packetFactory)
+    {
+        if (trackedEntity instanceof ServerPlayer serverPlayer)
+        {
+            sendToPlayer(channel, packetFactory.create(trackedEntity, capability, SyncVisibility.Audience.SELF), serverPlayer);
+        }
+        sendToAllTrackingEntity(channel, packetFactory.create(trackedEntity, capability, SyncVisibility.Audience.TRACKERS), trackedEntity);
+    }
+
+    /**
+     * Sends every section of the {@linkplain CD chunk block data} that changed since the last sync to all clients tracking the {@link LevelChunk}, then clears the changed sections.
+     * This should be called once per tick at most for each chunk, so that many changes to the same section are sent together.
+     * @param channel The {@linkplain SimpleChannel channel} to send the {@linkplain P block data section sync packets} through
+     * @param chunk The {@link LevelChunk} the {@linkplain CD data} is attached to
+     * @param data The {@linkplain CD chunk block data} to sync
+     * @param packetFactory The {@linkplain BlockDataSectionSyncS2CPacket.Factory factory} that creates the {@linkplain P block data section sync packet} for a section
+     * @param <CD> The {@linkplain AbstractChunkBlockData} type being sent
+     * @param <P> The {@linkplain BlockDataSectionSyncS2CPacket} type being sent
+     */
+    public static <CD extends AbstractChunkBlockData<CD>, P extends BlockDataSectionSyncS2CPacket<CD>> void updateClientBlockData(SimpleChannel channel, LevelChunk chunk, CD data, BlockDataSectionSyncS2CPacket.Factory<CD, P> packetFactory)
+    {
+        if (data.dirtySections().isEmpty())
+        {
+            return;
+        }
+        for (int sectionY : data.dirtySections())
+        {
+            channel.send(packetFactory.create(chunk, data, sectionY), PacketDistributor.TRACKING_CHUNK.with(chunk));
+        }
+        data.clearDirtySections();
+    }
+
+    /**
+     * Sends every stored section of the {@linkplain CD chunk block data} to a {@link ServerPlayer}.
+     * This should be called when the player starts watching the {@link LevelChunk} (see {@link net.minecraftforge.event.level.ChunkWatchEvent.Watch})
+     * @param channel The {@linkplain SimpleChannel channel} to send the {@linkplain P block data section sync packets} through
+     * @param player The {@link ServerPlayer} receiving the packets
+     * @param chunk The {@link LevelChunk} the {@linkplain CD data} is attached to
+     * @param data The {@linkplain CD chunk block data} to send
+     * @param packetFactory The {@linkplain BlockDataSectionSyncS2CPacket.Factory factory} that creates the {@linkplain P block data section sync packet} for a section
+     * @param <CD> The {@linkplain AbstractChunkBlockData} type being sent
+     * @param <P> The {@linkplain BlockDataSectionSyncS2CPacket} type being sent
+     */
+    public static <CD extends AbstractChunkBlockData<CD>, P extends BlockDataSectionSyncS2CPacket<CD>> void sendBlockDataToPlayer(SimpleChannel channel, ServerPlayer player, LevelChunk chunk, CD data, BlockDataSectionSyncS2CPacket.Factory<CD, P> packetFactory)
+    {
+        for (int sectionY : data.storedSections())
+        {
+            sendToPlayer(channel, packetFactory.create(chunk, data, sectionY), player);
+        }
+    }
+
+    /**
+     * Shared payload events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class SharedPayloadEvents
+    {
+        /**
+         * Releases the shared bytes of packets dispatched on the previous tick, so bytes that were not copied by every connection are never reused by a later send
+         * @param event The {@link TickEvent.ServerTickEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onServerTick(TickEvent.ServerTickEvent event)
+        {
+            if (event.phase == TickEvent.Phase.START)
+            {
+                releaseShared(sharedLastTick);
+                final List<NetworkPacket> released = sharedLastTick;
+                sharedLastTick = sharedThisTick;
+                sharedThisTick = released;
+            }
+        }
+
+        /**
+         * Releases every shared payload once the server stops
+         * @param event The {@link ServerStoppedEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onServerStopped(ServerStoppedEvent event)
+        {
+            releaseShared(sharedLastTick);
+            releaseShared(sharedThisTick);
+        }
     }
 }
@@ -0,0 +1,459 @@
+package net.laserdiamond.laserutils.network;
+
+import com.mojang.brigadier.context.CommandContext;
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.SimpleChannel;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Keeps count of the messages, bytes, and time spent on each {@link NetworkPacket} type registered through {@link NetworkPackets#registerPacket(SimpleChannel, int, Class, java.util.function.Function, net.minecraftforge.network.NetworkDirection)},
+ * for both directions, and for each player.
+ * <p>The statistics can be viewed in game with {@code /laserutils netstats}, and can be {@linkplain #setLogIntervalTicks(int) logged periodically}</p>
+ */
+public final class NetworkStatistics {
+
+    /**
+     * The estimated size of a packet type that has not been sent yet, in bytes
+     */
+    private static final int DEFAULT_ESTIMATED_SIZE = 64;
+
+    /**
+     * The {@link PacketStats} of each packet type
+     */
+    private static final Map<Class<?>, PacketStats> BY_TYPE = new ConcurrentHashMap<>();
+
+    /**
+     * The {@link PlayerStats} of each player, mapped by the player's {@link UUID}
+     */
+    private static final Map<UUID, PlayerStats> BY_PLAYER = new ConcurrentHashMap<>();
+
+    /**
+     * The amount of ticks between each logged summary. 0 if summaries are not logged
+     */
+    private static int logIntervalTicks = 0;
+
+    /**
+     * The amount of ticks since the last logged summary
+     */
+    private static int ticksSinceLog = 0;
+
+    private NetworkStatistics() {}
+
+    /**
+     * Sets how often a summary of the statistics is logged. Summaries are not logged by default
+     * @param logIntervalTicks The amount of server ticks between each summary. 0 to stop logging summaries
+     * @throws IllegalArgumentException If the interval is less than 0
+     */
+    public static void setLogIntervalTicks(int logIntervalTicks) throws IllegalArgumentException
+    {
+        if (logIntervalTicks < 0)
+        {
+            throw new IllegalArgumentException("Log interval cannot be less than 0! Value offered: " + logIntervalTicks);
+        }
+        NetworkStatistics.logIntervalTicks = logIntervalTicks;
+        ticksSinceLog = 0;
+    }
+
+    /**
+     * Gets the {@link PacketStats} of a packet type
+     * @param packetClazz The packet class
+     * @return The {@link PacketStats} of the packet type
+     */
+    public static PacketStats of(Class<?> packetClazz)
+    {
+        return BY_TYPE.computeIfAbsent(packetClazz, PacketStats::new);
+    }
+
+    /**
+     * Gets the {@link PlayerStats} of a player
+     * @param player The {@link ServerPlayer}
+     * @return The {@link PlayerStats} of the player
+     */
+    public static PlayerStats of(ServerPlayer player)
+    {
+        return BY_PLAYER.computeIfAbsent(player.getUUID(), uuid -> new PlayerStats(player.getGameProfile().getName()));
+    }
+
+    /**
+     * Resets every statistic
+     */
+    public static void reset()
+    {
+        BY_TYPE.values().forEach(PacketStats::reset);
+        BY_PLAYER.values().forEach(PlayerStats::reset);
+    }
+
+    /**
+     * Writes a summary of the statistics, one line at a time. Packet types and players are ordered by the amount of bytes they sent and received
+     * @param lineConsumer The {@link Consumer} of each line
+     */
+    public static void summarize(Consumer<String> lineConsumer)
+    {
+        final List<PacketStats> types = new ArrayList<>(BY_TYPE.values());
+        types.sort(Comparator.comparingLong((PacketStats stats) -> stats.sentBytes() + stats.receivedBytes()).reversed());
+        lineConsumer.accept("Packet types (" + types.size() + "):");
+        for (PacketStats stats : types)
+        {
+            lineConsumer.accept(String.format(Locale.ROOT, "  %s: sent %d (%d B), received %d (%d B), avg decode %.1f us, avg handle %.1f us, avg queue %.1f us",
+                    stats.name(), stats.sentMessages(), stats.sentBytes(), stats.receivedMessages(), stats.receivedBytes(),
+                    stats.averageDecodeMicros(), stats.averageHandleMicros(), stats.averageQueueMicros()));
+        }
+        final List<PlayerStats> players = new ArrayList<>(BY_PLAYER.values());
+        players.sort(Comparator.comparingLong((PlayerStats stats) -> stats.sentBytes() + stats.receivedBytes()).reversed());
+        lineConsumer.accept("Players (" + players.size() + "):");
+        for (PlayerStats stats : players)
+        {
+            lineConsumer.accept(String.format(Locale.ROOT, "  %s: sent %d (~%d B), received %d (%d B), deferred %d",
+                    stats.name, stats.sentMessages(), stats.sentBytes(), stats.receivedMessages(), stats.receivedBytes(), stats.deferredMessages()));
+        }
+    }
+
+    /**
+     * Statistics of a single packet type
+     */
+    public static final class PacketStats
+    {
+        private final String name;
+        private final LongAdder sentMessages, sentBytes, receivedMessages, receivedBytes, decodeNanos, handled, handleNanos, queued, queueNanos;
+
+        /**
+         * Creates a new {@link PacketStats}
+         * @param packetClazz The packet class
+         */
+        private PacketStats(Class<?> packetClazz)
+        {
+            this.name = packetClazz.getSimpleName();
+            this.sentMessages = new LongAdder();
+            this.sentBytes = new LongAdder();
+            this.receivedMessages = new LongAdder();
+            this.receivedBytes = new LongAdder();
+            this.decodeNanos = new LongAdder();
+            this.handled = new LongAdder();
+            this.handleNanos = new LongAdder();
+            this.queued = new LongAdder();
+            this.queueNanos = new LongAdder();
+        }
+
+        /**
+         * Records an encoded packet
+         * @param bytes The size of the encoded packet
+         */
+        void recordSent(int bytes)
+        {
+            this.sentMessages.increment();
+            this.sentBytes.add(bytes);
+        }
+
+        /**
+         * Records a decoded packet
+         * @param bytes The size of the encoded packet
+         * @param nanos The time spent decoding the packet, in nanoseconds
+         */
+        void recordReceived(int bytes, long nanos)
+        {
+            this.receivedMessages.increment();
+            this.receivedBytes.add(bytes);
+            this.decodeNanos.add(nanos);
+        }
+
+        /**
+         * Records a handled packet
+         * @param nanos The time spent in {@link NetworkPacket#packetWork(net.minecraftforge.event.network.CustomPayloadEvent.Context)}, in nanoseconds
+         */
+        void recordHandled(long nanos)
+        {
+            this.handled.increment();
+            this.handleNanos.add(nanos);
+        }
+
+        /**
+         * Records the time a packet waited in the {@link MainThreadPacketQueue}
+         * @param nanos The time the packet waited, in nanoseconds
+         */
+        void recordQueued(long nanos)
+        {
+            this.queued.increment();
+            this.queueNanos.add(nanos);
+        }
+
+        /**
+         * @return The estimated size of the packet type once encoded, based on the packets encoded so far
+         */
+        int estimatedSize()
+        {
+            final long messages = this.sentMessages.sum();
+            return messages == 0 ? DEFAULT_ESTIMATED_SIZE : (int) Math.min(Integer.MAX_VALUE, this.sentBytes.sum() / messages);
+        }
+
+        /**
+         * @return The simple name of the packet class
+         */
+        public String name()
+        {
+            return this.name;
+        }
+
+        /**
+         * @return The amount of packets encoded
+         */
+        public long sentMessages()
+        {
+            return this.sentMessages.sum();
+        }
+
+        /**
+         * @return The amount of bytes encoded
+         */
+        public long sentBytes()
+        {
+            return this.sentBytes.sum();
+        }
+
+        /**
+         * @return The amount of packets decoded
+         */
+        public long receivedMessages()
+        {
+            return this.receivedMessages.sum();
+        }
+
+        /**
+         * @return The amount of bytes decoded
+         */
+        public long receivedBytes()
+        {
+            return this.receivedBytes.sum();
+        }
+
+        /**
+         * @return The average time spent decoding a packet, in microseconds
+         */
+        public double averageDecodeMicros()
+        {
+            return average(this.decodeNanos, this.receivedMessages);
+        }
+
+        /**
+         * @return The average time spent handling a packet, in microseconds
+         */
+        public double averageHandleMicros()
+        {
+            return average(this.handleNanos, this.handled);
+        }
+
+        /**
+         * @return The average time a packet waited for the main thread, in microseconds
+         */
+        public double averageQueueMicros()
+        {
+            return average(this.queueNanos, this.queued);
+        }
+
+        /**
+         * Resets the statistics of the packet type. The instance is kept, since the encoder and decoder of the packet type hold onto it
+         */
+        private void reset()
+        {
+            this.sentMessages.reset();
+            this.sentBytes.reset();
+            this.receivedMessages.reset();
+            this.receivedBytes.reset();
+            this.decodeNanos.reset();
+            this.handled.reset();
+            this.handleNanos.reset();
+            this.queued.reset();
+            this.queueNanos.reset();
+        }
+
+        /**
+         * Gets the average of a total in microseconds
+         * @param totalNanos The total, in nanoseconds
+         * @param count The amount of values in the total
+         * @return The average, in microseconds
+         */
+        private static double average(LongAdder totalNanos, LongAdder count)
+        {
+            final long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / (n * 1000D);
+        }
+    }
+
+    /**
+     * Statistics of a single player
+     */
+    public static final class PlayerStats
+    {
+        private final String name;
+        private final LongAdder sentMessages, sentBytes, receivedMessages, receivedBytes, deferredMessages;
+
+        /**
+         * Creates a new {@link PlayerStats}
+         * @param name The name of the player
+         */
+        private PlayerStats(String name)
+        {
+            this.name = name;
+            this.sentMessages = new LongAdder();
+            this.sentBytes = new LongAdder();
+            this.receivedMessages = new LongAdder();
+            this.receivedBytes = new LongAdder();
+            this.deferredMessages = new LongAdder();
+        }
+
+        /**
+         * Records a packet sent to the player
+         * @param estimatedBytes The estimated size of the packet
+         */
+        void recordSent(int estimatedBytes)
+        {
+            this.sentMessages.increment();
+            this.sentBytes.add(estimatedBytes);
+        }
+
+        /**
+         * Records a packet received from the player
+         * @param bytes The size of the packet
+         */
+        void recordReceived(int bytes)
+        {
+            this.receivedMessages.increment();
+            this.receivedBytes.add(bytes);
+        }
+
+        /**
+         * Records a packet deferred by the {@link BandwidthBudgets}
+         */
+        void recordDeferred()
+        {
+            this.deferredMessages.increment();
+        }
+
+        /**
+         * Resets the statistics of the player
+         */
+        private void reset()
+        {
+            this.sentMessages.reset();
+            this.sentBytes.reset();
+            this.receivedMessages.reset();
+            this.receivedBytes.reset();
+            this.deferredMessages.reset();
+        }
+
+        /**
+         * @return The amount of packets sent to the player from the server thread
+         */
+        public long sentMessages()
+        {
+            return this.sentMessages.sum();
+        }
+
+        /**
+         * @return The estimated amount of bytes sent to the player from the server thread, based on the average size of each packet type
+         */
+        public long sentBytes()
+        {
+            return this.sentBytes.sum();
+        }
+
+        /**
+         * @return The amount of packets received from the player
+         */
+        public long receivedMessages()
+        {
+            return this.receivedMessages.sum();
+        }
+
+        /**
+         * @return The amount of bytes received from the player
+         */
+        public long receivedBytes()
+        {
+            return this.receivedBytes.sum();
+        }
+
+        /**
+         * @return The amount of packets to the player that were deferred to a later tick
+         */
+        public long deferredMessages()
+        {
+            return this.deferredMessages.sum();
+        }
+    }
+
+    /**
+     * Network statistics events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class StatisticsEvents
+    {
+        /**
+         * Registers the {@code /laserutils netstats} command
+         * @param event The {@link RegisterCommandsEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onRegisterCommands(RegisterCommandsEvent event)
+        {
+            event.getDispatcher().register(Commands.literal(LaserUtils.MODID)
+                    .requires(source -> source.hasPermission(2))
+                    .then(Commands.literal("netstats")
+                            .executes(StatisticsEvents::printStatistics)
+                            .then(Commands.literal("reset")
+                                    .executes(context ->
+                                    {
+                                        reset();
+                                        context.getSource().sendSuccess(() -> Component.literal("Network statistics reset"), true);
+                                        return 1;
+                                    }))));
+        }
+
+        /**
+         * Sends the statistics summary to the command source
+         * @param context The {@link CommandContext}
+         * @return The command result
+         */
+        private static int printStatistics(CommandContext<CommandSourceStack> context)
+        {
+            summarize(line -> context.getSource().sendSuccess(() -> Component.literal(line), false));
+            return 1;
+        }
+
+        /**
+         * Logs the statistics summary every {@link #logIntervalTicks}
+         * @param event The {@link TickEvent.ServerTickEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onServerTick(TickEvent.ServerTickEvent event)
+        {
+            if (event.phase != TickEvent.Phase.END || logIntervalTicks <= 0 || ++ticksSinceLog < logIntervalTicks)
+            {
+                return;
+            }
+            ticksSinceLog = 0;
+            summarize(LaserUtils.LOGGER::info);
+        }
+
+        /**
+         * Removes the statistics of the player
+         * @param event The {@link PlayerEvent.PlayerLoggedOutEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event)
+        {
+            BY_PLAYER.remove(event.getEntity().getUUID());
+        }
+    }
+}
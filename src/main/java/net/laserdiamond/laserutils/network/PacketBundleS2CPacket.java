@@ -0,0 +1,133 @@
+package net.laserdiamond.laserutils.network;
+
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraftforge.event.network.CustomPayloadEvent;
+import net.minecraftforge.network.SimpleChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@linkplain NetworkPacket Network Packet} sent from the server to the client that contains several other {@link NetworkPacket}s of the same {@link SimpleChannel}.
+ * The contained packets are run in the order they were sent, all on the same thread: the network thread if every contained packet is {@linkplain NetworkPacket#isThreadSafe() thread safe},
+ * or the main thread otherwise.
+ * @see PacketBundler
+ */
+public final class PacketBundleS2CPacket extends NetworkPacket {
+
+    /**
+     * The {@link SimpleChannel} the bundled packets are registered to
+     */
+    private final SimpleChannel channel;
+
+    /**
+     * The bundled {@link NetworkPacket}s
+     */
+    private final List<NetworkPacket> packets;
+
+    /**
+     * Creates a new {@link PacketBundleS2CPacket}
+     * @param channel The {@link SimpleChannel} the bundled packets are registered to
+     * @param packets The {@link NetworkPacket}s to bundle
+     */
+    PacketBundleS2CPacket(SimpleChannel channel, List<NetworkPacket> packets)
+    {
+        this.channel = channel;
+        this.packets = packets;
+    }
+
+    /**
+     * Creates a new {@link PacketBundleS2CPacket}, reading from a {@link RegistryFriendlyByteBuf}
+     * @param channel The {@link SimpleChannel} the bundled packets are registered to
+     * @param buf The {@link RegistryFriendlyByteBuf} to read from
+     */
+    PacketBundleS2CPacket(SimpleChannel channel, RegistryFriendlyByteBuf buf)
+    {
+        this.channel = channel;
+        final PacketTypes packetTypes = PacketTypes.of(channel);
+        final int count = buf.readVarInt();
+        this.packets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            final int id = buf.readVarInt();
+            final int length = buf.readInt();
+            final RegistryFriendlyByteBuf packetBuf = new RegistryFriendlyByteBuf(buf.readSlice(length), buf.registryAccess());
+            final PacketTypes.Type<?> type = packetTypes.byId(id);
+            if (type == null)
+            {
+                LaserUtils.LOGGER.warn("Skipping unknown packet with ID {} in packet bundle", id);
+                continue;
+            }
+            this.packets.add(type.decoder().apply(packetBuf));
+        }
+    }
+
+    @Override
+    public void toBytes(FriendlyByteBuf buf)
+    {
+        final PacketTypes packetTypes = PacketTypes.of(this.channel);
+        buf.writeVarInt(this.packets.size());
+        for (NetworkPacket packet : this.packets)
+        {
+            final PacketTypes.Type<?> type = packetTypes.byClass(packet.getClass());
+            if (type == null)
+            {
+                throw new IllegalStateException("Cannot bundle packet that is not registered to the channel: " + packet.getClass());
+            }
+            buf.writeVarInt(type.id());
+            final int lengthIndex = buf.writerIndex();
+            buf.writeInt(0); // Length placeholder, so a packet that reads too much or too little can't corrupt the rest of the bundle
+            final int start = buf.writerIndex();
+            NetworkPackets.encode(NetworkStatistics.of(packet.getClass()), packet, buf);
+            buf.setInt(lengthIndex, buf.writerIndex() - start);
+        }
+    }
+
+    /**
+     * Bundles are run on the main thread as a whole if any bundled packet must be, so thread safe packets don't run ahead of the packets sent before them
+     * @return True if every bundled packet is thread safe, false otherwise
+     */
+    @Override
+    protected boolean isThreadSafe()
+    {
+        for (NetworkPacket packet : this.packets)
+        {
+            if (!packet.isThreadSafe())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bundles that contain a low priority packet are low priority, so the bundled packets are never sent before low priority packets deferred earlier
+     * @return {@link NetworkPacket.Priority#LOW} if any bundled packet is low priority, {@link NetworkPacket.Priority#NORMAL} otherwise
+     */
+    @Override
+    protected Priority priority()
+    {
+        for (NetworkPacket packet : this.packets)
+        {
+            if (packet.priority() == Priority.LOW)
+            {
+                return Priority.LOW;
+            }
+        }
+        return Priority.NORMAL;
+    }
+
+    @Override
+    public void packetWork(CustomPayloadEvent.Context context)
+    {
+        for (NetworkPacket packet : this.packets)
+        {
+            if (packet.acceptOnNetworkThread(context))
+            {
+                packet.run(context); // Already on the thread every bundled packet can run on
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package net.laserdiamond.laserutils.network;
+
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.SimpleChannel;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import java.util.*;
+
+/**
+ * Collects client bound {@link NetworkPacket}s per destination during a server tick, and sends them at the end of the tick as a single {@link PacketBundleS2CPacket} per destination.
+ * Bundling is opt-in per {@link SimpleChannel} through {@link NetworkPackets#setBundlingEnabled(SimpleChannel, boolean)}.
+ * <p>Bundled packets keep their order relative to each other, but are sent after any packets that are not bundled (such as vanilla packets) sent during the same tick.</p>
+ */
+public final class PacketBundler {
+
+    /**
+     * The {@link SimpleChannel}s that have bundling enabled
+     */
+    private static final Set<SimpleChannel> BUNDLED_CHANNELS = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * The {@link NetworkPacket}s waiting to be sent, per {@link Destination}
+     */
+    private static final LinkedHashMap<Destination, List<NetworkPacket>> PENDING = new LinkedHashMap<>();
+
+    /**
+     * The maximum amount of packets in a single bundle. Destinations with more packets are sent several bundles
+     */
+    private static int maxPacketsPerBundle = 256;
+
+    /**
+     * The maximum estimated size of a single bundle in bytes. Kept well under the 1 MiB limit of client bound custom payloads, as the size of each packet is only an estimate
+     */
+    private static int maxBundleBytes = 256 * 1024;
+
+    private PacketBundler() {}
+
+    /**
+     * Enables or disables bundling for a {@link SimpleChannel}
+     * @param channel The {@link SimpleChannel}
+     * @param enabled True to bundle packets sent through the channel, false to send them immediately
+     */
+    static synchronized void setEnabled(SimpleChannel channel, boolean enabled)
+    {
+        if (enabled)
+        {
+            BUNDLED_CHANNELS.add(channel);
+        } else
+        {
+            BUNDLED_CHANNELS.remove(channel);
+            flush(channel); // Don't hold on to packets that were already queued
+        }
+    }
+
+    /**
+     * Sets the maximum amount of packets in a single bundle
+     * @param maxPacketsPerBundle The maximum amount of packets in a bundle
+     * @throws IllegalArgumentException If the amount is less than 2
+     */
+    public static void setMaxPacketsPerBundle(int maxPacketsPerBundle) throws IllegalArgumentException
+    {
+        if (maxPacketsPerBundle < 2)
+        {
+            throw new IllegalArgumentException("Max packets per bundle must be at least 2! Value offered: " + maxPacketsPerBundle);
+        }
+        PacketBundler.maxPacketsPerBundle = maxPacketsPerBundle;
+    }
+
+    /**
+     * Sets the maximum estimated size of a single bundle. Bundles are split once the {@linkplain NetworkStatistics estimated sizes} of their packets add up to this size.
+     * Defaults to 256 KiB
+     * @param maxBundleBytes The maximum size of a bundle in bytes
+     * @throws IllegalArgumentException If the size is less than 1 KiB or greater than 1 MiB
+     */
+    public static void setMaxBundleBytes(int maxBundleBytes) throws IllegalArgumentException
+    {
+        if (maxBundleBytes < 1024 || maxBundleBytes > 1024 * 1024)
+        {
+            throw new IllegalArgumentException("Max bundle bytes must be between 1 KiB and 1 MiB! Value offered: " + maxBundleBytes);
+        }
+        PacketBundler.maxBundleBytes = maxBundleBytes;
+    }
+
+    /**
+     * Queues a {@link NetworkPacket} to be bundled, if possible
+     * @param channel The {@link SimpleChannel} the packet is sent through
+     * @param packet The {@link NetworkPacket} to send
+     * @param route The {@link PacketRoute} of the packet
+     * @param subject The {@link ServerPlayer} or {@link Entity} the route is relative to. Null for {@link PacketRoute#ALL}
+     * @return True if the packet was queued, false if it should be sent immediately
+     */
+    static boolean queue(SimpleChannel channel, Object packet, PacketRoute route, Object subject)
+    {
+        if (!(packet instanceof NetworkPacket networkPacket) || packet instanceof PacketBundleS2CPacket || !BUNDLED_CHANNELS.contains(channel))
+        {
+            return false;
+        }
+        final MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null || !server.isSameThread())
+        {
+            return false; // Only packets sent from the server thread are flushed at the end of the tick
+        }
+        final PacketTypes.Type<?> type = PacketTypes.of(channel).byClass(packet.getClass());
+        if (type == null || !type.isClientBound())
+        {
+            return false; // Receiver would not be able to decode the packet
+        }
+        PENDING.computeIfAbsent(new Destination(channel, route, subject), d -> new ArrayList<>()).add(networkPacket);
+        return true;
+    }
+
+    /**
+     * Sends every queued {@link NetworkPacket}
+     */
+    private static void flush()
+    {
+        PENDING.forEach(PacketBundler::send);
+        PENDING.clear();
+    }
+
+    /**
+     * Sends every queued {@link NetworkPacket} of a {@link SimpleChannel}
+     * @param channel The {@link SimpleChannel}
+     */
+    private static void flush(SimpleChannel channel)
+    {
+        final Iterator<Map.Entry<Destination, List<NetworkPacket>>> iterator = PENDING.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            final Map.Entry<Destination, List<NetworkPacket>> entry = iterator.next();
+            if (entry.getKey().channel == channel)
+            {
+                send(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Sends the {@link NetworkPacket}s queued for a {@link Destination}
+     * @param destination The {@link Destination}
+     * @param packets The queued {@link NetworkPacket}s
+     */
+    private static void send(Destination destination, List<NetworkPacket> packets)
+    {
+        if (destination.subject instanceof ServerPlayer serverPlayer && serverPlayer.hasDisconnected())
+        {
+            return;
+        }
+        if (packets.size() == 1)
+        {
+            NetworkPackets.dispatch(destination.channel, packets.get(0), destination.route, destination.subject); // Nothing to bundle with
+            return;
+        }
+        int start = 0;
+        int bundleBytes = 0;
+        for (int i = 0; i < packets.size(); i++)
+        {
+            final int packetBytes = NetworkStatistics.of(packets.get(i).getClass()).estimatedSize();
+            if (i > start && (i - start >= maxPacketsPerBundle || bundleBytes + packetBytes > maxBundleBytes))
+            {
+                sendBundle(destination, packets.subList(start, i)); // Bundle is full, send it and start a new one
+                start = i;
+                bundleBytes = 0;
+            }
+            bundleBytes += packetBytes;
+        }
+        sendBundle(destination, packets.subList(start, packets.size()));
+    }
+
+    /**
+     * Sends a single bundle of {@link NetworkPacket}s, or the packet alone if there is only one
+     * @param destination The {@link Destination}
+     * @param bundle The {@link NetworkPacket}s of the bundle
+     */
+    private static void sendBundle(Destination destination, List<NetworkPacket> bundle)
+    {
+        if (bundle.size() == 1)
+        {
+            NetworkPackets.dispatch(destination.channel, bundle.get(0), destination.route, destination.subject);
+            return;
+        }
+        NetworkPackets.dispatch(destination.channel, new PacketBundleS2CPacket(destination.channel, new ArrayList<>(bundle)), destination.route, destination.subject);
+    }
+
+    /**
+     * A destination of bundled packets
+     * @param channel The {@link SimpleChannel} the packets are sent through
+     * @param route The {@link PacketRoute} of the packets
+     * @param subject The {@link ServerPlayer} or {@link Entity} the route is relative to. Null for {@link PacketRoute#ALL}
+     */
+    private record Destination(SimpleChannel channel, PacketRoute route, Object subject) {}
+
+    /**
+     * Packet bundling events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class BundleEvents
+    {
+        /**
+         * Sends every queued packet at the end of the server tick. Runs last, so packets queued by other end of tick listeners are included
+         * @param event The {@link TickEvent.ServerTickEvent} to listen for
+         */
+        @SubscribeEvent(priority = EventPriority.LOWEST)
+        public static void onServerTick(TickEvent.ServerTickEvent event)
+        {
+            if (event.phase == TickEvent.Phase.END)
+            {
+                flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package net.laserdiamond.laserutils.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Adler32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses the payloads of {@link CompressiblePacket}s with a {@link Deflater} preset dictionary.
+ * The dictionary is built from sample payloads, such as the default data of each capability {@linkplain CapabilitySnapshots#register(net.minecraft.resources.ResourceLocation, net.minecraftforge.common.capabilities.Capability, java.util.function.Supplier) registered for snapshots},
+ * so even small payloads that share field names and values with the samples compress well.
+ * <p>Samples must be added in the same order on the client and the server, before the first compressible packet is sent or received. The dictionary cannot change afterward.
+ * A client with a different dictionary fails to decode compressed payloads instead of reading corrupt data</p>
+ * <p>Compression is disabled by default. Payloads are only ever decompressed by the receiver if the sender compressed them</p>
+ */
+public final class PacketCompression {
+
+    /**
+     * The maximum size of the dictionary. Deflate can't look back further than this
+     */
+    private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+    /**
+     * The maximum size of a decompressed payload, so a malicious payload can't use up the receiver's memory
+     */
+    private static final int MAX_RAW_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * The sample payloads added so far
+     */
+    private static final List<byte[]> SAMPLES = new ArrayList<>();
+
+    /**
+     * A {@link Deflater} per thread, as packets can be encoded on the server thread and several network threads at once
+     */
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION));
+
+    /**
+     * An {@link Inflater} per thread
+     */
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    /**
+     * The dictionary. Null until first used
+     */
+    private static volatile byte[] dictionary;
+
+    /**
+     * The Adler-32 checksum of the {@link #dictionary}
+     */
+    private static int dictionaryAdler;
+
+    /**
+     * True if payloads over the {@link #threshold} are compressed when sent
+     */
+    private static volatile boolean enabled = false;
+
+    /**
+     * The minimum size of a payload to compress, in bytes
+     */
+    private static volatile int threshold = 256;
+
+    private PacketCompression() {}
+
+    /**
+     * Enables or disables compressing payloads when they are sent. Receiving compressed payloads is always supported
+     * @param enabled True to compress payloads over the threshold, false to send every payload uncompressed
+     */
+    public static void setEnabled(boolean enabled)
+    {
+        PacketCompression.enabled = enabled;
+    }
+
+    /**
+     * Sets the minimum size of a payload to compress
+     * @param threshold The minimum size of a payload to compress, in bytes
+     * @throws IllegalArgumentException If the threshold is less than 0
+     */
+    public static void setThreshold(int threshold) throws IllegalArgumentException
+    {
+        if (threshold < 0)
+        {
+            throw new IllegalArgumentException("Compression threshold cannot be less than 0! Value offered: " + threshold);
+        }
+        PacketCompression.threshold = threshold;
+    }
+
+    /**
+     * Adds a typical payload to the dictionary. Samples added later are preferred by the compressor, so the most common payloads should be added last
+     * @param sample The sample {@link CompoundTag}
+     */
+    public static synchronized void addDictionarySample(CompoundTag sample)
+    {
+        if (dictionary != null)
+        {
+            LaserUtils.LOGGER.warn("Ignoring packet compression dictionary sample added after the dictionary was built");
+            return;
+        }
+        final FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        buf.writeNbt(sample);
+        final byte[] bytes = new byte[buf.readableBytes()];
+        buf.readBytes(bytes);
+        buf.release();
+        SAMPLES.add(bytes);
+    }
+
+    /**
+     * Gets the dictionary, building it from the samples the first time it is used
+     * @return The dictionary
+     */
+    private static byte[] dictionary()
+    {
+        byte[] dict = dictionary;
+        if (dict != null)
+        {
+            return dict;
+        }
+        synchronized (PacketCompression.class)
+        {
+            if (dictionary == null)
+            {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                for (byte[] sample : SAMPLES)
+                {
+                    out.writeBytes(sample);
+                }
+                final byte[] all = out.toByteArray();
+                final int start = Math.max(0, all.length - MAX_DICTIONARY_SIZE); // Keep the latest samples if there are too many
+                dict = new byte[all.length - start];
+                System.arraycopy(all, start, dict, 0, dict.length);
+                final Adler32 adler32 = new Adler32();
+                adler32.update(dict);
+                dictionaryAdler = (int) adler32.getValue();
+                dictionary = dict;
+                SAMPLES.clear();
+            }
+            return dictionary;
+        }
+    }
+
+    /**
+     * Writes the payload of a {@link CompressiblePacket}, compressing it if enabled and large enough
+     * @param packet The {@link NetworkPacket} to write
+     * @param buf The {@link FriendlyByteBuf} to write to
+     */
+    static void write(NetworkPacket packet, FriendlyByteBuf buf)
+    {
+        final ByteBuf rawBuf = Unpooled.buffer();
+        try
+        {
+            packet.toBytes(buf instanceof RegistryFriendlyByteBuf registryBuf ? new RegistryFriendlyByteBuf(rawBuf, registryBuf.registryAccess()) : new FriendlyByteBuf(rawBuf));
+            final int rawSize = rawBuf.readableBytes();
+            if (enabled && rawSize >= threshold)
+            {
+                final byte[] raw = new byte[rawSize];
+                rawBuf.getBytes(rawBuf.readerIndex(), raw);
+                final byte[] compressed = deflate(raw);
+                if (compressed.length < rawSize)
+                {
+                    buf.writeBoolean(true);
+                    buf.writeVarInt(rawSize);
+                    buf.writeByteArray(compressed);
+                    return;
+                }
+            }
+            buf.writeBoolean(false);
+            buf.writeBytes(rawBuf);
+        } finally
+        {
+            rawBuf.release();
+        }
+    }
+
+    /**
+     * Reads the payload of a {@link CompressiblePacket}, decompressing it if needed
+     * @param buf The {@link RegistryFriendlyByteBuf} to read from
+     * @return A {@link RegistryFriendlyByteBuf} positioned at the start of the uncompressed payload
+     * @throws IllegalStateException If the payload is malformed, too large, or was compressed with a different dictionary
+     */
+    static RegistryFriendlyByteBuf read(RegistryFriendlyByteBuf buf) throws IllegalStateException
+    {
+        if (!buf.readBoolean())
+        {
+            return buf;
+        }
+        final int rawSize = buf.readVarInt();
+        if (rawSize < 0 || rawSize > MAX_RAW_SIZE)
+        {
+            throw new IllegalStateException("Compressed packet payload is too large: " + rawSize + " bytes");
+        }
+        final byte[] compressed = buf.readByteArray();
+        return new RegistryFriendlyByteBuf(Unpooled.wrappedBuffer(inflate(compressed, rawSize)), buf.registryAccess());
+    }
+
+    /**
+     * Compresses bytes with the dictionary
+     * @param raw The bytes to compress
+     * @return The compressed bytes
+     */
+    private static byte[] deflate(byte[] raw)
+    {
+        final Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        final byte[] dict = dictionary();
+        if (dict.length > 0)
+        {
+            deflater.setDictionary(dict);
+        }
+        deflater.setInput(raw);
+        deflater.finish();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+        final byte[] chunk = new byte[4096];
+        while (!deflater.finished())
+        {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompresses bytes with the dictionary
+     * @param compressed The compressed bytes
+     * @param rawSize The size of the decompressed bytes
+     * @return The decompressed bytes
+     * @throws IllegalStateException If the bytes are malformed, do not match the size, or were compressed with a different dictionary
+     */
+    private static byte[] inflate(byte[] compressed, int rawSize) throws IllegalStateException
+    {
+        final Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(compressed);
+        final byte[] raw = new byte[rawSize];
+        int read = 0;
+        try
+        {
+            while (read < rawSize && !inflater.finished())
+            {
+                final int n = inflater.inflate(raw, read, rawSize - read);
+                if (n == 0)
+                {
+                    if (inflater.needsDictionary())
+                    {
+                        final byte[] dict = dictionary();
+                        if (inflater.getAdler() != dictionaryAdler)
+                        {
+                            throw new IllegalStateException("Compressed packet payload uses a different dictionary. Are the client and server running the same mods?");
+                        }
+                        inflater.setDictionary(dict);
+                    } else if (inflater.needsInput())
+                    {
+                        break;
+                    }
+                }
+                read += n;
+            }
+        } catch (DataFormatException e)
+        {
+            throw new IllegalStateException("Malformed compressed packet payload", e);
+        }
+        if (read != rawSize)
+        {
+            throw new IllegalStateException("Compressed packet payload does not match its size of " + rawSize + " bytes");
+        }
+        return raw;
+    }
+}
@@ -0,0 +1,61 @@
+package net.laserdiamond.laserutils.network;
+
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraftforge.network.PacketDistributor;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The routes a client bound packet can take, matching the send methods of {@link NetworkPackets}
+ */
+enum PacketRoute {
+
+    PLAYER,
+    TRACKING_ENTITY,
+    TRACKING_ENTITY_AND_SELF,
+    ALL;
+
+    /**
+     * Gets the {@link PacketDistributor.PacketTarget} of this route
+     * @param subject The {@link ServerPlayer} or {@link Entity} the route is relative to. Null for {@link #ALL}
+     * @return The {@link PacketDistributor.PacketTarget} of this route
+     */
+    PacketDistributor.PacketTarget target(Object subject)
+    {
+        return switch (this)
+        {
+            case PLAYER -> PacketDistributor.PLAYER.with((ServerPlayer) subject);
+            case TRACKING_ENTITY -> PacketDistributor.TRACKING_ENTITY.with((Entity) subject);
+            case TRACKING_ENTITY_AND_SELF -> PacketDistributor.TRACKING_ENTITY_AND_SELF.with((Entity) subject);
+            case ALL -> PacketDistributor.ALL.noArg();
+        };
+    }
+
+    /**
+     * Gets every {@link ServerPlayer} that receives a packet sent through this route. Must be called on the server thread
+     * @param subject The {@link ServerPlayer} or {@link Entity} the route is relative to. Null for {@link #ALL}
+     * @return The receiving {@link ServerPlayer}s
+     */
+    Collection<ServerPlayer> players(Object subject)
+    {
+        return switch (this)
+        {
+            case PLAYER -> List.of((ServerPlayer) subject);
+            case TRACKING_ENTITY -> EntityTrackers.of((Entity) subject);
+            case TRACKING_ENTITY_AND_SELF ->
+            {
+                final List<ServerPlayer> players = new ArrayList<>(EntityTrackers.of((Entity) subject));
+                if (subject instanceof ServerPlayer serverPlayer)
+                {
+                    players.add(serverPlayer);
+                }
+                yield players;
+            }
+            case ALL -> ServerLifecycleHooks.getCurrentServer().getPlayerList().getPlayers();
+        };
+    }
+}
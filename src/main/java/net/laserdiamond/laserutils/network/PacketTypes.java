@@ -0,0 +1,112 @@
+package net.laserdiamond.laserutils.network;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.SimpleChannel;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keeps track of the {@link NetworkPacket}s registered to each {@link SimpleChannel} through {@link NetworkPackets#registerPacket(SimpleChannel, int, Class, Function, NetworkDirection)}.
+ * Used to encode and decode packets that are sent inside other packets, such as a {@link PacketBundleS2CPacket}
+ */
+final class PacketTypes {
+
+    /**
+     * The {@link PacketTypes} of each {@link SimpleChannel}
+     */
+    private static final Map<SimpleChannel, PacketTypes> CHANNELS = new IdentityHashMap<>();
+
+    private final Map<Class<?>, Type<?>> byClass;
+    private final Int2ObjectOpenHashMap<Type<?>> byId;
+    private boolean bundleRegistered;
+
+    private PacketTypes()
+    {
+        this.byClass = new HashMap<>();
+        this.byId = new Int2ObjectOpenHashMap<>();
+        this.bundleRegistered = false;
+    }
+
+    /**
+     * Gets the {@link PacketTypes} of a {@link SimpleChannel}
+     * @param channel The {@link SimpleChannel}
+     * @return The {@link PacketTypes} registered to the {@link SimpleChannel}
+     */
+    static synchronized PacketTypes of(SimpleChannel channel)
+    {
+        return CHANNELS.computeIfAbsent(channel, c -> new PacketTypes());
+    }
+
+    /**
+     * Adds a packet {@link Type}
+     * @param type The {@link Type} to add
+     */
+    synchronized void add(Type<?> type)
+    {
+        this.byClass.put(type.packetClazz(), type);
+        this.byId.put(type.id(), type);
+    }
+
+    /**
+     * Marks the {@link PacketBundleS2CPacket} as registered to the channel
+     */
+    void markBundleRegistered()
+    {
+        this.bundleRegistered = true;
+    }
+
+    /**
+     * @return True if the {@link PacketBundleS2CPacket} is registered to the channel
+     */
+    boolean isBundleRegistered()
+    {
+        return this.bundleRegistered;
+    }
+
+    /**
+     * Gets the {@link Type} of a packet class
+     * @param packetClazz The packet class
+     * @return The {@link Type}, or null if the class was not registered to the channel
+     */
+    @Nullable
+    Type<?> byClass(Class<?> packetClazz)
+    {
+        return this.byClass.get(packetClazz);
+    }
+
+    /**
+     * Gets the {@link Type} of a packet ID
+     * @param id The packet ID
+     * @return The {@link Type}, or null if the ID was not registered to the channel
+     */
+    @Nullable
+    Type<?> byId(int id)
+    {
+        return this.byId.get(id);
+    }
+
+    /**
+     * A registered {@link NetworkPacket} type
+     * @param id The ID of the packet
+     * @param packetClazz The packet class
+     * @param decoder The packet's decoder
+     * @param networkDirection The {@link NetworkDirection} the packet travels in
+     * @param <P> The {@link NetworkPacket} type
+     */
+    record Type<P extends NetworkPacket>(int id, Class<P> packetClazz, Function<RegistryFriendlyByteBuf, P> decoder, NetworkDirection<RegistryFriendlyByteBuf> networkDirection)
+    {
+        /**
+         * @return True if the packet travels from the server to the client
+         */
+        boolean isClientBound()
+        {
+            return this.networkDirection == NetworkDirection.PLAY_TO_CLIENT;
+        }
+    }
+}
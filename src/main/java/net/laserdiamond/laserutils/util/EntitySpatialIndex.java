@@ -0,0 +1,275 @@
+package net.laserdiamond.laserutils.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A spatial hash of the {@link LivingEntity}s of a {@link ServerLevel}, shared by every attack goal and ray cast of the level.
+ * The index is rebuilt lazily, at most once per tick, by the first query of that tick, so a crowd is only scanned once no matter how many mobs are looking through it.
+ * <p>Entities are bucketed in columns of 8 by 8 blocks by their position at the time of the rebuild.
+ * Queries are padded to account for entities that moved or are wider than a cell, and every result is checked against the entity's current position,
+ * so results are exact for the entities that were in the index.
+ * Entities added to the level after the rebuild are only found from the next tick on</p>
+ * <p>Only {@link LivingEntity}s are indexed. Should only be accessed from the server thread</p>
+ */
+public final class EntitySpatialIndex {
+
+    /**
+     * The shift from a block coordinate to a cell coordinate. Cells are 8 blocks wide
+     */
+    private static final int CELL_SHIFT = 3;
+
+    /**
+     * The amount of blocks an entity is assumed to be able to move between the rebuild and a query in the same tick
+     */
+    private static final double MOVEMENT_MARGIN = 2.0;
+
+    /**
+     * The index of each level
+     */
+    private static final Map<ServerLevel, EntitySpatialIndex> INDICES = new IdentityHashMap<>();
+
+    /**
+     * The {@link ServerLevel} that is indexed
+     */
+    private final ServerLevel level;
+
+    /**
+     * The entities of each cell, mapped by the cell's {@linkplain ChunkPos#asLong(int, int) packed position}
+     */
+    private final Long2ObjectOpenHashMap<ArrayList<LivingEntity>> cells;
+
+    /**
+     * The game time of the last rebuild
+     */
+    private long builtGameTime;
+
+    /**
+     * The largest horizontal half width of any indexed entity, used to pad queries
+     */
+    private double maxHalfWidth;
+
+    /**
+     * Creates a new {@link EntitySpatialIndex}
+     * @param level The {@link ServerLevel} to index
+     */
+    private EntitySpatialIndex(ServerLevel level)
+    {
+        this.level = level;
+        this.cells = new Long2ObjectOpenHashMap<>();
+        this.builtGameTime = Long.MIN_VALUE;
+        this.maxHalfWidth = 0;
+    }
+
+    /**
+     * Gets the {@link EntitySpatialIndex} of a level
+     * @param level The {@link ServerLevel}
+     * @return The {@link EntitySpatialIndex} of the level
+     */
+    public static EntitySpatialIndex of(ServerLevel level)
+    {
+        return INDICES.computeIfAbsent(level, EntitySpatialIndex::new);
+    }
+
+    /**
+     * Gets every entity within a radius of a position
+     * @param entityClazz The {@link Entity} class to look for
+     * @param center The center of the sphere
+     * @param radius The radius of the sphere
+     * @param filter The {@link Predicate} the entities must pass
+     * @return A {@link List} of the entities whose position is within the radius
+     * @param <E> The {@link Entity} type
+     */
+    public <E extends Entity> List<E> inRadius(Class<E> entityClazz, Vec3 center, double radius, Predicate<? super E> filter)
+    {
+        final double radiusSqr = radius * radius;
+        final List<E> entities = new ArrayList<>();
+        this.forEachCandidate(center.x - radius, center.z - radius, center.x + radius, center.z + radius, entityClazz, filter, e ->
+        {
+            if (e.distanceToSqr(center) <= radiusSqr)
+            {
+                entities.add(e);
+            }
+        });
+        return entities;
+    }
+
+    /**
+     * Gets every entity whose bounding box intersects with a box
+     * @param entityClazz The {@link Entity} class to look for
+     * @param box The {@link AABB} to look in
+     * @param filter The {@link Predicate} the entities must pass
+     * @return A {@link List} of the entities that intersect with the box
+     * @param <E> The {@link Entity} type
+     */
+    public <E extends Entity> List<E> inBox(Class<E> entityClazz, AABB box, Predicate<? super E> filter)
+    {
+        final List<E> entities = new ArrayList<>();
+        this.forEachCandidate(box.minX, box.minZ, box.maxX, box.maxZ, entityClazz, filter, e ->
+        {
+            if (e.getBoundingBox().intersects(box))
+            {
+                entities.add(e);
+            }
+        });
+        return entities;
+    }
+
+    /**
+     * Gets every entity within a cone, such as a breath or sweep attack
+     * @param entityClazz The {@link Entity} class to look for
+     * @param origin The tip of the cone
+     * @param direction The direction the cone faces. Does not need to be normalized
+     * @param range The length of the cone
+     * @param halfAngleDegrees The angle between the direction and the edge of the cone, in degrees
+     * @param filter The {@link Predicate} the entities must pass
+     * @return A {@link List} of the entities whose position is within the cone
+     * @param <E> The {@link Entity} type
+     */
+    public <E extends Entity> List<E> inCone(Class<E> entityClazz, Vec3 origin, Vec3 direction, double range, double halfAngleDegrees, Predicate<? super E> filter)
+    {
+        final Vec3 normalizedDirection = direction.normalize();
+        final double minCos = Math.cos(Math.toRadians(halfAngleDegrees));
+        final List<E> entities = new ArrayList<>();
+        for (E e : this.inRadius(entityClazz, origin, range, filter))
+        {
+            final Vec3 toEntity = e.position().subtract(origin);
+            final double length = toEntity.length();
+            if (length == 0 || toEntity.dot(normalizedDirection) / length >= minCos)
+            {
+                entities.add(e);
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * Gets the nearest entities to a position
+     * @param entityClazz The {@link Entity} class to look for
+     * @param center The position to measure from
+     * @param maxRadius The radius to look in
+     * @param count The maximum amount of entities to return
+     * @param filter The {@link Predicate} the entities must pass
+     * @return A {@link List} of at most count entities within the radius, ordered from nearest to furthest
+     * @param <E> The {@link Entity} type
+     * @throws IllegalArgumentException If the count is less than 1
+     */
+    public <E extends Entity> List<E> nearest(Class<E> entityClazz, Vec3 center, double maxRadius, int count, Predicate<? super E> filter) throws IllegalArgumentException
+    {
+        if (count < 1)
+        {
+            throw new IllegalArgumentException("Count must be at least 1! Value offered: " + count);
+        }
+        final List<E> entities = this.inRadius(entityClazz, center, maxRadius, filter);
+        entities.sort(Comparator.comparingDouble(e -> e.distanceToSqr(center)));
+        return entities.size() > count ? new ArrayList<>(entities.subList(0, count)) : entities;
+    }
+
+    /**
+     * Runs an action on every indexed entity of the class that passes the filter and is in a cell overlapping the area
+     * @param minX The minimum x of the area
+     * @param minZ The minimum z of the area
+     * @param maxX The maximum x of the area
+     * @param maxZ The maximum z of the area
+     * @param entityClazz The {@link Entity} class to look for
+     * @param filter The {@link Predicate} the entities must pass
+     * @param action The action to run on each candidate
+     * @param <E> The {@link Entity} type
+     */
+    private <E extends Entity> void forEachCandidate(double minX, double minZ, double maxX, double maxZ, Class<E> entityClazz, Predicate<? super E> filter, Consumer<E> action)
+    {
+        this.ensureCurrent();
+        final double padding = this.maxHalfWidth + MOVEMENT_MARGIN;
+        final int minCellX = Mth.floor(minX - padding) >> CELL_SHIFT;
+        final int minCellZ = Mth.floor(minZ - padding) >> CELL_SHIFT;
+        final int maxCellX = Mth.floor(maxX + padding) >> CELL_SHIFT;
+        final int maxCellZ = Mth.floor(maxZ + padding) >> CELL_SHIFT;
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++)
+        {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++)
+            {
+                final ArrayList<LivingEntity> cell = this.cells.get(ChunkPos.asLong(cellX, cellZ));
+                if (cell == null)
+                {
+                    continue;
+                }
+                for (LivingEntity livingEntity : cell)
+                {
+                    if (entityClazz.isInstance(livingEntity) && livingEntity.isAlive())
+                    {
+                        final E e = entityClazz.cast(livingEntity);
+                        if (filter.test(e))
+                        {
+                            action.accept(e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index if it was not built this tick
+     */
+    private void ensureCurrent()
+    {
+        final long gameTime = this.level.getGameTime();
+        if (gameTime == this.builtGameTime)
+        {
+            return;
+        }
+        this.builtGameTime = gameTime;
+        this.maxHalfWidth = 0;
+        this.cells.values().forEach(ArrayList::clear); // Keep the lists of occupied cells to avoid reallocating them every tick
+        for (Entity entity : this.level.getAllEntities())
+        {
+            if (entity instanceof LivingEntity livingEntity && livingEntity.isAlive())
+            {
+                final long key = ChunkPos.asLong(Mth.floor(livingEntity.getX()) >> CELL_SHIFT, Mth.floor(livingEntity.getZ()) >> CELL_SHIFT);
+                ArrayList<LivingEntity> cell = this.cells.get(key);
+                if (cell == null)
+                {
+                    cell = new ArrayList<>();
+                    this.cells.put(key, cell);
+                }
+                cell.add(livingEntity);
+                this.maxHalfWidth = Math.max(this.maxHalfWidth, livingEntity.getBbWidth() / 2);
+            }
+        }
+        this.cells.values().removeIf(ArrayList::isEmpty);
+    }
+
+    /**
+     * Entity spatial index events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class IndexEvents
+    {
+        /**
+         * Removes the index of a level once it unloads
+         * @param event The {@link LevelEvent.Unload} event to listen for
+         */
+        @SubscribeEvent
+        public static void onLevelUnload(LevelEvent.Unload event)
+        {
+            if (event.getLevel() instanceof ServerLevel serverLevel)
+            {
+                INDICES.remove(serverLevel);
+            }
+        }
+    }
+}
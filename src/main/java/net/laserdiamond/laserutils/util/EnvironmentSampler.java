@@ -0,0 +1,215 @@
+package net.laserdiamond.laserutils.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A per tick cache of environmental samples of a {@link ServerLevel}, such as the sky exposure and brightness of a block, shared by every mob of the level.
+ * Mobs standing in the same block on the same tick reuse the same values, so a crowd of sun sensitive mobs only queries the light engine once per occupied block.
+ * <p>Samples are keyed by block position and computed lazily, so only the values that were asked for are looked up.
+ * The cache is cleared by the first sample of each tick. Should only be accessed from the server thread</p>
+ */
+public final class EnvironmentSampler {
+
+    /**
+     * The sampler of each level
+     */
+    private static final Map<ServerLevel, EnvironmentSampler> SAMPLERS = new IdentityHashMap<>();
+
+    /**
+     * The {@link ServerLevel} that is sampled
+     */
+    private final ServerLevel level;
+
+    /**
+     * The samples of the current tick, mapped by the {@linkplain BlockPos#asLong(int, int, int) packed position} of their block
+     */
+    private final Long2ObjectOpenHashMap<Sample> samples;
+
+    /**
+     * The game time of the cached samples
+     */
+    private long sampledGameTime;
+
+    /**
+     * Creates a new {@link EnvironmentSampler}
+     * @param level The {@link ServerLevel} to sample
+     */
+    private EnvironmentSampler(ServerLevel level)
+    {
+        this.level = level;
+        this.samples = new Long2ObjectOpenHashMap<>();
+        this.sampledGameTime = Long.MIN_VALUE;
+    }
+
+    /**
+     * Gets the {@link EnvironmentSampler} of a level
+     * @param level The {@link ServerLevel}
+     * @return The {@link EnvironmentSampler} of the level
+     */
+    public static EnvironmentSampler of(ServerLevel level)
+    {
+        return SAMPLERS.computeIfAbsent(level, EnvironmentSampler::new);
+    }
+
+    /**
+     * Gets the sample of the block containing a position
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @return The {@link Sample} of the block for the current tick
+     */
+    public Sample sample(double x, double y, double z)
+    {
+        return this.sample(Mth.floor(x), Mth.floor(y), Mth.floor(z));
+    }
+
+    /**
+     * Gets the sample of a block
+     * @param blockX The x position of the block
+     * @param blockY The y position of the block
+     * @param blockZ The z position of the block
+     * @return The {@link Sample} of the block for the current tick
+     */
+    public Sample sample(int blockX, int blockY, int blockZ)
+    {
+        final long gameTime = this.level.getGameTime();
+        if (gameTime != this.sampledGameTime)
+        {
+            this.samples.clear(); // Samples are only valid for the tick they were taken on
+            this.sampledGameTime = gameTime;
+        }
+        final long key = BlockPos.asLong(blockX, blockY, blockZ);
+        Sample sample = this.samples.get(key);
+        if (sample == null)
+        {
+            sample = new Sample(this.level, new BlockPos(blockX, blockY, blockZ));
+            this.samples.put(key, sample);
+        }
+        return sample;
+    }
+
+    /**
+     * The environmental values of one block on one tick. Each value is looked up the first time it is asked for
+     */
+    public static final class Sample
+    {
+        private static final int SKY_SAMPLED = 1;
+        private static final int BRIGHTNESS_SAMPLED = 1 << 1;
+        private static final int RAIN_SAMPLED = 1 << 2;
+        private static final int BELOW_SAMPLED = 1 << 3;
+
+        private final ServerLevel level;
+        private final BlockPos pos;
+        private int sampled;
+        private boolean canSeeSky;
+        private float brightness;
+        private boolean raining;
+        private BlockState blockStateBelow;
+
+        /**
+         * Creates a new {@link Sample}
+         * @param level The {@link ServerLevel} of the block
+         * @param pos The {@link BlockPos} of the block
+         */
+        private Sample(ServerLevel level, BlockPos pos)
+        {
+            this.level = level;
+            this.pos = pos;
+            this.sampled = 0;
+        }
+
+        /**
+         * @return The {@link BlockPos} of the sampled block
+         */
+        public BlockPos pos()
+        {
+            return this.pos;
+        }
+
+        /**
+         * @return True if the block can see the sky, false otherwise
+         * @see ServerLevel#canSeeSky(BlockPos)
+         */
+        public boolean canSeeSky()
+        {
+            if ((this.sampled & SKY_SAMPLED) == 0)
+            {
+                this.canSeeSky = this.level.canSeeSky(this.pos);
+                this.sampled |= SKY_SAMPLED;
+            }
+            return this.canSeeSky;
+        }
+
+        /**
+         * Gets the brightness of the block, the same value as {@link net.minecraft.world.entity.Entity#getLightLevelDependentMagicValue()} for an entity whose eyes are in the block
+         * @return The brightness of the block, between 0 and 1. 0 if the block is not loaded
+         */
+        public float brightness()
+        {
+            if ((this.sampled & BRIGHTNESS_SAMPLED) == 0)
+            {
+                this.brightness = this.level.hasChunkAt(this.pos) ? this.level.getLightLevelDependentMagicValue(this.pos) : 0;
+                this.sampled |= BRIGHTNESS_SAMPLED;
+            }
+            return this.brightness;
+        }
+
+        /**
+         * @return True if it is raining on the block, false otherwise
+         * @see ServerLevel#isRainingAt(BlockPos)
+         */
+        public boolean isRaining()
+        {
+            if ((this.sampled & RAIN_SAMPLED) == 0)
+            {
+                this.raining = this.level.isRainingAt(this.pos);
+                this.sampled |= RAIN_SAMPLED;
+            }
+            return this.raining;
+        }
+
+        /**
+         * @return The {@link BlockState} of the block below the sampled block
+         */
+        public BlockState blockStateBelow()
+        {
+            if ((this.sampled & BELOW_SAMPLED) == 0)
+            {
+                this.blockStateBelow = this.level.getBlockState(this.pos.below());
+                this.sampled |= BELOW_SAMPLED;
+            }
+            return this.blockStateBelow;
+        }
+    }
+
+    /**
+     * Environment sampler events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class SamplerEvents
+    {
+        /**
+         * Removes the sampler of a level once it unloads
+         * @param event The {@link LevelEvent.Unload} event to listen for
+         */
+        @SubscribeEvent
+        public static void onLevelUnload(LevelEvent.Unload event)
+        {
+            if (event.getLevel() instanceof ServerLevel serverLevel)
+            {
+                SAMPLERS.remove(serverLevel);
+            }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package net.laserdiamond.laserutils.util;
+
+import net.laserdiamond.laserutils.LaserUtils;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Schedules work to run on the server thread at a later tick, so that delayed and repeating actions don't need their own tick counters.
+ * <ul>
+ *     <li>{@linkplain #runAt(int, Runnable) Run at tick} and {@linkplain #runLater(int, Runnable) run later} tasks run once, at the start of their tick</li>
+ *     <li>{@linkplain #runEvery(int, Runnable) Repeating} tasks run at the start of every N ticks until {@linkplain ScheduledTask#cancel() cancelled}</li>
+ *     <li>{@linkplain #runWhenIdle(Runnable) Idle} tasks run at the end of a tick, only while the tick has taken less than the {@linkplain #setIdleBudgetMillis(double) idle budget}.
+ *     Tasks that don't fit are carried over to the next tick, in order</li>
+ * </ul>
+ * <p>Every method must be called on the server thread. Scheduled tasks are dropped when the server stops</p>
+ */
+public final class TickScheduler {
+
+    /**
+     * Tasks waiting for their tick, ordered by tick and then by the order they were scheduled in
+     */
+    private static final PriorityQueue<ScheduledTask> TIMED = new PriorityQueue<>(Comparator.comparingInt((ScheduledTask task) -> task.tick).thenComparingLong(task -> task.sequence));
+
+    /**
+     * Tasks waiting for idle time
+     */
+    private static final ArrayDeque<ScheduledTask> IDLE = new ArrayDeque<>();
+
+    /**
+     * The amount of time a tick can take before idle tasks stop running, in nanoseconds
+     */
+    private static long idleBudgetNanos = 30_000_000L;
+
+    /**
+     * The time the current tick started, in nanoseconds
+     */
+    private static long tickStartNanos;
+
+    /**
+     * The amount of tasks scheduled so far, used to keep tasks on the same tick in order
+     */
+    private static long sequence;
+
+    private TickScheduler() {}
+
+    /**
+     * Sets the amount of time a tick can take before idle tasks stop running for that tick. Defaults to 30 milliseconds
+     * @param idleBudgetMillis The idle budget in milliseconds
+     * @throws IllegalArgumentException If the budget is less than 0
+     */
+    public static void setIdleBudgetMillis(double idleBudgetMillis) throws IllegalArgumentException
+    {
+        if (idleBudgetMillis < 0)
+        {
+            throw new IllegalArgumentException("Idle budget cannot be less than 0! Value offered: " + idleBudgetMillis);
+        }
+        idleBudgetNanos = (long) (idleBudgetMillis * 1_000_000D);
+    }
+
+    /**
+     * Runs a task once, at the start of a server tick. Tasks scheduled for a tick that already passed run at the start of the next tick
+     * @param serverTick The {@linkplain MinecraftServer#getTickCount() server tick} to run the task on
+     * @param task The task to run
+     * @return The {@link ScheduledTask}
+     */
+    public static ScheduledTask runAt(int serverTick, Runnable task)
+    {
+        final ScheduledTask scheduledTask = new ScheduledTask(task, serverTick, 0, sequence++);
+        TIMED.add(scheduledTask);
+        return scheduledTask;
+    }
+
+    /**
+     * Runs a task once, after a delay
+     * @param delayTicks The delay in ticks
+     * @param task The task to run
+     * @return The {@link ScheduledTask}
+     * @throws IllegalArgumentException If the delay is less than 1
+     */
+    public static ScheduledTask runLater(int delayTicks, Runnable task) throws IllegalArgumentException
+    {
+        if (delayTicks < 1)
+        {
+            throw new IllegalArgumentException("Delay must be at least 1 tick! Value offered: " + delayTicks);
+        }
+        return runAt(currentTick() + delayTicks, task);
+    }
+
+    /**
+     * Runs a task every N ticks, starting N ticks from now, until it is {@linkplain ScheduledTask#cancel() cancelled}
+     * @param intervalTicks The interval in ticks
+     * @param task The task to run
+     * @return The {@link ScheduledTask}
+     * @throws IllegalArgumentException If the interval is less than 1
+     */
+    public static ScheduledTask runEvery(int intervalTicks, Runnable task) throws IllegalArgumentException
+    {
+        if (intervalTicks < 1)
+        {
+            throw new IllegalArgumentException("Interval must be at least 1 tick! Value offered: " + intervalTicks);
+        }
+        final ScheduledTask scheduledTask = new ScheduledTask(task, currentTick() + intervalTicks, intervalTicks, sequence++);
+        TIMED.add(scheduledTask);
+        return scheduledTask;
+    }
+
+    /**
+     * Runs a task once there is idle time left at the end of a tick. Used for work that is not urgent, such as clean up, effects, or resyncs
+     * @param task The task to run
+     * @return The {@link ScheduledTask}
+     */
+    public static ScheduledTask runWhenIdle(Runnable task)
+    {
+        final ScheduledTask scheduledTask = new ScheduledTask(task, 0, 0, sequence++);
+        IDLE.add(scheduledTask);
+        return scheduledTask;
+    }
+
+    /**
+     * @return The current server tick
+     */
+    private static int currentTick()
+    {
+        final MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        return server == null ? 0 : server.getTickCount();
+    }
+
+    /**
+     * Runs every timed task that is due
+     * @param serverTick The current server tick
+     */
+    private static void runTimed(int serverTick)
+    {
+        ScheduledTask scheduledTask;
+        while ((scheduledTask = TIMED.peek()) != null && scheduledTask.tick <= serverTick)
+        {
+            TIMED.poll();
+            if (scheduledTask.cancelled)
+            {
+                continue;
+            }
+            scheduledTask.run();
+            if (scheduledTask.interval > 0 && !scheduledTask.cancelled)
+            {
+                scheduledTask.tick = serverTick + scheduledTask.interval;
+                TIMED.add(scheduledTask);
+            }
+        }
+    }
+
+    /**
+     * Runs idle tasks until the tick has used up the idle budget
+     */
+    private static void runIdle()
+    {
+        ScheduledTask scheduledTask;
+        while (System.nanoTime() - tickStartNanos < idleBudgetNanos && (scheduledTask = IDLE.poll()) != null)
+        {
+            if (!scheduledTask.cancelled)
+            {
+                scheduledTask.run();
+            }
+        }
+    }
+
+    /**
+     * A task scheduled on the {@link TickScheduler}
+     */
+    public static final class ScheduledTask
+    {
+        private final Runnable task;
+        private final int interval;
+        private final long sequence;
+        private int tick;
+        private boolean cancelled;
+
+        /**
+         * Creates a new {@link ScheduledTask}
+         * @param task The task to run
+         * @param tick The tick the task runs on. Unused by idle tasks
+         * @param interval The interval of a repeating task. 0 if the task does not repeat
+         * @param sequence The order the task was scheduled in
+         */
+        private ScheduledTask(Runnable task, int tick, int interval, long sequence)
+        {
+            this.task = task;
+            this.tick = tick;
+            this.interval = interval;
+            this.sequence = sequence;
+            this.cancelled = false;
+        }
+
+        /**
+         * Runs the task, logging anything it throws so one task can't stop the others
+         */
+        private void run()
+        {
+            try
+            {
+                this.task.run();
+            } catch (RuntimeException e)
+            {
+                LaserUtils.LOGGER.error("Scheduled task threw an exception", e);
+            }
+        }
+
+        /**
+         * Cancels the task. A cancelled task never runs again
+         */
+        public void cancel()
+        {
+            this.cancelled = true;
+        }
+
+        /**
+         * @return True if the task was cancelled
+         */
+        public boolean isCancelled()
+        {
+            return this.cancelled;
+        }
+    }
+
+    /**
+     * Tick scheduler events
+     */
+    @Mod.EventBusSubscriber(modid = LaserUtils.MODID)
+    public static class SchedulerEvents
+    {
+        /**
+         * Runs the due timed tasks at the start of the tick. Runs first, so the tick's start time includes other start of tick listeners
+         * @param event The {@link TickEvent.ServerTickEvent} to listen for
+         */
+        @SubscribeEvent(priority = EventPriority.HIGHEST)
+        public static void onServerTickStart(TickEvent.ServerTickEvent event)
+        {
+            if (event.phase == TickEvent.Phase.START)
+            {
+                tickStartNanos = System.nanoTime();
+                runTimed(event.getServer().getTickCount());
+            }
+        }
+
+        /**
+         * Runs idle tasks at the end of the tick. Runs last, so idle tasks only use time left over by other end of tick listeners
+         * @param event The {@link TickEvent.ServerTickEvent} to listen for
+         */
+        @SubscribeEvent(priority = EventPriority.LOWEST)
+        public static void onServerTickEnd(TickEvent.ServerTickEvent event)
+        {
+            if (event.phase == TickEvent.Phase.END)
+            {
+                runIdle();
+            }
+        }
+
+        /**
+         * Drops every scheduled task once the server stops
+         * @param event The {@link ServerStoppedEvent} to listen for
+         */
+        @SubscribeEvent
+        public static void onServerStopped(ServerStoppedEvent event)
+        {
+            TIMED.clear();
+            IDLE.clear();
+        }
+    }
+}
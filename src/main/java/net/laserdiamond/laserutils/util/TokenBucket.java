@@ -0,0 +1,67 @@
+package net.laserdiamond.laserutils.util;
+
+/**
+ * A thread safe token bucket, used to limit how often an action can happen.
+ * The bucket holds up to a set amount of tokens, and refills at a constant rate. Each action takes one token.
+ */
+public final class TokenBucket {
+
+    /**
+     * The maximum amount of tokens the bucket can hold
+     */
+    private final double capacity;
+
+    /**
+     * The amount of tokens refilled per nanosecond
+     */
+    private final double tokensPerNano;
+
+    /**
+     * The amount of tokens currently in the bucket
+     */
+    private double tokens;
+
+    /**
+     * The time of the last refill, in nanoseconds
+     */
+    private long lastRefill;
+
+    /**
+     * Creates a new full {@link TokenBucket}
+     * @param capacity The maximum amount of tokens the bucket can hold
+     * @param tokensPerSecond The amount of tokens refilled per second
+     * @throws IllegalArgumentException If the capacity or refill rate is less than or equal to 0
+     */
+    public TokenBucket(double capacity, double tokensPerSecond) throws IllegalArgumentException
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("Token bucket capacity must be greater than 0! Value offered: " + capacity);
+        }
+        if (tokensPerSecond <= 0)
+        {
+            throw new IllegalArgumentException("Token bucket refill rate must be greater than 0! Value offered: " + tokensPerSecond);
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000D;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Attempts to take a token from the bucket
+     * @return True if a token was taken, false if the bucket is empty
+     */
+    public synchronized boolean tryConsume()
+    {
+        final long now = System.nanoTime();
+        this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefill) * this.tokensPerNano);
+        this.lastRefill = now;
+        if (this.tokens < 1)
+        {
+            return false;
+        }
+        this.tokens--;
+        return true;
+    }
+}
@@ -416,7 +416,7 @@ public abstract class AbstractRayCast<L extends Level, E extends Entity, ER, BSR
                 return; // Pierce blocks is false and the blockState hit is solid
             }
 
-            for (E e : this.level.getEntitiesOfClass(this.entityClazz, aabb, this.entityFilter)) // Loop through all entities that intersect with the ray cast bounding box
+            for (E e : this.getEntitiesInStep(aabb)) // Loop through all entities that intersect with the ray cast bounding box
             {
                 AABB entityBB = e.getBoundingBox(); // entity bounding box
                 if (entityBB.intersects(aabb) && !this.hitEntities.contains(e)) // Ensure that the entity's bounding box intersects with the ray cast bounding box, and that we haven't already hit this entity
@@ -447,6 +447,16 @@ public abstract class AbstractRayCast<L extends Level, E extends Entity, ER, BSR
         }
     }
 
+    /**
+     * Gets the entities that intersect with the bounding box of a step of the {@link AbstractRayCast}
+     * @param stepBox The {@link AABB} of the step
+     * @return A {@link List} of the entities of the targeted class that intersect with the step and pass the entity filter
+     */
+    protected List<E> getEntitiesInStep(AABB stepBox)
+    {
+        return this.level.getEntitiesOfClass(this.entityClazz, stepBox, this.entityFilter);
+    }
+
     /**
      * Sets the entity {@link Function} to run directly when an entity is hit by the {@link AbstractRayCast}. The result of the {@link Function} is assigned to its respective field.
      * @param function The {@link Function} to run when an entity is hit
@@ -1,9 +1,12 @@
 package net.laserdiamond.laserutils.util.raycast;
 
+import net.laserdiamond.laserutils.util.EntitySpatialIndex;
 import net.minecraft.core.particles.ParticleOptions;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 
 import java.util.List;
@@ -35,6 +38,22 @@ public class ServerRayCast<E extends Entity, ER, BSR> extends AbstractRayCast<Se
         level.sendParticles(particleOptions, rayCastPos.x, rayCastPos.y, rayCastPos.z, 1, 0.0, 0.0, 0.0, 0.0);
     }
 
+    /**
+     * Gets the entities that intersect with the bounding box of a step of the {@link ServerRayCast}.
+     * Ray casts targeting {@link LivingEntity}s look through the level's {@link EntitySpatialIndex} instead of the level's entity sections
+     * @param stepBox The {@link AABB} of the step
+     * @return A {@link List} of the entities of the targeted class that intersect with the step and pass the entity filter
+     */
+    @Override
+    protected List<E> getEntitiesInStep(AABB stepBox)
+    {
+        if (LivingEntity.class.isAssignableFrom(this.entityClazz))
+        {
+            return EntitySpatialIndex.of(this.level).inBox(this.entityClazz, stepBox, this.entityFilter);
+        }
+        return super.getEntitiesInStep(stepBox);
+    }
+
 
     /**
      * Creates a new {@link ServerRayCast}